@@ -0,0 +1,18 @@
+package com.aditi.backendcapstoneproject.component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Final response bytes of a catalog endpoint as stored in the catalogResponses cache.
+ * gzipBody is only populated when gzip is enabled and the body is large enough to benefit.
+ */
+@Getter
+@Setter
+public class CachedResponse {
+
+    private byte[] body;
+    private byte[] gzipBody;
+    private String etag;
+
+}
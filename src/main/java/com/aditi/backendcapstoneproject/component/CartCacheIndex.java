@@ -0,0 +1,219 @@
+package com.aditi.backendcapstoneproject.component;
+
+import com.aditi.backendcapstoneproject.dto.CartItemResponseDto;
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Reverse index from product id to the keys (user emails) of the cached carts that show the
+ * product. Cached carts carry the product's name, price and subtotal, so a product change
+ * evicts exactly the carts that contain it instead of the whole "carts" cache.
+ *
+ * - CartService records every cart it returns, which is also what @Cacheable/@CachePut store.
+ * - A product change evicts its carts immediately and, when a transaction is active, again
+ *   after commit, so a cart rebuilt from pre-commit data is not kept.
+ * - A product in more than catalog.cart.cache-index.background-threshold carts (e.g. a popular
+ *   product) is not evicted inline: its carts are queued and evicted by CartCacheRefresher.
+ * - Callers that evict a cart from the cache (checkout, the stale data reaper) tell the index
+ *   through cartEvicted; a product deletion evicts the product's carts like a change.
+ * - The index is bounded: a cart is forgotten catalog.cart.cache-index.ttl-ms after it was
+ *   last cached (the carts cache TTL), and beyond catalog.cart.cache-index.max-carts carts
+ *   the one cached longest ago goes. A cart leaving the index this way is evicted from the
+ *   cache too, so no cached cart misses a product change.
+ *
+ * The index is held per instance, like CatalogVersionTracker. With several instances sharing
+ * the Redis carts cache, a product change evicts only the carts this instance cached; a cart
+ * cached through another instance keeps the old name and price until its TTL
+ * (spring.cache.redis.time-to-live) drops it.
+ */
+@Component
+public class CartCacheIndex {
+
+    public static final String CACHE_NAME = "carts";
+
+    private final CacheManager cacheManager;
+
+    // Both maps are guarded by the instance lock
+    private final Map<Long, Set<String>> cartsByProduct = new HashMap<>();
+
+    // Insertion ordered and re-inserted on every cache write, so the eldest entry is the cart
+    // cached longest ago
+    private final LinkedHashMap<String, IndexedCart> productsByCart = new LinkedHashMap<>();
+
+    private final Queue<String> pendingEvictions = new ConcurrentLinkedQueue<>();
+
+    @Value("${catalog.cart.cache-index.background-threshold:100}")
+    private int backgroundThreshold = 100;
+
+    @Value("${catalog.cart.cache-index.ttl-ms:600000}")
+    private long ttlMs = 600000;
+
+    @Value("${catalog.cart.cache-index.max-carts:100000}")
+    private int maxCarts = 100000;
+
+    public CartCacheIndex(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Records the products of a cart that is about to be cached under the given email.
+     */
+    public void cartCached(String email, CartResponseDto cart) {
+        Set<Long> productIds = cart.getItems().stream()
+                .map(CartItemResponseDto::getProductId)
+                .collect(Collectors.toSet());
+        Set<String> dropped;
+        synchronized (this) {
+            IndexedCart previous = productsByCart.remove(email);
+            if (previous != null) {
+                for (Long productId : previous.productIds()) {
+                    if (!productIds.contains(productId)) {
+                        unlink(productId, email);
+                    }
+                }
+            }
+            long now = System.currentTimeMillis();
+            productsByCart.put(email, new IndexedCart(productIds, now));
+            for (Long productId : productIds) {
+                cartsByProduct.computeIfAbsent(productId, id -> new HashSet<>()).add(email);
+            }
+            dropped = dropExpired(now);
+        }
+        evictNow(dropped);
+    }
+
+    /**
+     * Called when the user's cart was evicted from the cache (e.g. by checkout).
+     */
+    public synchronized void cartEvicted(String email) {
+        forget(email);
+    }
+
+    /**
+     * Called when the name, price or image of a product changed.
+     */
+    public void productChanged(Long productId) {
+        productsChanged(Set.of(productId));
+    }
+
+    /**
+     * Called when the name, price or image of several products changed, e.g. by a bulk price update.
+     */
+    public void productsChanged(Collection<Long> productIds) {
+        evict(cartsOf(productIds, false));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(cartsOf(productIds, true));
+                }
+            });
+        } else {
+            cartsOf(productIds, true);
+        }
+    }
+
+    /**
+     * Evicts the carts queued for popular products. Returns the number of evicted carts.
+     */
+    public int evictPending() {
+        Cache carts = cacheManager.getCache(CACHE_NAME);
+        int evicted = 0;
+        String email;
+        while ((email = pendingEvictions.poll()) != null) {
+            if (carts != null) {
+                carts.evict(email);
+            }
+            evicted++;
+        }
+        return evicted;
+    }
+
+    public synchronized int size() {
+        return productsByCart.size();
+    }
+
+    /**
+     * The indexed carts of the products; with forget, the products leave the index, as their
+     * carts are evicted and get indexed again when they are next cached.
+     */
+    private synchronized Set<String> cartsOf(Collection<Long> productIds, boolean forget) {
+        Set<String> emails = new HashSet<>();
+        for (Long productId : productIds) {
+            Set<String> carts = forget ? cartsByProduct.remove(productId) : cartsByProduct.get(productId);
+            if (carts != null) {
+                emails.addAll(carts);
+            }
+        }
+        return emails;
+    }
+
+    /**
+     * Drops the carts cached before the TTL and, beyond max-carts, the carts cached longest ago.
+     */
+    private Set<String> dropExpired(long now) {
+        Set<String> dropped = new HashSet<>();
+        Iterator<Map.Entry<String, IndexedCart>> eldest = productsByCart.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<String, IndexedCart> entry = eldest.next();
+            if (productsByCart.size() <= maxCarts && now - entry.getValue().cachedAt() < ttlMs) {
+                break;
+            }
+            eldest.remove();
+            entry.getValue().productIds().forEach(productId -> unlink(productId, entry.getKey()));
+            dropped.add(entry.getKey());
+        }
+        return dropped;
+    }
+
+    private void forget(String email) {
+        IndexedCart indexed = productsByCart.remove(email);
+        if (indexed != null) {
+            indexed.productIds().forEach(productId -> unlink(productId, email));
+        }
+    }
+
+    private void evict(Set<String> emails) {
+        if (emails.size() > backgroundThreshold) {
+            pendingEvictions.addAll(emails);
+            return;
+        }
+        evictNow(emails);
+    }
+
+    private void evictNow(Set<String> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        Cache carts = cacheManager.getCache(CACHE_NAME);
+        if (carts != null) {
+            emails.forEach(carts::evict);
+        }
+    }
+
+    private void unlink(Long productId, String email) {
+        cartsByProduct.computeIfPresent(productId, (id, emails) -> {
+            emails.remove(email);
+            return emails.isEmpty() ? null : emails;
+        });
+    }
+
+    private record IndexedCart(Set<Long> productIds, long cachedAt) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.aditi.backendcapstoneproject.component;
+
+import com.aditi.backendcapstoneproject.repository.CustomQuery;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional write-behind cart mode (catalog.cart.write-behind.enabled).
+ *
+ * Live carts are kept in memory per user email. CartService acknowledges quantity changes,
+ * removals and clears from here, and CartWriteBehindFlusher writes every cart changed since its
+ * previous run every catalog.cart.write-behind.flush-interval-ms: all carts' changes coalesce
+ * into one transaction of JDBC batches (quantity UPDATEs, DELETEs and the carts' lastModified).
+ * A product that is not in the cart yet is still inserted synchronously, so every item id the
+ * API returns exists.
+ *
+ * Durability: a change is acknowledged before it reaches the database.
+ * - Changes younger than the flush interval are lost if the instance crashes; a graceful
+ *   shutdown flushes everything.
+ * - A failed flush keeps the changes and retries them on the next run.
+ * - Checkout (detach) flushes the cart synchronously before the order reads it.
+ * Flushes run one at a time under flushLock: a flush takes the changes out of the carts before
+ * it writes them, so a detach or eviction running next to it would otherwise miss changes that
+ * are not committed yet, and two flushes could commit the same line out of order.
+ * The lock order is flushLock, then the cart.
+ * The store is per instance, so running several instances in this mode needs sticky sessions.
+ */
+@Component
+public class CartWriteBehindStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteBehindStore.class);
+
+    private final Map<String, LiveCart> carts = new ConcurrentHashMap<>();
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Object flushLock = new Object();
+
+    @Value("${catalog.cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    public CartWriteBehindStore(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Checkout flushes from inside its own transaction, the cart changes commit on their own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the live cart of the user, or null if it has to be loaded first.
+     */
+    public LiveCart get(String email) {
+        return carts.get(email);
+    }
+
+    /**
+     * Registers a freshly loaded cart; if another request loaded it first, that one is kept.
+     */
+    public LiveCart register(String email, LiveCart loaded) {
+        LiveCart existing = carts.putIfAbsent(email, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Removes the user's cart from the store and flushes its pending changes synchronously.
+     * The next access loads the cart from the database again. If the flush fails the cart
+     * stays in the store and the exception is rethrown.
+     * A scheduled flush in progress is waited for, so changes it fails to write are flushed here.
+     */
+    public void detach(String email) {
+        LiveCart cart = carts.get(email);
+        if (cart == null) {
+            return;
+        }
+        // Mutations of this cart wait until it is written and gone
+        synchronized (flushLock) {
+            synchronized (cart) {
+                flush(List.of(cart));
+                cart.detach();
+                carts.remove(email, cart);
+            }
+        }
+    }
+
+    /**
+     * Drops the user's cart from the store without writing it, once its row has been deleted
+     * (StaleDataReaperService). The next access creates a new cart.
+     */
+    public void discard(String email) {
+        LiveCart cart = carts.get(email);
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            cart.detach();
+            carts.remove(email, cart);
+        }
+    }
+
+    /**
+     * Writes the changes of every dirty cart; returns the number of carts written.
+     */
+    public int flushDirty() {
+        synchronized (flushLock) {
+            List<LiveCart> dirty = new ArrayList<>();
+            for (LiveCart cart : carts.values()) {
+                synchronized (cart) {
+                    if (cart.isDirty()) {
+                        dirty.add(cart);
+                    }
+                }
+            }
+            return flush(dirty);
+        }
+    }
+
+    /**
+     * Drops clean carts that were not used for the given time, to bound the memory.
+     * Runs between flushes: a cart whose changes are being written looks clean until they commit.
+     */
+    public int evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        synchronized (flushLock) {
+            for (Map.Entry<String, LiveCart> entry : carts.entrySet()) {
+                LiveCart cart = entry.getValue();
+                synchronized (cart) {
+                    if (!cart.isDirty() && cart.getLastAccess() < cutoff && carts.remove(entry.getKey(), cart)) {
+                        cart.detach();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!carts.isEmpty()) {
+            logger.info("Flushing {} write-behind carts before shutdown", carts.size());
+            flushDirty();
+        }
+    }
+
+    // Callers hold flushLock from taking the changes until they are flushed or restored
+    private int flush(List<LiveCart> dirty) {
+        Map<LiveCart, List<LiveCart.LineChange>> changes = new LinkedHashMap<>();
+        for (LiveCart cart : dirty) {
+            synchronized (cart) {
+                changes.put(cart, cart.takeChanges());
+            }
+        }
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(changes));
+        } catch (RuntimeException e) {
+            changes.forEach((cart, cartChanges) -> {
+                synchronized (cart) {
+                    cart.restore(cartChanges);
+                }
+            });
+            logger.error("Write-behind flush of {} carts failed, retrying on the next run: {}",
+                    changes.size(), e.getMessage(), e);
+            throw e;
+        }
+
+        changes.forEach((cart, cartChanges) -> {
+            synchronized (cart) {
+                cart.flushed(cartChanges);
+            }
+        });
+        logger.debug("Flushed {} write-behind carts", changes.size());
+        return changes.size();
+    }
+
+    private void write(Map<LiveCart, List<LiveCart.LineChange>> changes) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<SqlParameterSource> updates = new ArrayList<>();
+        List<SqlParameterSource> deletes = new ArrayList<>();
+        List<SqlParameterSource> touchedCarts = new ArrayList<>();
+
+        changes.forEach((cart, cartChanges) -> {
+            for (LiveCart.LineChange change : cartChanges) {
+                if (change.removed()) {
+                    deletes.add(new MapSqlParameterSource("id", change.itemId()));
+                } else {
+                    updates.add(new MapSqlParameterSource("id", change.itemId())
+                            .addValue("quantity", change.quantity())
+                            .addValue("now", now));
+                }
+            }
+            touchedCarts.add(new MapSqlParameterSource("id", cart.getCartId()).addValue("now", now));
+        });
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(CustomQuery.UPDATE_CART_ITEM_QUANTITY, updates.toArray(SqlParameterSource[]::new));
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(CustomQuery.DELETE_CART_ITEM, deletes.toArray(SqlParameterSource[]::new));
+        }
+        jdbcTemplate.batchUpdate(CustomQuery.TOUCH_CART, touchedCarts.toArray(SqlParameterSource[]::new));
+    }
+}
@@ -0,0 +1,211 @@
+package com.aditi.backendcapstoneproject.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response-level cache for the hot catalog endpoints (GET /products, /products/{id}, /categories,
+ * /categories/{name}/products).
+ *
+ * Stores the final UTF-8 JSON bytes (and optionally a gzip variant) in the "catalogResponses"
+ * cache and writes them straight to the servlet output stream, so a hit skips both the
+ * entity → DTO mapping and Jackson serialization. Entries are evicted by ProductDBService
+ * together with productsById/productsAll.
+ */
+@Component
+public class CatalogResponseCache {
+
+    public static final String CACHE_NAME = "catalogResponses";
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    private static final int GZIP_MIN_SIZE = 2048;
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.response-cache.gzip:true}")
+    private boolean gzipEnabled;
+
+    @Value("${catalog.response-cache.max-cached-page:4}")
+    private int maxCachedPage;
+
+    public CatalogResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String productKey(long id) {
+        return "product:" + id;
+    }
+
+    /**
+     * Normalized key for GET /products: defaults applied, sort direction and free-text
+     * filters lower-cased and trimmed, so equivalent requests share one entry.
+     */
+    public static String productPageKey(int page, int size, String sort, String category, String q) {
+        return "products:page=" + page
+                + ":size=" + size
+                + ":sort=" + normalizeSort(sort)
+                + ":category=" + normalize(category)
+                + ":q=" + normalize(q);
+    }
+
+    public static String categoryProductsPageKey(String categoryName, int page, int size, String sort) {
+        return "category:" + normalize(categoryName)
+                + ":page=" + page
+                + ":size=" + size
+                + ":sort=" + normalizeSort(sort);
+    }
+
+    public static String categoryProductsCursorKey(String categoryName, long cursor, int size) {
+        return "category:" + normalize(categoryName)
+                + ":cursor=" + cursor
+                + ":size=" + size;
+    }
+
+    public static String categoriesKey(boolean withStats) {
+        return withStats ? "categories:stats" : "categories";
+    }
+
+    /**
+     * Only the first pages of listings are hot enough to be worth caching.
+     */
+    public boolean isCacheablePage(int page) {
+        return page <= maxCachedPage;
+    }
+
+    /**
+     * Writes the cached response for the key, answering with 304 when the client already
+     * holds the cached version. Returns false on a miss so the caller builds the response.
+     */
+    public boolean writeCached(String key, HttpServletRequest request, HttpServletResponse response) {
+        if (!enabled) {
+            return false;
+        }
+        CachedResponse cached = get(key);
+        if (cached == null) {
+            return false;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(cached.getEtag())) {
+            return true;
+        }
+        write(cached, request, response);
+        return true;
+    }
+
+    /**
+     * Serializes the body once, stores the bytes under the key (when cacheable) and
+     * writes them to the response.
+     */
+    public void writeAndStore(String key, boolean cacheable, Object body, String etag,
+                              HttpServletRequest request, HttpServletResponse response) {
+        CachedResponse cached = new CachedResponse();
+        cached.setBody(serialize(body));
+        cached.setEtag(etag);
+        if (gzipEnabled && cached.getBody().length >= GZIP_MIN_SIZE) {
+            cached.setGzipBody(gzip(cached.getBody()));
+        }
+        if (enabled && cacheable) {
+            put(key, cached);
+        }
+        write(cached, request, response);
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) {
+        byte[] bytes = cached.getBody();
+        if (cached.getGzipBody() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                bytes = cached.getGzipBody();
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.ETAG, cached.getEtag());
+        response.setContentLength(bytes.length);
+        try {
+            response.getOutputStream().write(bytes);
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write cached catalog response", e);
+        }
+    }
+
+    private CachedResponse get(String key) {
+        try {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            return cache != null ? cache.get(key, CachedResponse.class) : null;
+        } catch (RuntimeException e) {
+            logger.warn("Cache {} error during GET for key {}. Falling back to direct DB access. Cause: {}",
+                    CACHE_NAME, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void put(String key, CachedResponse cached) {
+        try {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache != null) {
+                cache.put(key, cached);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Cache {} error during PUT for key {}. Cause: {}", CACHE_NAME, key, e.getMessage());
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip catalog response", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private static String normalizeSort(String sort) {
+        String[] sortParts = sort.split(",");
+        String direction = sortParts.length > 1 ? normalize(sortParts[1]) : "asc";
+        return sortParts[0].trim() + "," + direction;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
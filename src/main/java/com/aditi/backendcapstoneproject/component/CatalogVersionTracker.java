@@ -0,0 +1,63 @@
+package com.aditi.backendcapstoneproject.component;
+
+import com.aditi.backendcapstoneproject.model.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks catalog versions used to build strong ETags for the public catalog endpoints.
+ *
+ * - A catalog-wide counter is bumped by every catalog mutation and backs the ETags of list
+ *   endpoints (/products, /categories, /categories/{name}/products).
+ * - GET /products/{id} is tagged with the lastModified of the product it loaded, so every
+ *   instance derives the same ETag from the same row and a change made through another
+ *   instance (or straight in the database) is seen as soon as the product is read again.
+ *
+ * The counter is held in memory so a matching If-None-Match on a list can be answered with
+ * 304 before any DB access or JSON serialization. It is seeded from the startup time so
+ * ETags issued before a restart never match afterwards. The counter is per instance; a
+ * mutation on one instance is not visible to another instance's counter.
+ */
+@Component
+public class CatalogVersionTracker {
+
+    private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
+
+    public long currentVersion() {
+        return catalogVersion.get();
+    }
+
+    public String catalogEtag() {
+        return "\"catalog-" + catalogVersion.get() + "\"";
+    }
+
+    /**
+     * The ETag of a loaded product. lastModified is truncated to seconds, the precision of
+     * the datetime column, so a product read back from the database and the same product
+     * still held from its write get the same ETag.
+     */
+    public String productEtag(Product product) {
+        long version = product.getLastModified() != null ? product.getLastModified().getTime() / 1000 : 0L;
+        return "\"product-" + product.getId() + "-" + version + "\"";
+    }
+
+    /**
+     * Called by catalog mutations. The counter is bumped immediately and, when a transaction
+     * is active, once more after commit so that readers which raced the transaction and
+     * cached pre-commit data under the intermediate version are invalidated.
+     */
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogVersion.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.aditi.backendcapstoneproject.component;
 
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.SQLException;
 
 @Component
@@ -17,10 +19,21 @@ public class DbConnectionChecker {
     @Autowired
     private DataSource dataSource;
 
+    /**
+     * Fails the startup if the database can not be reached. The connection is handed
+     * straight back to the pool.
+     */
     @PostConstruct
     public void printDbUsed() throws SQLException {
-        logger.info("Connected to DB: {}", dataSource.getConnection().getCatalog());
+        try (Connection connection = dataSource.getConnection()) {
+            logger.info("Connected to DB: {}", connection.getCatalog());
+        }
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+            logger.info("Connection pool {}: maximumPoolSize={}, minimumIdle={}, connectionTimeout={}ms, leakDetectionThreshold={}ms",
+                    pool.getPoolName(), pool.getMaximumPoolSize(), pool.getMinimumIdle(),
+                    pool.getConnectionTimeout(), pool.getLeakDetectionThreshold());
+        }
     }
 
 }
-
@@ -0,0 +1,142 @@
+package com.aditi.backendcapstoneproject.component;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Carts of anonymous visitors (GuestCartService), held in memory only: nothing reaches the
+ * database before the visitor logs in and the cart is merged into the user's cart.
+ *
+ * A guest cart is the quantity per product id under a random cart id, which the visitor holds
+ * as a signed cart token. The store is bounded in two ways:
+ * - a cart not used for catalog.cart.guest.ttl-ms expires (every read or change renews it);
+ *   GuestCartEvictor drops expired carts in the background.
+ * - beyond catalog.cart.guest.max-carts carts the least recently used one is dropped.
+ *
+ * Like CartWriteBehindStore, the store is per instance: with several instances guest carts
+ * need sticky sessions, and they do not survive a restart.
+ */
+@Component
+public class GuestCartStore {
+
+    @Value("${catalog.cart.guest.ttl-ms:86400000}")
+    private long ttlMs = 86400000;
+
+    @Value("${catalog.cart.guest.max-carts:100000}")
+    private int maxCarts = 100000;
+
+    // Access ordered, so the eldest entry is the least recently used cart
+    private final Map<String, GuestCart> carts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GuestCart> eldest) {
+            return size() > maxCarts;
+        }
+    };
+
+    /**
+     * Starts an empty guest cart and returns its id.
+     */
+    public synchronized String create() {
+        String cartId = UUID.randomUUID().toString();
+        carts.put(cartId, new GuestCart());
+        return cartId;
+    }
+
+    /**
+     * Whether the cart exists and has not expired.
+     */
+    public synchronized boolean exists(String cartId) {
+        return live(cartId) != null;
+    }
+
+    /**
+     * A copy of the cart's quantities by product id, or null if the cart does not exist or
+     * has expired.
+     */
+    public synchronized Map<Long, Integer> get(String cartId) {
+        GuestCart cart = live(cartId);
+        return cart != null ? new LinkedHashMap<>(cart.quantities) : null;
+    }
+
+    /**
+     * Applies the change to the cart's quantities and returns a copy of the result, or null
+     * (without applying the change) if the cart does not exist or has expired.
+     */
+    public synchronized Map<Long, Integer> update(String cartId, Consumer<Map<Long, Integer>> change) {
+        GuestCart cart = live(cartId);
+        if (cart == null) {
+            return null;
+        }
+        change.accept(cart.quantities);
+        return new LinkedHashMap<>(cart.quantities);
+    }
+
+    /**
+     * Removes the cart and returns its quantities, or null if it does not exist or has expired.
+     */
+    public synchronized Map<Long, Integer> remove(String cartId) {
+        GuestCart cart = live(cartId);
+        if (cart == null) {
+            return null;
+        }
+        carts.remove(cartId);
+        return cart.quantities;
+    }
+
+    /**
+     * Puts a removed cart back, e.g. when merging it into a user's cart failed.
+     */
+    public synchronized void restore(String cartId, Map<Long, Integer> quantities) {
+        GuestCart cart = new GuestCart();
+        cart.quantities.putAll(quantities);
+        carts.put(cartId, cart);
+    }
+
+    /**
+     * Drops every expired cart; returns the number of dropped carts.
+     */
+    public synchronized int evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        int evicted = 0;
+        for (Iterator<GuestCart> it = carts.values().iterator(); it.hasNext(); ) {
+            if (it.next().lastAccess < cutoff) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized int size() {
+        return carts.size();
+    }
+
+    private GuestCart live(String cartId) {
+        if (cartId == null) {
+            return null;
+        }
+        GuestCart cart = carts.get(cartId);
+        if (cart == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (cart.lastAccess < now - ttlMs) {
+            carts.remove(cartId);
+            return null;
+        }
+        cart.lastAccess = now;
+        return cart;
+    }
+
+    private static class GuestCart {
+
+        private final Map<Long, Integer> quantities = new LinkedHashMap<>();
+        private long lastAccess = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,228 @@
+package com.aditi.backendcapstoneproject.component;
+
+import com.aditi.backendcapstoneproject.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory state of one user's cart in write-behind mode (see CartWriteBehindStore).
+ *
+ * Holds the absolute quantity of every line, so flushing the same change twice is harmless.
+ * Lines changed since the last flush are marked dirty; removed lines are kept until their
+ * DELETE has been flushed. Callers synchronize on the instance around reads and mutations;
+ * flushed, restore and detach notify the callers waiting in awaitDeleteOf.
+ */
+public class LiveCart {
+
+    private final Long cartId;
+    private final Map<Long, Line> linesByProduct = new LinkedHashMap<>();
+    // Failed DELETEs of lines that were replaced by a new row in the meantime
+    private final List<LineChange> retries = new ArrayList<>();
+    private boolean cartDirty;
+    private boolean detached;
+    private long lastAccess = System.currentTimeMillis();
+
+    public LiveCart(Long cartId, List<CartItem> items) {
+        this.cartId = cartId;
+        for (CartItem item : items) {
+            linesByProduct.put(item.getProduct().getId(),
+                    new Line(item.getId(), item.getProduct().getId(), item.getQuantity()));
+        }
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    /**
+     * Set once the cart has left the store (checkout or idle eviction); mutations must then
+     * reload the cart instead of changing this instance.
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+
+    void detach() {
+        detached = true;
+        notifyAll();
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    public List<Line> lines() {
+        List<Line> lines = new ArrayList<>();
+        for (Line line : linesByProduct.values()) {
+            if (!line.removed) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * The line of the product, including a removed one whose DELETE has not been handed to a
+     * flush (setQuantity then brings it back). Returns null when the product needs a new row.
+     * Call awaitDeleteOf first, so a DELETE in flight has either committed or been restored.
+     */
+    public Line reusableLine(Long productId) {
+        Line line = linesByProduct.get(productId);
+        if (line == null || line.removed && !line.dirty) {
+            return null;
+        }
+        return line;
+    }
+
+    /**
+     * Waits while the DELETE of the product's removed line is being written by a flush: a new
+     * row for the product could not be inserted before the old one is gone, and the old one
+     * comes back if the flush fails. Releases the monitor while waiting, so the cart may have
+     * been detached on return.
+     */
+    public void awaitDeleteOf(Long productId) {
+        Line line = linesByProduct.get(productId);
+        while (line != null && line.removed && !line.dirty && !detached) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the cart flush", e);
+            }
+            line = linesByProduct.get(productId);
+        }
+    }
+
+    public Line lineOfItem(Long itemId) {
+        for (Line line : linesByProduct.values()) {
+            if (!line.removed && line.itemId.equals(itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a line whose row has just been inserted.
+     */
+    public void addLine(Long itemId, Long productId, int quantity) {
+        linesByProduct.put(productId, new Line(itemId, productId, quantity));
+        cartDirty = true;
+    }
+
+    public void setQuantity(Line line, int quantity) {
+        line.quantity = quantity;
+        line.removed = false;
+        line.dirty = true;
+        cartDirty = true;
+    }
+
+    public void remove(Line line) {
+        line.removed = true;
+        line.dirty = true;
+        cartDirty = true;
+    }
+
+    public void clear() {
+        linesByProduct.values().forEach(this::remove);
+        cartDirty = true;
+    }
+
+    /**
+     * Drops a line whose row is already gone from the database (e.g. its product was deleted).
+     */
+    public void forget(Line line) {
+        linesByProduct.remove(line.productId);
+    }
+
+    boolean isDirty() {
+        return cartDirty;
+    }
+
+    /**
+     * Returns the changes since the last flush and marks the cart clean.
+     */
+    List<LineChange> takeChanges() {
+        List<LineChange> changes = new ArrayList<>(retries);
+        retries.clear();
+        for (Line line : linesByProduct.values()) {
+            if (line.dirty) {
+                changes.add(new LineChange(line.itemId, line.productId, line.quantity, line.removed));
+                line.dirty = false;
+            }
+        }
+        cartDirty = false;
+        return changes;
+    }
+
+    /**
+     * Called once the changes are committed: drops the lines whose removal was flushed.
+     * A product added again meanwhile already has a new line with its own row.
+     */
+    void flushed(List<LineChange> changes) {
+        for (LineChange change : changes) {
+            Line line = linesByProduct.get(change.productId());
+            if (change.removed() && line != null && line.itemId.equals(change.itemId()) && line.removed) {
+                linesByProduct.remove(change.productId());
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Called when writing the changes failed, so the next flush retries them.
+     */
+    void restore(List<LineChange> changes) {
+        for (LineChange change : changes) {
+            Line line = linesByProduct.get(change.productId());
+            if (line != null && line.itemId.equals(change.itemId())) {
+                line.dirty = true;
+            } else if (change.removed()) {
+                retries.add(change);
+            }
+        }
+        cartDirty = true;
+        notifyAll();
+    }
+
+    record LineChange(Long itemId, Long productId, int quantity, boolean removed) {
+    }
+
+    public static class Line {
+
+        private final Long itemId;
+        private final Long productId;
+        private int quantity;
+        private boolean removed;
+        private boolean dirty;
+
+        private Line(Long itemId, Long productId, int quantity) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+}
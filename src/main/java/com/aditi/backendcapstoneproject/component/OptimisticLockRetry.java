@@ -0,0 +1,98 @@
+package com.aditi.backendcapstoneproject.component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a read-modify-write in its own transaction and, when it loses an optimistic lock
+ * (@Version) race, runs it again in a fresh transaction. Each attempt reads the current rows,
+ * so the change is applied on top of the concurrent one instead of overwriting it; no lock is
+ * held between the read and the write. After catalog.optimistic-lock.max-attempts the conflict
+ * is rethrown and GlobalExceptionHandler answers 409.
+ *
+ * Called inside a transaction that is already active, the work joins it and runs once: the
+ * outer transaction holds the stale rows, so only its own caller can retry.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${catalog.optimistic-lock.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${catalog.optimistic-lock.backoff-ms:20}")
+    private long backoffMs = 20;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    public <T, E extends Exception> T inTransaction(Work<T, E> work) throws E {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.run();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return runInTransaction(work);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("Optimistic lock conflict persisted after {} attempts: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                logger.debug("Optimistic lock conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    // Checked exceptions of the work roll the transaction back and reach the caller unchanged
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T runInTransaction(Work<T, E> work) throws E {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return work.run();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CheckedFailure(e);
+                }
+            });
+        } catch (CheckedFailure failure) {
+            throw (E) failure.getCause();
+        }
+    }
+
+    // Growing, jittered pause so the writers that collided do not collide again at once
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        try {
+            Thread.sleep(backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private static final class CheckedFailure extends RuntimeException {
+
+        CheckedFailure(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -33,8 +33,9 @@ import java.util.List;
 public class ConditionalRedisConfig {
 
     private static final List<String> CACHE_NAMES = List.of(
-        "profiles", "productsById", "productsAll", "productsByCategory", "productsSearch",
-        "fakestoreProductsById", "fakestoreProductsAll", "carts", "orders", "orderById", "payments"
+        "profiles", "productsById", "productsAll", "productsSearch",
+        "fakestoreProductsById", "fakestoreProductsAll", "carts", "orders", "orderById", "payments",
+        "catalogResponses"
     );
 
     /**
@@ -103,9 +104,12 @@ public class ConditionalRedisConfig {
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
             .disableCachingNullValues();
 
+        // Puts and evicts made inside a transaction wait for its commit, so a rolled back
+        // cart mutation never writes its result into the carts cache
         return RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
             .initialCacheNames(java.util.Set.copyOf(CACHE_NAMES))
+            .transactionAware()
             .build();
     }
 }
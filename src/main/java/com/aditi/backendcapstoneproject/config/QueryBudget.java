@@ -0,0 +1,19 @@
+package com.aditi.backendcapstoneproject.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides catalog.query-budget.default-max-statements for a controller method or class.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    // For endpoints whose statement count grows with the request, e.g. bulk imports
+    int UNLIMITED = -1;
+
+    int value();
+}
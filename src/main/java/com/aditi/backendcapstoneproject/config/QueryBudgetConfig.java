@@ -0,0 +1,47 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-request SQL statement budget (catalog.query-budget.*), to catch N+1 regressions.
+ *
+ * A Hibernate StatementInspector counts every prepared statement in QueryCounter, and
+ * QueryBudgetInterceptor checks each controller call against its budget.
+ */
+@Configuration
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    @Value("${catalog.query-budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.query-budget.default-max-statements:20}")
+    private int defaultMaxStatements;
+
+    // log or fail
+    @Value("${catalog.query-budget.mode:log}")
+    private String mode;
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        StatementInspector inspector = sql -> {
+            QueryCounter.statementPrepared(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(new QueryBudgetInterceptor(defaultMaxStatements, "fail".equalsIgnoreCase(mode)));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements of each controller call and compares them with its budget:
+ * the @QueryBudget of the handler method or class, otherwise the default. Over budget,
+ * the request is logged (mode=log) or its next statement fails (mode=fail).
+ *
+ * Only statements issued while the handler runs on the request thread are counted, not
+ * those of the security filters or of streamed response bodies.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private static final String START_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".start";
+    private static final String BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".budget";
+
+    private final int defaultBudget;
+    private final boolean failWhenExceeded;
+
+    public QueryBudgetInterceptor(int defaultBudget, boolean failWhenExceeded) {
+        this.defaultBudget = defaultBudget;
+        this.failWhenExceeded = failWhenExceeded;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        int budget = budgetOf(handlerMethod);
+        long start = QueryCounter.current();
+        request.setAttribute(START_ATTRIBUTE, start);
+        request.setAttribute(BUDGET_ATTRIBUTE, budget);
+        if (failWhenExceeded && budget != QueryBudget.UNLIMITED) {
+            QueryCounter.limit(start + budget, endpoint(request));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)
+                || !(request.getAttribute(BUDGET_ATTRIBUTE) instanceof Integer budget)) {
+            return;
+        }
+        QueryCounter.clearLimit();
+        long statements = QueryCounter.current() - start;
+        if (budget != QueryBudget.UNLIMITED && statements > budget) {
+            logger.warn("{} ran {} SQL statements, its query budget is {}", endpoint(request), statements, budget);
+        } else {
+            logger.debug("{} ran {} SQL statements", endpoint(request), statements);
+        }
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
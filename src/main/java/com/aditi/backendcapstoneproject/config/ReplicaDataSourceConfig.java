@@ -0,0 +1,97 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to replica pools, enabled with catalog.datasource.replicas.enabled=true.
+ *
+ * The application DataSource becomes a LazyConnectionDataSourceProxy over the primary pool
+ * (spring.datasource.*). Its physical connection is only fetched at the first statement, once the
+ * transaction's read-only flag is known: @Transactional(readOnly = true) work (catalog, category
+ * and order history reads, and Spring Data's read-only repository methods) then goes through the
+ * ReplicaRoutingDataSource, everything else to the primary. Replica pools share the primary's
+ * spring.datasource.hikari settings and credentials unless overridden.
+ *
+ * Replicas are asynchronous, so a read right after a write may not see it yet, at most
+ * max-lag-seconds behind; reads inside a write transaction always use the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment,
+                                              MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName(ReplicaRoutingDataSource.PRIMARY_POOL);
+        }
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.datasource.replicas.urls}") String urls,
+            @Value("${catalog.datasource.replicas.username:}") String username,
+            @Value("${catalog.datasource.replicas.password:}") String password,
+            @Value("${catalog.datasource.replicas.max-lag-seconds:5}") long maxLagSeconds,
+            @Value("${catalog.datasource.replicas.lag-query:SHOW REPLICA STATUS}") String lagQuery) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> replicaUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replicaUrls.get(i))
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(password.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("catalog.datasource.replicas.urls must list at least one replica");
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagSeconds, lagQuery, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
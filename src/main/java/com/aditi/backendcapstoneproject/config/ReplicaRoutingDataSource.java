@@ -0,0 +1,180 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource behind read-only transactions: hands out connections of the replica pools in
+ * round-robin order, skipping replicas that are unreachable or lag behind the primary by more
+ * than catalog.datasource.replicas.max-lag-seconds. When no replica qualifies, the connection
+ * comes from the primary instead.
+ *
+ * The lag of every replica is polled with catalog.datasource.replicas.lag-query. On MySQL the
+ * default SHOW REPLICA STATUS is read from its Seconds_Behind_Source column, a NULL value
+ * (replication stopped) makes the replica unavailable; for other queries the first column is
+ * taken as the lag in seconds. An empty result counts as no lag.
+ *
+ * Metrics: datasource.routing.connections (tag pool) counts the connections handed out per pool,
+ * datasource.replica.lag and datasource.replica.available report the last lag check per replica.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY_POOL = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final Counter primaryConnections;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                    long maxLagSeconds, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        this.replicas = replicaPools.stream()
+                .map(pool -> new Replica(pool, meterRegistry))
+                .toList();
+        this.primaryConnections = Counter.builder("datasource.routing.connections")
+                .description("Connections handed out for read-only transactions")
+                .tag("pool", PRIMARY_POOL)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        checkReplicaLag();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.connections.increment();
+                return connection;
+            } catch (SQLException e) {
+                logger.warn("Replica {} is unreachable, excluding it until the next lag check: {}",
+                        replica.name(), e.getMessage());
+                replica.available = false;
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.datasource.replicas.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            double lag = readLag(replica);
+            boolean available = !Double.isNaN(lag) && lag <= maxLagSeconds;
+            if (available != replica.available) {
+                logger.info("Replica {} is now {} (lag {} s)", replica.name(),
+                        available ? "available" : "unavailable", lag);
+            }
+            replica.lagSeconds = lag;
+            replica.available = available;
+        }
+    }
+
+    /**
+     * Names of the replica pools currently used for read-only transactions.
+     */
+    public List<String> getAvailableReplicas() {
+        return replicas.stream()
+                .filter(replica -> replica.available)
+                .map(Replica::name)
+                .toList();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    // Lag in seconds, NaN if the replica can not be reached or is not replicating
+    private double readLag(Replica replica) {
+        try (Connection connection = replica.pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return 0;
+            }
+            double lag = resultSet.getDouble(lagColumn(resultSet.getMetaData()));
+            return resultSet.wasNull() ? Double.NaN : lag;
+        } catch (SQLException e) {
+            logger.warn("Lag check of replica {} failed: {}", replica.name(), e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            String label = metaData.getColumnLabel(column);
+            if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                return column;
+            }
+        }
+        return 1;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private final Counter connections;
+        private volatile boolean available;
+        private volatile double lagSeconds = Double.NaN;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.connections = Counter.builder("datasource.routing.connections")
+                    .description("Connections handed out for read-only transactions")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .description("Replication lag seen by the last check, NaN if unknown")
+                    .baseUnit("seconds")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", this, replica -> replica.available ? 1 : 0)
+                    .description("Whether read-only transactions are routed to the replica")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        String name() {
+            return pool.getPoolName();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.aditi.backendcapstoneproject.controller;
+
+import com.aditi.backendcapstoneproject.dto.DiagnosticsResponseDto;
+import com.aditi.backendcapstoneproject.service.DiagnosticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin")
+@Tag(name = "Admin", description = "Operational diagnostics for administrators")
+public class AdminController {
+
+    private final DiagnosticsService diagnosticsService;
+
+    public AdminController(DiagnosticsService diagnosticsService) {
+        this.diagnosticsService = diagnosticsService;
+    }
+
+    @Operation(summary = "Runtime diagnostics",
+            description = "Connection pool usage (active/idle/pending, wait times, timeouts) and second-level cache hit ratios (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Diagnostics returned"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/diagnostics")
+    public ResponseEntity<DiagnosticsResponseDto> getDiagnostics() {
+        return new ResponseEntity<>(diagnosticsService.getDiagnostics(), HttpStatus.OK);
+    }
+}
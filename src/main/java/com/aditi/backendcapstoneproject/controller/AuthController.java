@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -53,15 +54,18 @@ public class AuthController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "User login", description = "Authenticates a user and returns a JWT token")
+    @Operation(summary = "User login",
+            description = "Authenticates a user and returns a JWT token. A guest cart named by the X-Cart-Token header is merged into the user's cart")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful"),
             @ApiResponse(responseCode = "401", description = "Invalid credentials")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginRequestDto request)
+    public ResponseEntity<AuthResponseDto> login(
+            @Valid @RequestBody LoginRequestDto request,
+            @RequestHeader(value = GuestCartController.CART_TOKEN_HEADER, required = false) String cartToken)
             throws InvalidCredentialsException {
-        AuthResponseDto response = authenticationService.login(request);
+        AuthResponseDto response = authenticationService.login(request, cartToken);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
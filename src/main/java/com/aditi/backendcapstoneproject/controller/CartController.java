@@ -1,7 +1,9 @@
 package com.aditi.backendcapstoneproject.controller;
 
 import com.aditi.backendcapstoneproject.dto.AddToCartRequestDto;
+import com.aditi.backendcapstoneproject.dto.CartOperationsRequestDto;
 import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.CartSummaryDto;
 import com.aditi.backendcapstoneproject.dto.UpdateCartItemRequestDto;
 import com.aditi.backendcapstoneproject.exception.CartItemNotFoundException;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
@@ -61,6 +63,19 @@ public class CartController {
         return new ResponseEntity<>(cart, HttpStatus.OK);
     }
 
+    @Operation(summary = "Get cart summary", description = "Retrieves the item count and total of the current user's cart, e.g. for a cart badge, without loading the items (User only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cart summary retrieved successfully"),
+            @ApiResponse(responseCode = "403", description = "Access denied - User role required")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDto> getCartSummary(Authentication authentication) {
+        String email = SecurityUtils.getCurrentUserEmail(authentication);
+        CartSummaryDto summary = cartService.getCartSummary(email);
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole('USER')")
     @PutMapping("/items/{itemId}")
     public ResponseEntity<CartResponseDto> updateCartItem(
@@ -82,6 +97,24 @@ public class CartController {
         return new ResponseEntity<>(cart, HttpStatus.OK);
     }
 
+    @Operation(summary = "Apply cart operations",
+            description = "Applies an ordered list of ADD/UPDATE/REMOVE operations in one transaction and returns the final cart, e.g. to sync offline edits (User only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "All operations applied"),
+            @ApiResponse(responseCode = "400", description = "Invalid operation, nothing applied"),
+            @ApiResponse(responseCode = "403", description = "Access denied - User role required"),
+            @ApiResponse(responseCode = "404", description = "Product or cart item not found, nothing applied")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PatchMapping
+    public ResponseEntity<CartResponseDto> applyOperations(
+            @Valid @RequestBody CartOperationsRequestDto request,
+            Authentication authentication) throws ProductNotFoundException, CartItemNotFoundException, UserNotFoundException {
+        String email = SecurityUtils.getCurrentUserEmail(authentication);
+        CartResponseDto cart = cartService.applyOperations(email, request.getOperations());
+        return new ResponseEntity<>(cart, HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole('USER')")
     @DeleteMapping
     public ResponseEntity<CartResponseDto> clearCart(Authentication authentication) throws UserNotFoundException {
@@ -1,18 +1,37 @@
 package com.aditi.backendcapstoneproject.controller;
 
+import com.aditi.backendcapstoneproject.component.CatalogResponseCache;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.dto.CategoryRequestDto;
 import com.aditi.backendcapstoneproject.dto.CategoryResponseDto;
+import com.aditi.backendcapstoneproject.dto.CursorPageResponseDto;
 import com.aditi.backendcapstoneproject.dto.ProductResponseDto;
+import com.aditi.backendcapstoneproject.exception.CategoryNotFoundException;
 import com.aditi.backendcapstoneproject.model.Category;
 import com.aditi.backendcapstoneproject.model.Product;
-import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.service.CategoryRegistry;
+import com.aditi.backendcapstoneproject.service.CategoryService;
 import com.aditi.backendcapstoneproject.service.ProductService;
+import com.aditi.backendcapstoneproject.util.PageableUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,33 +40,173 @@ import java.util.stream.Collectors;
 @RequestMapping("/categories")
 public class CategoryController {
 
-    private final CategoryRepository categoryRepository;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CategoryRegistry categoryRegistry;
+    private final CategoryService categoryService;
     private final ProductService productService;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.category-products.stream-batch-size:500}")
+    private int streamBatchSize;
 
-    public CategoryController(CategoryRepository categoryRepository,
-                              @Qualifier("productDBService")ProductService productService) {
-        this.categoryRepository = categoryRepository;
+    public CategoryController(CategoryRegistry categoryRegistry,
+                              CategoryService categoryService,
+                              @Qualifier("productDBService")ProductService productService,
+                              CatalogVersionTracker catalogVersionTracker,
+                              CatalogResponseCache catalogResponseCache,
+                              ObjectMapper objectMapper) {
+        this.categoryRegistry = categoryRegistry;
+        this.categoryService = categoryService;
         this.productService = productService;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.catalogResponseCache = catalogResponseCache;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * withStats=true adds product count, min/max/avg price and last update per category.
+     * The stats are maintained on product writes, so both variants are served from the registry.
+     * Like the other cached GETs, the JSON body is written to the response by CatalogResponseCache.
+     */
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDto>> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
+    public void getAllCategories(@RequestParam(defaultValue = "false") boolean withStats,
+                                 WebRequest webRequest,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) {
+        String etag = catalogVersionTracker.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+        String cacheKey = CatalogResponseCache.categoriesKey(withStats);
+        if (catalogResponseCache.writeCached(cacheKey, request, response)) {
+            return;
+        }
+        List<Category> categories = categoryRegistry.getAllCategories();
         List<CategoryResponseDto> categoryDtos = categories.stream()
-                .map(CategoryResponseDto::from)
+                .map(withStats ? CategoryResponseDto::withStats : CategoryResponseDto::from)
                 .collect(Collectors.toList());
-        return new ResponseEntity<>(categoryDtos, HttpStatus.OK);
+        catalogResponseCache.writeAndStore(cacheKey, true, categoryDtos, etag, request, response);
+    }
+
+    /**
+     * Updates the description and/or renames a category; the products follow the new name.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/{name}")
+    public ResponseEntity<CategoryResponseDto> updateCategory(@PathVariable("name") String categoryName,
+                                                              @RequestBody CategoryRequestDto categoryRequestDto)
+            throws CategoryNotFoundException {
+        Category category = categoryService.updateCategory(categoryName, categoryRequestDto);
+        return ResponseEntity.ok(CategoryResponseDto.from(category));
     }
 
+    /**
+     * Soft-deletes an empty category.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deleteCategory(@PathVariable("name") String categoryName) throws CategoryNotFoundException {
+        categoryService.deleteCategory(categoryName);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * One page of the products in a category. Only the first pages are kept in the response cache.
+     */
     @GetMapping("/{name}/products")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByCategoryName(
-            @PathVariable("name") String categoryName) {
-        List<Product> products = productService.getProductsByCategory(categoryName);
-        List<ProductResponseDto> productDtos = products.stream()
+    public void getProductsByCategoryName(
+            @PathVariable("name") String categoryName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id,asc") String sort,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        String etag = catalogVersionTracker.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+        int pageSize = pageSize(size);
+        String cacheKey = CatalogResponseCache.categoryProductsPageKey(categoryName, page, pageSize, sort);
+        if (catalogResponseCache.writeCached(cacheKey, request, response)) {
+            return;
+        }
+        Page<ProductResponseDto> dtoPage = productService
+                .getProductsByCategory(categoryName, PageableUtils.buildPageable(page, pageSize, sort))
+                .map(ProductResponseDto::from);
+        catalogResponseCache.writeAndStore(cacheKey, catalogResponseCache.isCacheablePage(page),
+                dtoPage, etag, request, response);
+    }
+
+    /**
+     * Keyset variant for deep paging: products with an id greater than the cursor, ordered by id.
+     * Start with cursor=0 and follow nextCursor. Only the first page is kept in the response cache.
+     */
+    @GetMapping(value = "/{name}/products", params = "cursor")
+    public void getProductsByCategoryNameAfterCursor(
+            @PathVariable("name") String categoryName,
+            @RequestParam long cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        String etag = catalogVersionTracker.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+        int pageSize = pageSize(size);
+        String cacheKey = CatalogResponseCache.categoryProductsCursorKey(categoryName, cursor, pageSize);
+        if (catalogResponseCache.writeCached(cacheKey, request, response)) {
+            return;
+        }
+        List<Product> products = productService.getProductsByCategoryAfter(categoryName, cursor, pageSize);
+
+        CursorPageResponseDto<ProductResponseDto> cursorPage = new CursorPageResponseDto<>();
+        cursorPage.setContent(products.stream()
                 .map(ProductResponseDto::from)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(productDtos, HttpStatus.OK);
+                .collect(Collectors.toList()));
+        cursorPage.setSize(pageSize);
+        if (products.size() == pageSize) {
+            cursorPage.setNextCursor(products.get(products.size() - 1).getId());
+        }
+        catalogResponseCache.writeAndStore(cacheKey, cursor == 0, cursorPage, etag, request, response);
     }
-}
 
+    /**
+     * Streams every product of a category as newline-delimited JSON for bulk consumers.
+     * Products are read in keyset batches, so neither the query nor the response is held in memory whole.
+     */
+    @GetMapping(value = "/{name}/products/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategoryName(
+            @PathVariable("name") String categoryName,
+            WebRequest webRequest) {
+        String etag = catalogVersionTracker.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        StreamingResponseBody body = outputStream -> {
+            long cursor = 0;
+            List<Product> batch;
+            do {
+                batch = productService.getProductsByCategoryAfter(categoryName, cursor, streamBatchSize);
+                for (Product product : batch) {
+                    outputStream.write(objectMapper.writeValueAsBytes(ProductResponseDto.from(product)));
+                    outputStream.write('\n');
+                    cursor = product.getId();
+                }
+                outputStream.flush();
+            } while (batch.size() == streamBatchSize);
+        };
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
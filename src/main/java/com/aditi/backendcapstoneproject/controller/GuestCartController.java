@@ -0,0 +1,75 @@
+package com.aditi.backendcapstoneproject.controller;
+
+import com.aditi.backendcapstoneproject.dto.AddToCartRequestDto;
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.UpdateCartItemRequestDto;
+import com.aditi.backendcapstoneproject.exception.CartItemNotFoundException;
+import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
+import com.aditi.backendcapstoneproject.service.GuestCartService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/cart/guest")
+@Tag(name = "Guest cart", description = "APIs for the cart of a visitor who has not logged in, merged into the user's cart at login")
+public class GuestCartController {
+
+    /**
+     * Carries the guest cart token: returned by POST /cart/guest/items, sent with every other
+     * guest cart request and with POST /auth/login to merge the guest cart.
+     */
+    public static final String CART_TOKEN_HEADER = "X-Cart-Token";
+
+    private final GuestCartService guestCartService;
+
+    public GuestCartController(GuestCartService guestCartService) {
+        this.guestCartService = guestCartService;
+    }
+
+    @Operation(summary = "Add item to guest cart",
+            description = "Adds a product to the guest cart of the X-Cart-Token header, starting a new guest cart without a valid token. The response's X-Cart-Token header holds the token to use from then on")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Item added to guest cart successfully"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping("/items")
+    public ResponseEntity<CartResponseDto> addItem(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken,
+            @Valid @RequestBody AddToCartRequestDto request) throws ProductNotFoundException {
+        String token = guestCartService.resolveToken(cartToken);
+        CartResponseDto cart = guestCartService.addItem(token, request.getProductId(), request.getQuantity());
+        return ResponseEntity.ok().header(CART_TOKEN_HEADER, token).body(cart);
+    }
+
+    @Operation(summary = "Get guest cart", description = "Retrieves the guest cart of the X-Cart-Token header; empty for an unknown or expired cart")
+    @ApiResponse(responseCode = "200", description = "Guest cart retrieved successfully")
+    @GetMapping
+    public ResponseEntity<CartResponseDto> getCart(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken) {
+        CartResponseDto cart = guestCartService.getCart(cartToken);
+        return new ResponseEntity<>(cart, HttpStatus.OK);
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartResponseDto> updateItem(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken,
+            @PathVariable Long productId,
+            @Valid @RequestBody UpdateCartItemRequestDto request) throws CartItemNotFoundException {
+        CartResponseDto cart = guestCartService.updateItem(cartToken, productId, request.getQuantity());
+        return new ResponseEntity<>(cart, HttpStatus.OK);
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartResponseDto> removeItem(
+            @RequestHeader(value = CART_TOKEN_HEADER, required = false) String cartToken,
+            @PathVariable Long productId) throws CartItemNotFoundException {
+        CartResponseDto cart = guestCartService.removeItem(cartToken, productId);
+        return new ResponseEntity<>(cart, HttpStatus.OK);
+    }
+}
@@ -89,18 +89,20 @@ public class OrderController {
         return new ResponseEntity<>(responsePage, HttpStatus.OK);
     }
 
-    @Operation(summary = "Update order status", description = "Updates the status of an order (Admin only)")
+    @Operation(summary = "Update order status", description = "Updates the status of an order (Admin only). With a version, the update is refused if the order changed since that version")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order status updated successfully"),
             @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
-            @ApiResponse(responseCode = "404", description = "Order not found")
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "Order was changed since the given version")
     })
     @PreAuthorize("hasRole('ADMIN')")
     @PatchMapping("/{orderId}/status")
     public ResponseEntity<OrderResponseDto> updateOrderStatus(
             @Parameter(description = "Order ID", required = true) @PathVariable Long orderId,
-            @Parameter(description = "New order status", required = true) @RequestParam("status") OrderStatus status) throws OrderNotFoundException {
-        OrderResponseDto responseDto = orderService.updateOrderStatus(orderId, status);
+            @Parameter(description = "New order status", required = true) @RequestParam("status") OrderStatus status,
+            @Parameter(description = "Version of the order the update is based on") @RequestParam(value = "version", required = false) Long version) throws OrderNotFoundException {
+        OrderResponseDto responseDto = orderService.updateOrderStatus(orderId, status, version);
         return new ResponseEntity<>(responseDto, HttpStatus.OK);
     }
 
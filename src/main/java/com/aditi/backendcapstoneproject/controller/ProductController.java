@@ -1,66 +1,132 @@
 package com.aditi.backendcapstoneproject.controller;
 
+import com.aditi.backendcapstoneproject.component.CatalogResponseCache;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.config.QueryBudget;
+import com.aditi.backendcapstoneproject.dto.BulkCategoryUpdateRequestDto;
+import com.aditi.backendcapstoneproject.dto.BulkPriceUpdateRequestDto;
+import com.aditi.backendcapstoneproject.dto.BulkUpdateResponseDto;
+import com.aditi.backendcapstoneproject.dto.ProductBulkImportResponseDto;
 import com.aditi.backendcapstoneproject.dto.ProductRequestDto;
 import com.aditi.backendcapstoneproject.dto.ProductResponseDto;
+import com.aditi.backendcapstoneproject.enums.ProductImportFormat;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
 import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.service.ProductBulkImportService;
+import com.aditi.backendcapstoneproject.service.ProductBulkUpdateService;
 import com.aditi.backendcapstoneproject.service.ProductService;
+import com.aditi.backendcapstoneproject.util.PageableUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @Tag(name = "Products", description = "APIs for product management - browse, search, and manage products")
 public class ProductController {
 
     ProductService productService;
+    CatalogVersionTracker catalogVersionTracker;
+    CatalogResponseCache catalogResponseCache;
+    ProductBulkImportService productBulkImportService;
+    ProductBulkUpdateService productBulkUpdateService;
 
     public ProductController(@Qualifier("productDBService")
-                             ProductService productService) {
+                             ProductService productService,
+                             CatalogVersionTracker catalogVersionTracker,
+                             CatalogResponseCache catalogResponseCache,
+                             ProductBulkImportService productBulkImportService,
+                             ProductBulkUpdateService productBulkUpdateService) {
         this.productService = productService;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.catalogResponseCache = catalogResponseCache;
+        this.productBulkImportService = productBulkImportService;
+        this.productBulkUpdateService = productBulkUpdateService;
     }
 
+    // The cached GETs write their JSON body to the response through CatalogResponseCache (none for a 304)
     @Operation(summary = "Get product by ID", description = "Retrieves a specific product by its ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "200", description = "Product found",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/products/{id}")
-    public ResponseEntity<ProductResponseDto> getProductById(
-            @Parameter(description = "Product ID", required = true) @PathVariable long id) 
+    public void getProductById(
+            @Parameter(description = "Product ID", required = true) @PathVariable long id,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response)
             throws ProductNotFoundException {
 
+        String cacheKey = CatalogResponseCache.productKey(id);
+        if (catalogResponseCache.writeCached(cacheKey, request, response)) {
+            return;
+        }
+
+        // Revalidated against the product as loaded (productsById cache or database), which
+        // every instance sees alike; a 304 still skips the JSON serialization
         Product product = productService.getProductsById(id);
+        String etag = catalogVersionTracker.productEtag(product);
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
         ProductResponseDto productResponseDto = ProductResponseDto.from(product);
 
-        return new ResponseEntity<>(productResponseDto, HttpStatus.OK);
+        catalogResponseCache.writeAndStore(cacheKey, true, productResponseDto, etag, request, response);
     }
 
 
     @Operation(summary = "Get all products", description = "Retrieves a paginated list of products with optional filtering by category or search query")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully: a page of products",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+            @ApiResponse(responseCode = "304", description = "Catalog not modified since the version in If-None-Match")
     })
     @GetMapping("/products")
-    public ResponseEntity<Page<ProductResponseDto>> getAllProducts(
+    public void getAllProducts(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field and direction (e.g., 'id,asc')") @RequestParam(defaultValue = "id,asc") String sort,
             @Parameter(description = "Filter by category name") @RequestParam(required = false) String category,
-            @Parameter(description = "Search query") @RequestParam(required = false) String q) {
+            @Parameter(description = "Search query") @RequestParam(required = false) String q,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
-        Pageable pageable = buildPageable(page, size, sort);
+        String etag = catalogVersionTracker.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+
+        String cacheKey = CatalogResponseCache.productPageKey(page, size, sort, category, q);
+        if (catalogResponseCache.writeCached(cacheKey, request, response)) {
+            return;
+        }
+
+        Pageable pageable = PageableUtils.buildPageable(page, size, sort);
 
         Page<Product> productPage;
         if (q != null && !q.trim().isEmpty()) {
@@ -73,7 +139,8 @@ public class ProductController {
 
         Page<ProductResponseDto> dtoPage = productPage.map(ProductResponseDto::from);
 
-        return new ResponseEntity<>(dtoPage, HttpStatus.OK);
+        catalogResponseCache.writeAndStore(cacheKey, catalogResponseCache.isCacheablePage(page),
+                dtoPage, etag, request, response);
     }
 
     @GetMapping("/products/search")
@@ -83,7 +150,7 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,asc") String sort) {
 
-        Pageable pageable = buildPageable(page, size, sort);
+        Pageable pageable = PageableUtils.buildPageable(page, size, sort);
         Page<Product> productPage = productService.searchProducts(q, pageable);
         Page<ProductResponseDto> dtoPage = productPage.map(ProductResponseDto::from);
 
@@ -97,7 +164,7 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,asc") String sort) {
 
-        Pageable pageable = buildPageable(page, size, sort);
+        Pageable pageable = PageableUtils.buildPageable(page, size, sort);
         Page<Product> productPage = productService.getProductsByCategory(categoryName, pageable);
         Page<ProductResponseDto> dtoPage = productPage.map(ProductResponseDto::from);
 
@@ -125,6 +192,75 @@ public class ProductController {
     }
 
 
+    @Operation(summary = "Bulk import products",
+            description = "Imports products from a streamed CSV (header with name, category and optionally description, price, imageUrl) " +
+                    "or NDJSON body. Invalid rows are skipped and reported by line number (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see imported/failed counts and errors"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing the name or category column"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    // One transaction per catalog.bulk-import.batch-size rows, so the statements grow with the feed
+    @QueryBudget(QueryBudget.UNLIMITED)
+    @PostMapping(value = "/products/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductBulkImportResponseDto> bulkImportProducts(HttpServletRequest request) throws IOException {
+        ProductImportFormat format = MediaType.APPLICATION_NDJSON.includes(MediaType.parseMediaType(request.getContentType()))
+                ? ProductImportFormat.NDJSON
+                : ProductImportFormat.CSV;
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            ProductBulkImportResponseDto result = productBulkImportService.importProducts(reader, format);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        }
+    }
+
+
+    @Operation(summary = "Bulk update prices",
+            description = "Sets explicit prices (prices: {id: price}) or changes every price of a category by a percentage (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid prices, percentage or unknown category"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    // One UPDATE per catalog.bulk-update.chunk-size products, plus the stats of each touched category
+    @QueryBudget(QueryBudget.UNLIMITED)
+    @PatchMapping("/products/bulk/prices")
+    public ResponseEntity<BulkUpdateResponseDto> bulkUpdatePrices(@RequestBody BulkPriceUpdateRequestDto requestDto) {
+        long updated;
+        if (requestDto.getPrices() != null && !requestDto.getPrices().isEmpty()) {
+            updated = productBulkUpdateService.updatePrices(requestDto.getPrices());
+        } else if (requestDto.getCategory() != null && requestDto.getPercentage() != null) {
+            updated = productBulkUpdateService.adjustPricesByCategory(requestDto.getCategory(), requestDto.getPercentage());
+        } else {
+            throw new IllegalArgumentException("Provide either prices or category and percentage");
+        }
+        return new ResponseEntity<>(BulkUpdateResponseDto.of(updated), HttpStatus.OK);
+    }
+
+
+    @Operation(summary = "Bulk move products to a category",
+            description = "Moves the listed products, or all products of fromCategory, to toCategory (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products moved"),
+            @ApiResponse(responseCode = "400", description = "Neither productIds nor a known fromCategory given"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    // One UPDATE per catalog.bulk-update.chunk-size products, plus the stats of the categories left and joined
+    @QueryBudget(QueryBudget.UNLIMITED)
+    @PatchMapping("/products/bulk/category")
+    public ResponseEntity<BulkUpdateResponseDto> bulkMoveProducts(@RequestBody BulkCategoryUpdateRequestDto requestDto) {
+        long updated = productBulkUpdateService.moveProducts(requestDto.getProductIds(),
+                requestDto.getFromCategory(), requestDto.getToCategory());
+        return new ResponseEntity<>(BulkUpdateResponseDto.of(updated), HttpStatus.OK);
+    }
+
+
     @Operation(summary = "Update a product", description = "Updates an existing product (Admin only)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product updated successfully"),
@@ -158,13 +294,16 @@ public class ProductController {
         return new ResponseEntity<>(productResponseDto, HttpStatus.OK);
     }
 
-    private Pageable buildPageable(int page, int size, String sort) {
-        String[] sortParts = sort.split(",");
-        String sortField = sortParts[0];
-        Sort.Direction direction = Sort.Direction.ASC;
-        if (sortParts.length > 1) {
-            direction = Sort.Direction.fromString(sortParts[1]);
-        }
-        return PageRequest.of(page, size, Sort.by(direction, sortField));
+    @Operation(summary = "Delete a product", description = "Soft-deletes a product and removes it from all carts; existing orders keep it (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Product deleted"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/products/{id}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) throws ProductNotFoundException {
+        productService.deleteProduct(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Moves either the listed products or every product of fromCategory to toCategory.
+ */
+@Getter
+@Setter
+public class BulkCategoryUpdateRequestDto {
+
+    private List<Long> productIds;
+    private String fromCategory;
+    private String toCategory;
+}
@@ -0,0 +1,19 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Either prices (product id -> new price) or category + percentage
+ * (e.g. 10 raises, -15 lowers every price in the category).
+ */
+@Getter
+@Setter
+public class BulkPriceUpdateRequestDto {
+
+    private Map<Long, Double> prices;
+    private String category;
+    private Double percentage;
+}
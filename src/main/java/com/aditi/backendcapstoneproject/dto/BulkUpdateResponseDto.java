@@ -0,0 +1,17 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BulkUpdateResponseDto {
+
+    private long updated;
+
+    public static BulkUpdateResponseDto of(long updated) {
+        BulkUpdateResponseDto dto = new BulkUpdateResponseDto();
+        dto.setUpdated(updated);
+        return dto;
+    }
+}
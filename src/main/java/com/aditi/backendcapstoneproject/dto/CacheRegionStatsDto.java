@@ -0,0 +1,16 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CacheRegionStatsDto {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    // hits / (hits + misses), null before the first lookup
+    private Double hitRatio;
+}
@@ -16,14 +16,18 @@ public class CartItemResponseDto {
     private Double subtotal;
 
     public static CartItemResponseDto from(com.aditi.backendcapstoneproject.model.CartItem cartItem) {
+        return of(cartItem.getId(), cartItem.getProduct(), cartItem.getQuantity());
+    }
+
+    public static CartItemResponseDto of(Long itemId, com.aditi.backendcapstoneproject.model.Product product, Integer quantity) {
         CartItemResponseDto dto = new CartItemResponseDto();
-        dto.setId(cartItem.getId());
-        dto.setProductId(cartItem.getProduct().getId());
-        dto.setProductName(cartItem.getProduct().getName());
-        dto.setProductPrice(cartItem.getProduct().getPrice());
-        dto.setProductImageUrl(cartItem.getProduct().getImageUrl());
-        dto.setQuantity(cartItem.getQuantity());
-        dto.setSubtotal(cartItem.getProduct().getPrice() * cartItem.getQuantity());
+        dto.setId(itemId);
+        dto.setProductId(product.getId());
+        dto.setProductName(product.getName());
+        dto.setProductPrice(product.getPrice());
+        dto.setProductImageUrl(product.getImageUrl());
+        dto.setQuantity(quantity);
+        dto.setSubtotal(product.getPrice() * quantity);
         return dto;
     }
 
@@ -0,0 +1,30 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import com.aditi.backendcapstoneproject.enums.CartOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One PATCH /cart operation.
+ * - ADD: productId and quantity, added to the product's line.
+ * - UPDATE: itemId or productId, and the new quantity.
+ * - REMOVE: itemId or productId.
+ * Lines added earlier in the same request have no item id yet and are addressed by productId.
+ */
+@Getter
+@Setter
+public class CartOperationDto {
+
+    @NotNull(message = "Operation is required")
+    private CartOperationType op;
+
+    private Long productId;
+
+    private Long itemId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+}
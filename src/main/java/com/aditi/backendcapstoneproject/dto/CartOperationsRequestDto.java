@@ -0,0 +1,19 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class CartOperationsRequestDto {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 500, message = "At most 500 operations per request")
+    private List<@Valid CartOperationDto> operations;
+
+}
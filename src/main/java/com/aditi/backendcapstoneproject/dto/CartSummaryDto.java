@@ -0,0 +1,26 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import com.aditi.backendcapstoneproject.repository.CartSummaryView;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CartSummaryDto {
+
+    private Long cartId;
+    private Integer totalItems;
+    private Double totalAmount;
+
+    public static CartSummaryDto from(CartSummaryView view) {
+        return of(view.getCartId(), view.getTotalItems(), view.getTotalAmount());
+    }
+
+    public static CartSummaryDto of(Long cartId, Integer totalItems, Double totalAmount) {
+        CartSummaryDto dto = new CartSummaryDto();
+        dto.setCartId(cartId);
+        dto.setTotalItems(totalItems);
+        dto.setTotalAmount(totalAmount);
+        return dto;
+    }
+}
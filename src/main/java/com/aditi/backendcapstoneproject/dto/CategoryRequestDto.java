@@ -0,0 +1,13 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CategoryRequestDto {
+
+    private String name;
+    private String description;
+
+}
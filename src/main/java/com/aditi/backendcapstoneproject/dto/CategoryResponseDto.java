@@ -1,9 +1,12 @@
 package com.aditi.backendcapstoneproject.dto;
 
 import com.aditi.backendcapstoneproject.model.Category;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Date;
+
 @Getter
 @Setter
 public class CategoryResponseDto {
@@ -12,6 +15,18 @@ public class CategoryResponseDto {
     private String name;
     private String description;
 
+    // Only populated for GET /categories?withStats=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long productCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double minPrice;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double maxPrice;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double avgPrice;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Date lastUpdated;
+
     public static CategoryResponseDto from(Category category) {
         CategoryResponseDto dto = new CategoryResponseDto();
         dto.setId(category.getId());
@@ -19,6 +34,16 @@ public class CategoryResponseDto {
         dto.setDescription(category.getDescription());
         return dto;
     }
-}
-
 
+    public static CategoryResponseDto withStats(Category category) {
+        CategoryResponseDto dto = from(category);
+        dto.setProductCount(category.getProductCount());
+        dto.setMinPrice(category.getMinPrice());
+        dto.setMaxPrice(category.getMaxPrice());
+        if (category.getProductCount() > 0) {
+            dto.setAvgPrice(Math.round(category.getPriceTotal() / category.getProductCount() * 100.0) / 100.0);
+        }
+        dto.setLastUpdated(category.getStatsLastUpdated());
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ConnectionPoolStatsDto {
+
+    private String pool;
+    private long active;
+    private long idle;
+    // Threads currently waiting for a connection
+    private long pending;
+    private long total;
+    private long maximum;
+    private long minimumIdle;
+    // Connection requests that gave up after connection-timeout
+    private long timeouts;
+    // Connections handed out and the time callers waited for them
+    private long acquired;
+    private double acquireMeanMillis;
+    private double acquireMaxMillis;
+}
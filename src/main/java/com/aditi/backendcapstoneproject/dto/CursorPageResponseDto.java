@@ -0,0 +1,19 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) listing. Pass nextCursor as the cursor of the next
+ * request; it is null once the last page has been returned.
+ */
+@Getter
+@Setter
+public class CursorPageResponseDto<T> {
+
+    private List<T> content;
+    private int size;
+    private Long nextCursor;
+}
@@ -0,0 +1,14 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class DiagnosticsResponseDto {
+
+    private List<ConnectionPoolStatsDto> connectionPools;
+    private List<CacheRegionStatsDto> cacheRegions;
+}
@@ -28,6 +28,7 @@ public class FakeStoreProductDto {
         category1.setName(category);
 
         product.setCategory(category1);
+        product.setCategoryName(category);
 
         return product;
     }
@@ -18,6 +18,8 @@ public class OrderResponseDto {
     private String deliveryAddress;
     private List<OrderItemResponseDto> items;
     private Integer totalItems;
+    // Sent back as ?version= on a status update, so it does not overwrite a newer change
+    private Long version;
 }
 
 
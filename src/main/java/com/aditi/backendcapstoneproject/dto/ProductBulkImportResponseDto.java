@@ -0,0 +1,21 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of POST /products/bulk. errors holds at most the first 1000 rejected rows;
+ * failed always counts all of them.
+ */
+@Getter
+@Setter
+public class ProductBulkImportResponseDto {
+
+    private long received;
+    private long imported;
+    private long failed;
+    private List<ProductImportErrorDto> errors = new ArrayList<>();
+}
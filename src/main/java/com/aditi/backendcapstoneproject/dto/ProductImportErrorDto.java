@@ -0,0 +1,19 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductImportErrorDto {
+
+    private long line;
+    private String message;
+
+    public static ProductImportErrorDto of(long line, String message) {
+        ProductImportErrorDto dto = new ProductImportErrorDto();
+        dto.setLine(line);
+        dto.setMessage(message);
+        return dto;
+    }
+}
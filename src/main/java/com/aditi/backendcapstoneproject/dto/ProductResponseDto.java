@@ -21,7 +21,7 @@ public class ProductResponseDto {
         productResponseDto.setDescription(product.getDescription());
         productResponseDto.setPrice(product.getPrice());
         productResponseDto.setImageUrl(product.getImageUrl());
-        productResponseDto.setCategory(product.getCategory().getName());
+        productResponseDto.setCategory(product.getCategoryName());
 
         return productResponseDto;
     }
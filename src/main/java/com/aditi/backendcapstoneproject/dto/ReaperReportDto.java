@@ -0,0 +1,22 @@
+package com.aditi.backendcapstoneproject.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Rows reclaimed by one run of StaleDataReaperService.
+ */
+@Getter
+@Setter
+public class ReaperReportDto {
+
+    private long carts;
+    private long cartItems;
+    private long passwordResetTokens;
+    private int chunks;
+    private long durationMs;
+
+    public long getTotalRows() {
+        return carts + cartItems + passwordResetTokens;
+    }
+}
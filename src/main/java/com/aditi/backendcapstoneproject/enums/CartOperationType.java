@@ -0,0 +1,7 @@
+package com.aditi.backendcapstoneproject.enums;
+
+public enum CartOperationType {
+    ADD,
+    UPDATE,
+    REMOVE
+}
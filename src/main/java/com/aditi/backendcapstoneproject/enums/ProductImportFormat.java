@@ -0,0 +1,6 @@
+package com.aditi.backendcapstoneproject.enums;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,8 @@
+package com.aditi.backendcapstoneproject.exception;
+
+public class CategoryNotFoundException extends Exception {
+
+    public CategoryNotFoundException(String message) {
+        super(message);
+    }
+}
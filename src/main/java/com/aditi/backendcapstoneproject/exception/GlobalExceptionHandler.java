@@ -3,6 +3,7 @@ package com.aditi.backendcapstoneproject.exception;
 import com.aditi.backendcapstoneproject.dto.ErrorResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -37,6 +38,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleQueryBudgetExceededException(QueryBudgetExceededException exception) {
+        logger.error("Query budget exceeded: {}", exception.getMessage());
+        ErrorResponseDto errorResponseDto = buildErrorResponse(
+                "Query Budget Exceeded",
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        logger.warn("Concurrent update conflict: {}", exception.getMessage());
+        ErrorResponseDto errorResponseDto = buildErrorResponse(
+                "Conflict",
+                "The resource was changed by a concurrent request. Please retry."
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponseDto> handleVersionConflictException(VersionConflictException exception) {
+        logger.warn("Stale version: {}", exception.getMessage());
+        ErrorResponseDto errorResponseDto = buildErrorResponse(
+                "Conflict",
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponseDto> handleAccessDeniedException(AccessDeniedException exception) {
         logger.warn("Access denied: {}", exception.getMessage());
@@ -70,6 +101,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(CategoryNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleCategoryNotFoundException(CategoryNotFoundException exception) {
+        logger.warn("Category not found: {}", exception.getMessage());
+        ErrorResponseDto errorResponseDto = buildErrorResponse(
+                "Category Not Found",
+                exception.getMessage()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> HandlingProductNotFoundException(ProductNotFoundException productNotFoundException){
         logger.warn("Product not found: {}", productNotFoundException.getMessage());
@@ -0,0 +1,12 @@
+package com.aditi.backendcapstoneproject.exception;
+
+/**
+ * Raised while preparing a statement that puts a request over its query budget
+ * (catalog.query-budget.mode=fail). Unchecked, since it surfaces from inside Hibernate.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
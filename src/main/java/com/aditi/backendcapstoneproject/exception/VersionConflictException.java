@@ -0,0 +1,14 @@
+package com.aditi.backendcapstoneproject.exception;
+
+/**
+ * Raised when a client's change is based on a version of a row that is no longer current
+ * (e.g. PATCH /orders/{id}/status?version=3 after the order moved on to version 4). Not
+ * retried, unlike a lost @Version race: the client has to reload. Unchecked, since it is
+ * thrown from inside OptimisticLockRetry work.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.aditi.backendcapstoneproject.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A soft-deleted product moved out of the product table by SoftDeletePurgeService.
+ * Keeps the original id; the category is kept by id and name only, without a foreign key.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "product_archive")
+public class ArchivedProduct {
+
+    @Id
+    private Long id;
+    private String name;
+    private String description;
+    private String imageUrl;
+    private Double price;
+    private Long categoryId;
+    private String categoryName;
+    private Date createdAt;
+    private Date deletedAt;
+    private Date archivedAt;
+
+}
@@ -0,0 +1,33 @@
+package com.aditi.backendcapstoneproject.model;
+
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+
+import java.util.Date;
+
+/**
+ * Columns every table has; the id is mapped by BaseModel or PooledIdModel.
+ *
+ * Soft-deleted rows (isDeleted = true) are hidden from every JPQL/Criteria query and derived
+ * repository method by the auto-enabled notDeleted filter. Loading by id (findById) and
+ * to-one associations are not filtered, so existing orders still resolve deleted products;
+ * lookups by id that must hide deleted rows check isDeleted themselves.
+ */
+@Getter
+@Setter
+@MappedSuperclass
+@FilterDef(name = BaseColumns.NOT_DELETED_FILTER, defaultCondition = "is_deleted = false", autoEnabled = true)
+@Filter(name = BaseColumns.NOT_DELETED_FILTER)
+public class BaseColumns {
+
+    public static final String NOT_DELETED_FILTER = "notDeleted";
+
+    private String name;
+    private Date createdAt;
+    private Date lastModified;
+    private boolean isDeleted;
+
+}
@@ -7,19 +7,18 @@ import jakarta.persistence.MappedSuperclass;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Date;
-
+/**
+ * Entities whose id is the table's AUTO_INCREMENT. Hibernate sends each INSERT on its own to
+ * read the id back; rows of these tables are also inserted through JdbcTemplate without an id
+ * (bulk product import, cart item upserts).
+ */
 @Getter
 @Setter
 @MappedSuperclass
-public class BaseModel {
+public class BaseModel extends BaseColumns {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    private String name;
-    private Date createdAt;
-    private Date lastModified;
-    private boolean isDeleted;
 
 }
@@ -1,16 +1,22 @@
 package com.aditi.backendcapstoneproject.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cart_user", columnNames = "user_id"))
 public class Cart extends BaseModel {
 
     @OneToOne
@@ -19,5 +25,26 @@ public class Cart extends BaseModel {
     @OneToMany(mappedBy = "cart")
     private List<CartItem> cartItems;
 
+    /**
+     * Bumped by every change of the cart's contents, also by the set-based item writes,
+     * so a read-modify-write of the cart fails instead of overwriting a concurrent change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Number of units and their value at current prices, maintained by atomic UPDATEs inside
+     * every cart mutation (and recomputed when a product's price changes), so GET /cart/summary
+     * reads one row. Never written through the entity.
+     */
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private int itemCount;
+
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private double totalAmount;
+
 }
 
@@ -1,16 +1,26 @@
 package com.aditi.backendcapstoneproject.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.util.Date;
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
+// Read-mostly, and the stats UPDATEs just invalidate the region (see CategoryRepository)
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "category")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_category_name", columnNames = "name"))
 public class Category extends BaseModel{
 
     private String description;
@@ -24,4 +34,26 @@ public class Category extends BaseModel{
     @JsonIgnore
     private List<Product> productList;
 
+    /**
+     * Per-category product summary, maintained incrementally by CategoryStatsService
+     * with atomic UPDATE statements. Never written through the entity, so a stale
+     * managed Category can not overwrite the counters.
+     */
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private long productCount;
+
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private double priceTotal;
+
+    @Column(insertable = false, updatable = false)
+    private Double minPrice;
+
+    @Column(insertable = false, updatable = false)
+    private Double maxPrice;
+
+    @Column(insertable = false, updatable = false)
+    private Date statsLastUpdated;
+
 }
\ No newline at end of file
@@ -11,8 +11,10 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
-public class Order extends BaseModel {
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_status_order_date", columnList = "user_id, status, order_date")
+})
+public class Order extends PooledIdModel {
 
     @ManyToOne
     private User user;
@@ -29,6 +31,11 @@ public class Order extends BaseModel {
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> orderItems;
+
+    // Admin status changes and payment confirmation update the same rows
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
 
 
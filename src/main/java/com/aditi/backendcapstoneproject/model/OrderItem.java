@@ -8,7 +8,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-public class OrderItem extends BaseModel {
+public class OrderItem extends PooledIdModel {
 
     @ManyToOne
     private Order order;
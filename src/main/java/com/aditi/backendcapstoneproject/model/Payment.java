@@ -2,12 +2,16 @@ package com.aditi.backendcapstoneproject.model;
 
 import com.aditi.backendcapstoneproject.enums.PaymentMethod;
 import com.aditi.backendcapstoneproject.enums.PaymentStatus;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,6 +20,10 @@ import java.util.Date;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_payment_status_last_modified_created_at", columnList = "status, last_modified, created_at"),
+        @Index(name = "idx_payment_transaction_id", columnList = "transaction_id")
+})
 public class Payment extends BaseModel {
 
     @ManyToOne
@@ -33,6 +41,11 @@ public class Payment extends BaseModel {
 
     @Temporal(TemporalType.TIMESTAMP)
     private Date paymentDate;
+
+    // The webhook and the status sync scheduler update the same rows
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
 
 
@@ -0,0 +1,39 @@
+package com.aditi.backendcapstoneproject.model;
+
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.TableGenerator;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entities whose id Hibernate assigns before the INSERT, from blocks of ALLOCATION_SIZE ids
+ * reserved in the id_generator table (pooled-lo: a stored next_val of n hands out n to
+ * n + ALLOCATION_SIZE - 1). Known ids let Hibernate send the INSERTs of a flush as JDBC batches;
+ * checkout writes an order and all its lines this way. Orders and order items share one segment.
+ * The set-based checkout reserves blocks of the same segment for its INSERT ... SELECT
+ * (OrderItemWrites.reserveIds).
+ *
+ * Rows of these tables must not be inserted without an id: the AUTO_INCREMENT of the column
+ * would hand out ids of a reserved block.
+ */
+@Getter
+@Setter
+@MappedSuperclass
+public class PooledIdModel extends BaseColumns {
+
+    public static final String ID_TABLE = "id_generator";
+    public static final String ID_SEGMENT = "checkout";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String GENERATOR = "checkout_id";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = GENERATOR)
+    @TableGenerator(name = GENERATOR, table = ID_TABLE, pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = ID_SEGMENT, allocationSize = ALLOCATION_SIZE)
+    private Long id;
+
+}
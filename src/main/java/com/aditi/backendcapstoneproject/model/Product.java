@@ -1,21 +1,55 @@
 package com.aditi.backendcapstoneproject.model;
 
 import com.aditi.backendcapstoneproject.model.Category;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@Table(indexes = {
+        @Index(name = "idx_product_deleted_category_name", columnList = "is_deleted, category_name"),
+        @Index(name = "idx_product_deleted_last_modified", columnList = "is_deleted, last_modified"),
+        @Index(name = "idx_product_category_deleted_price", columnList = "category_id, is_deleted, price")
+})
 public class Product extends BaseModel{
 
     private String description;
     private String imageUrl;
     private Double price;
 
-    @ManyToOne
+    /**
+     * Only needed as the foreign key on writes, so it is loaded lazily and never serialized
+     * (an uninitialized proxy can not be cached). Reads use categoryName.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private Category category;
 
+    /**
+     * Denormalized category.name, so product reads and category filters stay on the product table.
+     * Kept in sync by ProductDBService, the bulk product services and CategoryService.renameCategory.
+     */
+    private String categoryName;
+
+    // Also covers writes that only set the category, e.g. seed data and tests
+    @PrePersist
+    @PreUpdate
+    void syncCategoryName() {
+        if (category != null) {
+            categoryName = category.getName();
+        }
+    }
+
 }
@@ -3,18 +3,62 @@ package com.aditi.backendcapstoneproject.repository;
 import com.aditi.backendcapstoneproject.model.Cart;
 import com.aditi.backendcapstoneproject.model.CartItem;
 import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemWrites {
 
     List<CartItem> findByCart(Cart cart);
+
+    long countByCart(Cart cart);
+
+    long countByCartUser(User user);
+
+    @Query("select ci from CartItem ci join fetch ci.product where ci.cart = :cart order by ci.id")
+    List<CartItem> findWithProductByCart(@Param("cart") Cart cart);
+
+    /**
+     * The items of the user's cart together with the cart, its user and the products, in one
+     * statement. Empty when the user has no cart or an empty one.
+     */
+    @Query("select ci from CartItem ci join fetch ci.cart c join fetch c.user u join fetch ci.product " +
+            "where u.email = :email order by ci.id")
+    List<CartItem> findWithCartAndProductByUserEmail(@Param("email") String email);
     
     Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
     
     void deleteByCart(Cart cart);
 
+    //Empties the cart in one statement, without loading its items (set-based checkout)
+    @Modifying(flushAutomatically = true)
+    @Query("delete from CartItem ci where ci.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CartItem ci where ci.product.id = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    //Cart totals of the carts holding the product: taken out before its rows are deleted,
+    //recomputed after its price changed
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CartRepository.CART_TABLE_SPACE))
+    @Query(value = CustomQuery.REMOVE_PRODUCT_FROM_CART_TOTALS, nativeQuery = true)
+    int removeProductFromCartTotals(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CartRepository.CART_TABLE_SPACE))
+    @Query(value = CustomQuery.RECOMPUTE_CART_TOTALS_OF_PRODUCTS, nativeQuery = true)
+    int recomputeCartTotalsOfProducts(@Param("ids") Collection<Long> productIds);
+
 }
 
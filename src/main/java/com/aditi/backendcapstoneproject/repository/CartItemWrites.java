@@ -0,0 +1,35 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Set-based cart item writes, mixed into CartItemRepository (implemented by CartItemWritesImpl).
+ */
+public interface CartItemWrites {
+
+    /**
+     * Adds quantity to the product's line in the cart, inserting the line if the cart does not
+     * hold the product yet, in one statement. Relies on uk_cart_item_cart_product, so concurrent
+     * adds of the same product neither lose an increment nor fail on the unique key. The cart's
+     * totals, version and lastModified are updated first, so a concurrent read-modify-write of
+     * the cart fails its version check instead of overwriting the add.
+     *
+     * That makes an add two statements in one transaction, not a single round trip: MySQL
+     * cannot update cart and upsert cart_item in one statement, and the cart update is what
+     * keeps the totals denormalized and the version check of the other cart writes sound.
+     */
+    void addQuantity(Long cartId, Long productId, int quantity, Date now);
+
+    /**
+     * Writes the result of a batch of cart operations as JDBC batches: upserts for new lines
+     * (product id -> quantity to add), quantity updates (item id -> quantity) and one DELETE.
+     * Pending changes are flushed first and the persistence context is cleared afterwards,
+     * so later reads see the new rows. The cart totals are recomputed from the written rows.
+     * The caller updates the cart (version check) in the same transaction before, which also
+     * locks the cart row against concurrent writers.
+     */
+    void writeBatch(Long cartId, Map<Long, Integer> addedQuantities, Map<Long, Integer> updatedQuantities,
+                    Collection<Long> removedItemIds, Date now);
+}
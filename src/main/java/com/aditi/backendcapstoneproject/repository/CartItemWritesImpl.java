@@ -0,0 +1,111 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import com.aditi.backendcapstoneproject.model.Cart;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Upserts: MySQL runs INSERT ... ON DUPLICATE KEY UPDATE. The embedded H2 database (tests) has
+ * no ON DUPLICATE KEY outside of its MySQL mode and its MERGE is not atomic against a concurrent
+ * insert of the same key; there the cart row lock taken by the preceding cart update
+ * serializes the MERGEs.
+ */
+class CartItemWritesImpl implements CartItemWrites {
+
+    // Native UPDATEs declare the tables they touch, so Hibernate does not clear the whole
+    // second-level cache (products included) after each add
+    private static final String CART_ITEM_TABLE_SPACE = "cart_item";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private volatile Boolean h2;
+
+    CartItemWritesImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void addQuantity(Long cartId, Long productId, int quantity, Date now) {
+        entityManager.createNativeQuery(CustomQuery.ADD_QUANTITY_TO_CART)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CartRepository.CART_TABLE_SPACE)
+                .setParameter("cartId", cartId)
+                .setParameter("productId", productId)
+                .setParameter("quantity", quantity)
+                .setParameter("now", now)
+                .executeUpdate();
+        // A cart already loaded in this persistence context still holds the old version; it is
+        // reloaded, so a later update of it in the same transaction passes the version check
+        Cart cart = entityManager.getReference(Cart.class, cartId);
+        if (Hibernate.isInitialized(cart)) {
+            entityManager.refresh(cart);
+        }
+        entityManager.createNativeQuery(upsertSql())
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CART_ITEM_TABLE_SPACE)
+                .setParameter("cartId", cartId)
+                .setParameter("productId", productId)
+                .setParameter("quantity", quantity)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void writeBatch(Long cartId, Map<Long, Integer> addedQuantities, Map<Long, Integer> updatedQuantities,
+                           Collection<Long> removedItemIds, Date now) {
+        entityManager.flush();
+
+        if (!addedQuantities.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsertSql(), addedQuantities.entrySet().stream()
+                    .map(added -> new MapSqlParameterSource("cartId", cartId)
+                            .addValue("productId", added.getKey())
+                            .addValue("quantity", added.getValue())
+                            .addValue("now", now))
+                    .toArray(SqlParameterSource[]::new));
+        }
+        if (!updatedQuantities.isEmpty()) {
+            jdbcTemplate.batchUpdate(CustomQuery.UPDATE_CART_ITEM_QUANTITY, updatedQuantities.entrySet().stream()
+                    .map(updated -> new MapSqlParameterSource("id", updated.getKey())
+                            .addValue("quantity", updated.getValue())
+                            .addValue("now", now))
+                    .toArray(SqlParameterSource[]::new));
+        }
+        if (!removedItemIds.isEmpty()) {
+            jdbcTemplate.update(CustomQuery.DELETE_CART_ITEMS, new MapSqlParameterSource("ids", removedItemIds));
+        }
+        jdbcTemplate.update(CustomQuery.RECOMPUTE_CART_TOTALS, new MapSqlParameterSource("cartId", cartId));
+
+        entityManager.clear();
+    }
+
+    private String upsertSql() {
+        return isH2() ? CustomQuery.MERGE_CART_ITEM_QUANTITY : CustomQuery.UPSERT_CART_ITEM_QUANTITY;
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            h2 = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof H2Dialect;
+        }
+        return h2;
+    }
+}
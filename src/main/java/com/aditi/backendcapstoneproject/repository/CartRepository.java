@@ -2,15 +2,44 @@ package com.aditi.backendcapstoneproject.repository;
 
 import com.aditi.backendcapstoneproject.model.Cart;
 import com.aditi.backendcapstoneproject.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    /**
+     * Hint for the native UPDATEs of the cart totals: they only touch the cart table, so
+     * Hibernate does not clear the whole second-level cache (products included) after them.
+     */
+    String CART_TABLE_SPACE = "cart";
+
     Optional<Cart> findByUser(User user);
     
     Optional<Cart> findByUser_Id(Long userId);
 
-}
+    //Cart totals: single-row atomic updates in the transaction of the cart mutation (or their
+    //own, for the synchronous line insert of a write-behind cart)
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CART_TABLE_SPACE))
+    @Query(value = CustomQuery.ADD_TO_CART_TOTALS, nativeQuery = true)
+    int addToTotals(@Param("cartId") Long cartId, @Param("count") int count, @Param("amount") double amount);
 
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CART_TABLE_SPACE))
+    @Query(value = CustomQuery.CLEAR_CART_TOTALS, nativeQuery = true)
+    int clearTotals(@Param("cartId") Long cartId);
+
+    //Scalar projection, so the values come from the DB and not from a stale managed entity
+    @Query("select c.id as cartId, c.itemCount as totalItems, c.totalAmount as totalAmount " +
+            "from Cart c where c.user.email = :email")
+    Optional<CartSummaryView> findSummaryByUserEmail(@Param("email") String email);
+}
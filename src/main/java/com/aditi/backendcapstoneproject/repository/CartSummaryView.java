@@ -0,0 +1,10 @@
+package com.aditi.backendcapstoneproject.repository;
+
+public interface CartSummaryView {
+
+    Long getCartId();
+
+    Integer getTotalItems();
+
+    Double getTotalAmount();
+}
@@ -1,12 +1,69 @@
 package com.aditi.backendcapstoneproject.repository;
 
 import com.aditi.backendcapstoneproject.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    /**
+     * Hint for the native UPDATEs below: they only touch the category table, so Hibernate
+     * invalidates just the category region and category query results. Without it every
+     * native UPDATE would clear the whole second-level cache, products included.
+     */
+    String CATEGORY_TABLE_SPACE = "category";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByName(String name);
     Category save(Category category);
+
+    //Category stats: single-row atomic updates, safe under concurrent product writes
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = CustomQuery.ADD_PRODUCT_TO_CATEGORY_STATS, nativeQuery = true)
+    int addProductToStats(@Param("categoryId") Long categoryId, @Param("price") double price,
+                          @Param("now") Date now);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = CustomQuery.ADD_PRODUCTS_TO_CATEGORY_STATS, nativeQuery = true)
+    int addProductsToStats(@Param("categoryId") Long categoryId, @Param("count") long count,
+                           @Param("total") double total, @Param("minPrice") double minPrice,
+                           @Param("maxPrice") double maxPrice, @Param("now") Date now);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = CustomQuery.REMOVE_PRODUCT_FROM_CATEGORY_STATS, nativeQuery = true)
+    int removeProductFromStats(@Param("categoryId") Long categoryId, @Param("price") double price,
+                               @Param("now") Date now);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = CustomQuery.RECOMPUTE_CATEGORY_STATS, nativeQuery = true)
+    int recomputeStats(@Param("categoryId") Long categoryId, @Param("now") Date now);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = "update category set stats_last_updated = :now where id = :categoryId", nativeQuery = true)
+    int touchStats(@Param("categoryId") Long categoryId, @Param("now") Date now);
+
+    //Soft-deleted names still hold the unique index, so re-creating such a category restores it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CATEGORY_TABLE_SPACE))
+    @Query(value = CustomQuery.RESTORE_DELETED_CATEGORY, nativeQuery = true)
+    int restoreDeleted(@Param("name") String name, @Param("now") Date now);
+
+    //Scalar projection, so the values come from the DB and not from a stale managed entity
+    @Query("select c.id as id, c.name as name, c.productCount as productCount, c.priceTotal as priceTotal, " +
+            "c.minPrice as minPrice, c.maxPrice as maxPrice, c.statsLastUpdated as statsLastUpdated " +
+            "from Category c where c.id = :categoryId")
+    Optional<CategoryStatsView> findStatsById(@Param("categoryId") Long categoryId);
 }
@@ -0,0 +1,20 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import java.util.Date;
+
+public interface CategoryStatsView {
+
+    Long getId();
+
+    String getName();
+
+    Long getProductCount();
+
+    Double getPriceTotal();
+
+    Double getMinPrice();
+
+    Double getMaxPrice();
+
+    Date getStatsLastUpdated();
+}
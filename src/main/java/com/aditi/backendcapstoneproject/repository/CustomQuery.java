@@ -2,5 +2,183 @@ package com.aditi.backendcapstoneproject.repository;
 
 public class CustomQuery {
     public static final String GET_PRODUCT_FROM_CATEGORY_NAME=
-            "select * product from product where category_id in (select category_id from category where name=:categoryName))";
+            "select * from product where is_deleted = false and category_name=:categoryName";
+
+    public static final String ADD_PRODUCT_TO_CATEGORY_STATS=
+            "update category set product_count = product_count + 1, price_total = price_total + :price, " +
+            "min_price = case when min_price is null or :price < min_price then :price else min_price end, " +
+            "max_price = case when max_price is null or :price > max_price then :price else max_price end, " +
+            "stats_last_updated = :now where id = :categoryId";
+
+    //min/max can not be decremented: when the removed price was an extreme, re-read it from
+    //the category's remaining products (runs after the product row has been flushed)
+    public static final String REMOVE_PRODUCT_FROM_CATEGORY_STATS=
+            "update category set product_count = product_count - 1, price_total = price_total - :price, " +
+            "min_price = case when min_price < :price then min_price " +
+            "else (select min(coalesce(p.price, 0)) from product p where p.category_id = :categoryId and p.is_deleted = false) end, " +
+            "max_price = case when max_price > :price then max_price " +
+            "else (select max(coalesce(p.price, 0)) from product p where p.category_id = :categoryId and p.is_deleted = false) end, " +
+            "stats_last_updated = :now where id = :categoryId";
+
+    //Bulk variant: applies the count/sum/min/max of a batch of new products in one statement
+    public static final String ADD_PRODUCTS_TO_CATEGORY_STATS=
+            "update category set product_count = product_count + :count, price_total = price_total + :total, " +
+            "min_price = case when min_price is null or :minPrice < min_price then :minPrice else min_price end, " +
+            "max_price = case when max_price is null or :maxPrice > max_price then :maxPrice else max_price end, " +
+            "stats_last_updated = :now where id = :categoryId";
+
+    public static final String INSERT_PRODUCT=
+            "insert into product (name, description, image_url, price, category_id, category_name, created_at, last_modified, is_deleted) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    //Full recomputation, used after set-based bulk updates where per-row deltas are unknown
+    public static final String RECOMPUTE_CATEGORY_STATS=
+            "update category set " +
+            "product_count = (select count(*) from product p where p.category_id = :categoryId and p.is_deleted = false), " +
+            "price_total = (select coalesce(sum(coalesce(p.price, 0)), 0) from product p where p.category_id = :categoryId and p.is_deleted = false), " +
+            "min_price = (select min(coalesce(p.price, 0)) from product p where p.category_id = :categoryId and p.is_deleted = false), " +
+            "max_price = (select max(coalesce(p.price, 0)) from product p where p.category_id = :categoryId and p.is_deleted = false), " +
+            "stats_last_updated = :now where id = :categoryId";
+
+    //Bulk product updates, one chunk of ids per statement
+    public static final String SELECT_PRODUCT_IDS_IN_CATEGORY_AFTER=
+            "select id from product where category_id = :categoryId and is_deleted = false and id > :afterId order by id limit :limit";
+
+    public static final String SELECT_CATEGORY_IDS_OF_PRODUCTS=
+            "select distinct category_id from product where id in (:ids) and category_id is not null and is_deleted = false";
+
+    public static final String ADJUST_PRODUCT_PRICES=
+            "update product set price = round(price * :factor, 2), last_modified = :now where id in (:ids) and is_deleted = false";
+
+    public static final String MOVE_PRODUCTS_TO_CATEGORY=
+            "update product set category_id = :categoryId, category_name = :categoryName, last_modified = :now where id in (:ids) and is_deleted = false";
+
+    //Soft delete purge: long-deleted products no order refers to are moved to product_archive
+    public static final String SELECT_PURGEABLE_PRODUCT_IDS=
+            "select p.id from product p where p.is_deleted = true and p.last_modified < :cutoff and p.id > :afterId " +
+            "and not exists (select 1 from order_item oi where oi.product_id = p.id) order by p.id limit :limit";
+
+    public static final String ARCHIVE_PRODUCTS=
+            "insert into product_archive (id, name, description, image_url, price, category_id, category_name, " +
+            "created_at, deleted_at, archived_at) " +
+            "select id, name, description, image_url, price, category_id, category_name, created_at, last_modified, :now " +
+            "from product where id in (:ids)";
+
+    public static final String DELETE_CART_ITEMS_OF_PRODUCTS=
+            "delete from cart_item where product_id in (:ids)";
+
+    public static final String DELETE_PRODUCTS=
+            "delete from product where id in (:ids)";
+
+    public static final String PURGE_DELETED_CATEGORIES=
+            "delete from category where is_deleted = true and last_modified < :cutoff " +
+            "and not exists (select 1 from product p where p.category_id = category.id)";
+
+    public static final String RESTORE_DELETED_CATEGORY=
+            "update category set is_deleted = false, last_modified = :now where name = :name and is_deleted = true";
+
+    //Stale data reaper: carts inactive since the cutoff and expired password reset tokens, in keyset chunks
+    public static final String SELECT_ABANDONED_CART_IDS=
+            "select id from cart where last_modified < :cutoff and id > :afterId order by id limit :limit";
+
+    //Re-checks the cutoff under the row locks, so a cart changed since the chunk was selected is kept;
+    //cart mutations lock the cart row first too
+    public static final String LOCK_ABANDONED_CARTS=
+            "select id, user_id from cart where id in (:ids) and last_modified < :cutoff for update";
+
+    public static final String DELETE_CART_ITEMS_OF_CARTS=
+            "delete from cart_item where cart_id in (:ids)";
+
+    public static final String DELETE_CARTS=
+            "delete from cart where id in (:ids)";
+
+    public static final String SELECT_USER_EMAILS=
+            "select email from users where id in (:ids)";
+
+    public static final String SELECT_EXPIRED_PASSWORD_RESET_TOKEN_IDS=
+            "select id from password_reset_token where expiry_date < :now and id > :afterId order by id limit :limit";
+
+    public static final String DELETE_PASSWORD_RESET_TOKENS=
+            "delete from password_reset_token where id in (:ids)";
+
+    //Set-based checkout (OrderItemWritesImpl): ids of order_item come from the id_generator segment of
+    //PooledIdModel; a block of :count ids is reserved, then the cart lines are numbered into it
+    public static final String LOCK_ID_SEGMENT=
+            "select next_val from id_generator where sequence_name = :segment for update";
+
+    public static final String ADVANCE_ID_SEGMENT=
+            "update id_generator set next_val = next_val + :count where sequence_name = :segment";
+
+    //At most :count lines, in cart item order, priced at the current product price
+    public static final String COPY_CART_ITEMS_TO_ORDER=
+            "insert into order_item (id, order_id, product_id, quantity, price, created_at, last_modified, is_deleted) " +
+            "select :firstId + t.line - 1, :orderId, t.product_id, t.quantity, t.price, :now, :now, false " +
+            "from (select ci.product_id, ci.quantity, p.price, row_number() over (order by ci.id) as line " +
+            "from cart_item ci join product p on p.id = ci.product_id " +
+            "where ci.cart_id = :cartId and ci.is_deleted = false) t " +
+            "where t.line <= :count";
+
+    public static final String UPDATE_ORDER_TOTAL_AMOUNT=
+            "update orders set total_amount = (select coalesce(sum(oi.price * oi.quantity), 0) from order_item oi " +
+            "where oi.order_id = :orderId) where id = :orderId";
+
+    //Cart totals (item_count, total_amount): deltas inside each cart mutation, a recomputation
+    //from the cart's items after set-based writes and product price changes
+    public static final String CART_TOTALS_FROM_ITEMS=
+            "item_count = (select coalesce(sum(ci.quantity), 0) from cart_item ci where ci.cart_id = cart.id), " +
+            "total_amount = (select coalesce(sum(ci.quantity * coalesce(p.price, 0)), 0) from cart_item ci " +
+            "join product p on p.id = ci.product_id where ci.cart_id = cart.id)";
+
+    public static final String ADD_TO_CART_TOTALS=
+            "update cart set item_count = item_count + :count, total_amount = total_amount + :amount where id = :cartId";
+
+    public static final String CLEAR_CART_TOTALS=
+            "update cart set item_count = 0, total_amount = 0 where id = :cartId";
+
+    public static final String RECOMPUTE_CART_TOTALS=
+            "update cart set " + CART_TOTALS_FROM_ITEMS + " where id = :cartId";
+
+    public static final String RECOMPUTE_CART_TOTALS_OF_PRODUCTS=
+            "update cart set " + CART_TOTALS_FROM_ITEMS + " where id in (select ci.cart_id from cart_item ci where ci.product_id in (:ids))";
+
+    //Runs before the product's cart rows are deleted
+    public static final String REMOVE_PRODUCT_FROM_CART_TOTALS=
+            "update cart set " +
+            "item_count = item_count - (select coalesce(sum(ci.quantity), 0) from cart_item ci where ci.cart_id = cart.id and ci.product_id = :productId), " +
+            "total_amount = total_amount - (select coalesce(sum(ci.quantity * coalesce(p.price, 0)), 0) from cart_item ci " +
+            "join product p on p.id = ci.product_id where ci.cart_id = cart.id and ci.product_id = :productId) " +
+            "where id in (select ci.cart_id from cart_item ci where ci.product_id = :productId)";
+
+    //Write-behind cart flush (CartWriteBehindStore), sent as JDBC batches
+    public static final String UPDATE_CART_ITEM_QUANTITY=
+            "update cart_item set quantity = :quantity, last_modified = :now where id = :id";
+
+    public static final String DELETE_CART_ITEM=
+            "delete from cart_item where id = :id";
+
+    public static final String DELETE_CART_ITEMS=
+            "delete from cart_item where id in (:ids)";
+
+    public static final String TOUCH_CART=
+            "update cart set " + CART_TOTALS_FROM_ITEMS + ", last_modified = :now, version = version + 1 where id = :id";
+
+    //Add-to-cart in one statement (CartItemWritesImpl), relies on uk_cart_item_cart_product
+    public static final String UPSERT_CART_ITEM_QUANTITY=
+            "insert into cart_item (cart_id, product_id, quantity, created_at, last_modified, is_deleted) " +
+            "values (:cartId, :productId, :quantity, :now, :now, false) " +
+            "on duplicate key update quantity = quantity + :quantity, last_modified = :now";
+
+    //Adds the quantity to the cart totals and increments the cart's @Version without checking it:
+    //an add is commutative. The row lock also serializes the H2 MERGE below per cart
+    public static final String ADD_QUANTITY_TO_CART=
+            "update cart set item_count = item_count + :quantity, " +
+            "total_amount = total_amount + :quantity * coalesce((select p.price from product p where p.id = :productId), 0), " +
+            "version = version + 1, last_modified = :now where id = :cartId";
+
+    public static final String MERGE_CART_ITEM_QUANTITY=
+            "merge into cart_item ci using (select cast(:cartId as bigint) as cart_id, cast(:productId as bigint) as product_id) src " +
+            "on ci.cart_id = src.cart_id and ci.product_id = src.product_id " +
+            "when matched then update set quantity = ci.quantity + :quantity, last_modified = :now " +
+            "when not matched then insert (cart_id, product_id, quantity, created_at, last_modified, is_deleted) " +
+            "values (src.cart_id, src.product_id, :quantity, :now, :now, false)";
 }
@@ -4,11 +4,15 @@ import com.aditi.backendcapstoneproject.model.Order;
 import com.aditi.backendcapstoneproject.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, OrderItemWrites {
 
     List<OrderItem> findByOrder(Order order);
+
+    // Items of a whole page of orders in one query
+    List<OrderItem> findByOrderIn(Collection<Order> orders);
 }
 
 
@@ -0,0 +1,33 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import com.aditi.backendcapstoneproject.model.Order;
+
+import java.util.Date;
+
+/**
+ * Set-based checkout writes, mixed into OrderItemRepository (implemented by OrderItemWritesImpl).
+ */
+public interface OrderItemWrites {
+
+    /**
+     * Reserves count consecutive order_item ids and returns the first. The ids are taken from
+     * the id_generator segment the pooled-lo generator of PooledIdModel draws its blocks from,
+     * so they never collide with ids Hibernate assigns. Runs in its own transaction, so the
+     * id_generator row is locked only for the reservation; call it before opening the
+     * transaction that uses the ids, or it holds a second pooled connection meanwhile.
+     */
+    long reserveIds(int count);
+
+    /**
+     * Copies the lines of the cart into the order with one INSERT ... SELECT: at most count
+     * lines, in cart item order, with the ids firstId to firstId + count - 1 and the current
+     * product prices. Returns the number of lines copied.
+     */
+    int copyCartItems(Long orderId, Long cartId, long firstId, int count, Date now);
+
+    /**
+     * Sets the order's total amount to the sum of its lines with one aggregate UPDATE and
+     * reloads the order, so it carries the stored total.
+     */
+    void updateTotalAmount(Order order);
+}
@@ -0,0 +1,81 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import com.aditi.backendcapstoneproject.model.Order;
+import com.aditi.backendcapstoneproject.model.PooledIdModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+/**
+ * The INSERT ... SELECT and the total UPDATE run as native queries in the caller's transaction;
+ * the id reservation runs through JDBC in a transaction of its own, like the reservations of
+ * Hibernate's table generator.
+ */
+class OrderItemWritesImpl implements OrderItemWrites {
+
+    // Native writes declare the tables they touch, so Hibernate does not clear the whole
+    // second-level cache after each checkout
+    private static final String ORDER_ITEM_TABLE_SPACE = "order_item";
+    private static final String ORDERS_TABLE_SPACE = "orders";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reservationTransaction;
+
+    OrderItemWritesImpl(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long reserveIds(int count) {
+        MapSqlParameterSource segment = new MapSqlParameterSource("segment", PooledIdModel.ID_SEGMENT)
+                .addValue("count", count);
+        Long firstId = reservationTransaction.execute(status -> {
+            Long nextVal = jdbcTemplate.queryForObject(CustomQuery.LOCK_ID_SEGMENT, segment, Long.class);
+            jdbcTemplate.update(CustomQuery.ADVANCE_ID_SEGMENT, segment);
+            return nextVal;
+        });
+        if (firstId == null) {
+            throw new IllegalStateException("Id segment " + PooledIdModel.ID_SEGMENT + " of "
+                    + PooledIdModel.ID_TABLE + " has no value");
+        }
+        return firstId;
+    }
+
+    @Override
+    @Transactional
+    public int copyCartItems(Long orderId, Long cartId, long firstId, int count, Date now) {
+        return entityManager.createNativeQuery(CustomQuery.COPY_CART_ITEMS_TO_ORDER)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ORDER_ITEM_TABLE_SPACE)
+                .setParameter("firstId", firstId)
+                .setParameter("orderId", orderId)
+                .setParameter("cartId", cartId)
+                .setParameter("count", count)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void updateTotalAmount(Order order) {
+        entityManager.createNativeQuery(CustomQuery.UPDATE_ORDER_TOTAL_AMOUNT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ORDERS_TABLE_SPACE)
+                .setParameter("orderId", order.getId())
+                .executeUpdate();
+        entityManager.refresh(order);
+    }
+}
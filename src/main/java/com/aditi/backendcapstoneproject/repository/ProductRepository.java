@@ -1,12 +1,15 @@
 package com.aditi.backendcapstoneproject.repository;
 
 import com.aditi.backendcapstoneproject.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,13 +20,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findById(Long id);
 
-    //Declarative Queries
-    List<Product> findByCategory_Name(String categoryName);
+    //Declarative Queries (on the denormalized category_name column, no join)
+    List<Product> findByCategoryName(String categoryName);
 
-    Page<Product> findByCategory_Name(String categoryName, Pageable pageable);
+    Page<Product> findByCategoryName(String categoryName, Pageable pageable);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    //Keyset pagination: seeks on the primary key instead of skipping OFFSET rows
+    List<Product> findByCategoryNameAndIdGreaterThanOrderByIdAsc(String categoryName, Long id, Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     //HQL Queries
-    @Query("select p from Product p where p.category.name=:categoryName")
+    @Query("select p from Product p where p.categoryName=:categoryName")
     List<Product> getProductByCategoryName(@Param("categoryName") String categoryName);
 
     //Native Queries
@@ -35,4 +45,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "lower(p.name) like lower(concat('%', :keyword, '%')) " +
             "or lower(p.description) like lower(concat('%', :keyword, '%'))")
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
+
+    //Keeps the denormalized name in sync when a category is renamed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.categoryName = :categoryName, p.lastModified = :now where p.category.id = :categoryId")
+    int updateCategoryName(@Param("categoryId") Long categoryId, @Param("categoryName") String categoryName,
+                           @Param("now") Date now);
 }
@@ -0,0 +1,35 @@
+package com.aditi.backendcapstoneproject.scheduler;
+
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CartCacheRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartCacheRefresher.class);
+
+    private final CartCacheIndex cartCacheIndex;
+
+    public CartCacheRefresher(CartCacheIndex cartCacheIndex) {
+        this.cartCacheIndex = cartCacheIndex;
+    }
+
+    /**
+     * Evict the cached carts queued by changes of popular products
+     * Runs catalog.cart.cache-index.refresh-interval-ms after the previous run finished
+     */
+    @Scheduled(fixedDelayString = "${catalog.cart.cache-index.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            int evicted = cartCacheIndex.evictPending();
+            if (evicted > 0) {
+                logger.debug("Evicted {} cached carts showing changed products", evicted);
+            }
+        } catch (Exception e) {
+            logger.error("Error during cached cart refresh: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.aditi.backendcapstoneproject.scheduler;
+
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CartWriteBehindFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteBehindFlusher.class);
+
+    private final CartWriteBehindStore cartWriteBehindStore;
+
+    @Value("${catalog.cart.write-behind.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    public CartWriteBehindFlusher(CartWriteBehindStore cartWriteBehindStore) {
+        this.cartWriteBehindStore = cartWriteBehindStore;
+    }
+
+    /**
+     * Write the carts changed since the previous run, then drop idle ones from memory
+     * Runs catalog.cart.write-behind.flush-interval-ms after the previous run finished
+     */
+    @Scheduled(fixedDelayString = "${catalog.cart.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        if (!cartWriteBehindStore.isEnabled()) {
+            return;
+        }
+
+        try {
+            int flushed = cartWriteBehindStore.flushDirty();
+            int evicted = cartWriteBehindStore.evictIdle(idleEvictionMs);
+            if (flushed > 0 || evicted > 0) {
+                logger.debug("Write-behind carts: {} flushed, {} evicted, {} in memory",
+                        flushed, evicted, cartWriteBehindStore.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error during write-behind cart flush: {}", e.getMessage(), e);
+        }
+    }
+}
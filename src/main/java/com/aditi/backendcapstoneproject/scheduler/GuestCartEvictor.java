@@ -0,0 +1,35 @@
+package com.aditi.backendcapstoneproject.scheduler;
+
+import com.aditi.backendcapstoneproject.component.GuestCartStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GuestCartEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuestCartEvictor.class);
+
+    private final GuestCartStore guestCartStore;
+
+    public GuestCartEvictor(GuestCartStore guestCartStore) {
+        this.guestCartStore = guestCartStore;
+    }
+
+    /**
+     * Drop the guest carts not used for catalog.cart.guest.ttl-ms from memory
+     * Runs catalog.cart.guest.eviction-interval-ms after the previous run finished
+     */
+    @Scheduled(fixedDelayString = "${catalog.cart.guest.eviction-interval-ms:60000}")
+    public void evict() {
+        try {
+            int evicted = guestCartStore.evictExpired();
+            if (evicted > 0) {
+                logger.debug("Evicted {} expired guest carts, {} in memory", evicted, guestCartStore.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error during guest cart eviction: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.aditi.backendcapstoneproject.scheduler;
+
+import com.aditi.backendcapstoneproject.service.SoftDeletePurgeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+@Component
+public class SoftDeletePurgeScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurgeScheduler.class);
+
+    private final SoftDeletePurgeService softDeletePurgeService;
+
+    @Value("${catalog.purge.enabled:true}")
+    private boolean purgeEnabled;
+
+    @Value("${catalog.purge.retention-days:30}")
+    private int retentionDays;
+
+    public SoftDeletePurgeScheduler(SoftDeletePurgeService softDeletePurgeService) {
+        this.softDeletePurgeService = softDeletePurgeService;
+    }
+
+    /**
+     * Archive rows soft-deleted more than catalog.purge.retention-days ago
+     * Cron expression: every day at 03:30
+     */
+    @Scheduled(cron = "${catalog.purge.cron:0 30 3 * * ?}")
+    public void purgeDeletedRows() {
+        if (!purgeEnabled) {
+            logger.debug("Soft delete purge is disabled");
+            return;
+        }
+
+        Date cutoff = Date.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        logger.info("Starting soft delete purge for rows deleted before {}", cutoff);
+
+        try {
+            long products = softDeletePurgeService.purgeDeletedProducts(cutoff);
+            int categories = softDeletePurgeService.purgeDeletedCategories(cutoff);
+            logger.info("Soft delete purge completed: {} products archived, {} categories removed",
+                    products, categories);
+        } catch (Exception e) {
+            logger.error("Error during soft delete purge: {}", e.getMessage(), e);
+        }
+    }
+}
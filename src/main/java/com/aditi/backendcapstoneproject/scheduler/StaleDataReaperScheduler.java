@@ -0,0 +1,55 @@
+package com.aditi.backendcapstoneproject.scheduler;
+
+import com.aditi.backendcapstoneproject.dto.ReaperReportDto;
+import com.aditi.backendcapstoneproject.service.StaleDataReaperService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+@Component
+public class StaleDataReaperScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleDataReaperScheduler.class);
+
+    private final StaleDataReaperService staleDataReaperService;
+
+    @Value("${catalog.reaper.enabled:true}")
+    private boolean reaperEnabled;
+
+    @Value("${catalog.reaper.cart-inactive-days:90}")
+    private int cartInactiveDays;
+
+    public StaleDataReaperScheduler(StaleDataReaperService staleDataReaperService) {
+        this.staleDataReaperService = staleDataReaperService;
+    }
+
+    /**
+     * Delete carts not changed for catalog.reaper.cart-inactive-days and expired password reset tokens
+     * Cron expression: every day at 04:00
+     */
+    @Scheduled(cron = "${catalog.reaper.cron:0 0 4 * * ?}")
+    public void reapStaleData() {
+        if (!reaperEnabled) {
+            logger.debug("Stale data reaper is disabled");
+            return;
+        }
+
+        Date now = new Date();
+        Date cartCutoff = Date.from(Instant.now().minus(cartInactiveDays, ChronoUnit.DAYS));
+        logger.info("Starting stale data reaper for carts inactive since {}", cartCutoff);
+
+        try {
+            ReaperReportDto report = staleDataReaperService.reap(cartCutoff, now);
+            logger.info("Stale data reaper completed: {} rows reclaimed ({} carts, {} cart items, {} password reset tokens)",
+                    report.getTotalRows(), report.getCarts(), report.getCartItems(), report.getPasswordResetTokens());
+        } catch (Exception e) {
+            logger.error("Error during stale data reaper: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -39,17 +39,20 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final GuestCartService guestCartService;
 
     public AuthenticationService(UserRepository userRepository,
                                  PasswordEncoder passwordEncoder,
                                  JwtService jwtService,
                                  AuthenticationManager authenticationManager,
-                                 PasswordResetTokenRepository passwordResetTokenRepository) {
+                                 PasswordResetTokenRepository passwordResetTokenRepository,
+                                 GuestCartService guestCartService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.guestCartService = guestCartService;
     }
 
     @Transactional
@@ -100,6 +103,13 @@ public class AuthenticationService {
     }
 
     public AuthResponseDto login(LoginRequestDto request) throws InvalidCredentialsException {
+        return login(request, null);
+    }
+
+    /**
+     * Logs the user in and merges the guest cart of the cart token, if any, into the user's cart.
+     */
+    public AuthResponseDto login(LoginRequestDto request, String cartToken) throws InvalidCredentialsException {
         logger.info("Login attempt for email: {}", request.getEmail());
         
         try {
@@ -120,6 +130,10 @@ public class AuthenticationService {
 
             logger.info("User logged in successfully: {} with role: {}", user.getEmail(), user.getRole());
 
+            if (cartToken != null) {
+                guestCartService.mergeIntoUserCart(cartToken, user.getEmail());
+            }
+
             // Generate JWT token
             UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
                     .username(user.getEmail())
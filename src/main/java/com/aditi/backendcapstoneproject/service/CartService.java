@@ -1,7 +1,14 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.component.LiveCart;
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
+import com.aditi.backendcapstoneproject.dto.CartOperationDto;
 import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.CartSummaryDto;
 import com.aditi.backendcapstoneproject.dto.CartItemResponseDto;
+import com.aditi.backendcapstoneproject.enums.CartOperationType;
 import com.aditi.backendcapstoneproject.exception.CartItemNotFoundException;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
 import com.aditi.backendcapstoneproject.exception.UserNotFoundException;
@@ -13,16 +20,33 @@ import com.aditi.backendcapstoneproject.repository.CartItemRepository;
 import com.aditi.backendcapstoneproject.repository.CartRepository;
 import com.aditi.backendcapstoneproject.repository.ProductRepository;
 import com.aditi.backendcapstoneproject.repository.UserRepository;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Cart reads and mutations. With catalog.cart.write-behind.enabled the live cart is served
+ * from CartWriteBehindStore and only new lines are written synchronously; everything else
+ * reaches the database with the next write-behind flush.
+ *
+ * Every mutation writes the cart it returns back into the carts cache, so the next read
+ * does not go to the database. Each returned cart is recorded in CartCacheIndex, which evicts
+ * the cached carts of a product when its name or price changes.
+ *
+ * Each mutation also applies its change to the item count and total stored on the cart row,
+ * in the same transaction, which is all GET /cart/summary reads.
+ */
 @Service
 public class CartService {
 
@@ -30,15 +54,24 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final CartWriteBehindStore cartWriteBehindStore;
+    private final CartCacheIndex cartCacheIndex;
+    private final OptimisticLockRetry optimisticLockRetry;
 
     public CartService(CartRepository cartRepository,
                        CartItemRepository cartItemRepository,
                        ProductRepository productRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       CartWriteBehindStore cartWriteBehindStore,
+                       CartCacheIndex cartCacheIndex,
+                       OptimisticLockRetry optimisticLockRetry) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.cartWriteBehindStore = cartWriteBehindStore;
+        this.cartCacheIndex = cartCacheIndex;
+        this.optimisticLockRetry = optimisticLockRetry;
     }
 
     private User getUserByEmail(String email) throws UserNotFoundException {
@@ -48,95 +81,150 @@ public class CartService {
 
     @Cacheable(cacheNames = "carts", key = "#email")
     public CartResponseDto getCart(String email) throws UserNotFoundException {
-        User user = getUserByEmail(email);
-        Cart cart = getOrCreateCart(user);
-        return buildCartResponse(cart);
+        if (cartWriteBehindStore.isEnabled()) {
+            LiveCart cart = liveCart(email);
+            synchronized (cart) {
+                cart.touch();
+                return indexed(email, buildCartResponse(cart));
+            }
+        }
+        // Cart, items and products in one statement
+        List<CartItem> cartItems = cartItemRepository.findWithCartAndProductByUserEmail(email);
+        if (cartItems.isEmpty()) {
+            Cart cart = getOrCreateCart(getUserByEmail(email));
+            return indexed(email, buildCartResponse(cart.getId(), new ArrayList<>()));
+        }
+        List<CartItemResponseDto> itemDtos = cartItems.stream()
+                .map(CartItemResponseDto::from)
+                .collect(Collectors.toList());
+        return indexed(email, buildCartResponse(cartItems.get(0).getCart().getId(), itemDtos));
     }
 
-    @CacheEvict(cacheNames = "carts", key = "#email")
+    /**
+     * Item count and total of the user's cart for cart badges and mini-carts, read from the
+     * totals on the cart row without touching cart_item. A live write-behind cart is summarized
+     * from memory, as its row only catches up with the next flush.
+     */
+    public CartSummaryDto getCartSummary(String email) {
+        if (cartWriteBehindStore.isEnabled()) {
+            LiveCart cart = cartWriteBehindStore.get(email);
+            if (cart != null) {
+                synchronized (cart) {
+                    if (!cart.isDetached()) {
+                        CartResponseDto response = buildCartResponse(cart);
+                        return CartSummaryDto.of(response.getCartId(), response.getTotalItems(), response.getTotalAmount());
+                    }
+                }
+            }
+        }
+        return cartRepository.findSummaryByUserEmail(email)
+                .map(CartSummaryDto::from)
+                .orElseGet(() -> CartSummaryDto.of(null, 0, 0.0));
+    }
+
+    @CachePut(cacheNames = "carts", key = "#email")
     public CartResponseDto addItemToCart(String email, Long productId, Integer quantity) throws ProductNotFoundException, UserNotFoundException {
+        if (cartWriteBehindStore.isEnabled()) {
+            Product product = findActiveProduct(productId);
+            return mutateLiveCart(email, productId, cart -> {
+                LiveCart.Line line = cart.reusableLine(productId);
+                if (line != null) {
+                    cart.setQuantity(line, (line.isRemoved() ? 0 : line.getQuantity()) + quantity);
+                } else {
+                    // Inserted right away, so the item id in the response can be used at once;
+                    // the row and the totals delta commit together
+                    CartItem cartItem = optimisticLockRetry.inTransaction(() -> {
+                        CartItem saved = cartItemRepository.save(
+                                newCartItem(cartRepository.getReferenceById(cart.getCartId()), product, quantity));
+                        cartRepository.addToTotals(cart.getCartId(), quantity, product.getPrice() * quantity);
+                        return saved;
+                    });
+                    cart.addLine(cartItem.getId(), productId, quantity);
+                }
+            });
+        }
+
         User user = getUserByEmail(email);
         Cart cart = getOrCreateCart(user);
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException("Product with id " + productId + " not found"));
-
-        Optional<CartItem> existingCartItem = cartItemRepository.findByCartAndProduct(cart, product);
+        Product product = findActiveProduct(productId);
 
-        CartItem cartItem;
-        if (existingCartItem.isPresent()) {
-            cartItem = existingCartItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        } else {
-            cartItem = new CartItem();
-            cartItem.setCart(cart);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem.setCreatedAt(new Date());
-            cartItem.setDeleted(false);
-        }
-        cartItem.setLastModified(new Date());
-        cartItemRepository.save(cartItem);
+        // One atomic statement, so concurrent adds of the same product all count; it also
+        // bumps the cart's version and lastModified
+        cartItemRepository.addQuantity(cart.getId(), product.getId(), quantity, new Date());
 
-        cart.setLastModified(new Date());
-        cartRepository.save(cart);
-
-        return buildCartResponse(cart);
+        return indexed(email, buildCartResponse(cart));
     }
 
-    @CacheEvict(cacheNames = "carts", key = "#email")
+    @CachePut(cacheNames = "carts", key = "#email")
     public CartResponseDto updateCartItem(String email, Long itemId, Integer quantity) throws CartItemNotFoundException, UserNotFoundException {
-        User user = getUserByEmail(email);
-        Cart cart = getOrCreateCart(user);
-
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new CartItemNotFoundException("Cart item with id " + itemId + " not found"));
-
-        if (cartItem.getCart().getId() != cart.getId()) {
-            throw new CartItemNotFoundException("Cart item does not belong to user's cart");
+        if (cartWriteBehindStore.isEnabled()) {
+            return mutateLiveCart(email, cart -> cart.setQuantity(findLine(cart, itemId), quantity));
         }
 
-        cartItem.setQuantity(quantity);
-        cartItem.setLastModified(new Date());
-        cartItemRepository.save(cartItem);
+        User user = getUserByEmail(email);
+        return inCartTransaction(user, cart -> {
+            CartItem cartItem = findCartItem(cart, itemId);
+            int difference = quantity - cartItem.getQuantity();
 
-        cart.setLastModified(new Date());
-        cartRepository.save(cart);
+            cartItem.setQuantity(quantity);
+            cartItem.setLastModified(new Date());
+            cartItemRepository.save(cartItem);
+            cartRepository.addToTotals(cart.getId(), difference, difference * cartItem.getProduct().getPrice());
+
+            cart.setLastModified(new Date());
+            cartRepository.save(cart);
 
-        return buildCartResponse(cart);
+            return indexed(email, buildCartResponse(cart));
+        });
     }
 
-    @CacheEvict(cacheNames = "carts", key = "#email")
+    @CachePut(cacheNames = "carts", key = "#email")
     public CartResponseDto removeCartItem(String email, Long itemId) throws CartItemNotFoundException, UserNotFoundException {
-        User user = getUserByEmail(email);
-        Cart cart = getOrCreateCart(user);
-
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new CartItemNotFoundException("Cart item with id " + itemId + " not found"));
-
-        if (cartItem.getCart().getId() != cart.getId()) {
-            throw new CartItemNotFoundException("Cart item does not belong to user's cart");
+        if (cartWriteBehindStore.isEnabled()) {
+            return mutateLiveCart(email, cart -> cart.remove(findLine(cart, itemId)));
         }
 
-        cartItemRepository.delete(cartItem);
+        User user = getUserByEmail(email);
+        return inCartTransaction(user, cart -> {
+            CartItem cartItem = findCartItem(cart, itemId);
 
-        cart.setLastModified(new Date());
-        cartRepository.save(cart);
+            cartItemRepository.delete(cartItem);
+            cartRepository.addToTotals(cart.getId(), -cartItem.getQuantity(),
+                    -cartItem.getQuantity() * cartItem.getProduct().getPrice());
 
-        return buildCartResponse(cart);
+            cart.setLastModified(new Date());
+            cartRepository.save(cart);
+
+            return indexed(email, buildCartResponse(cart));
+        });
     }
 
-    @Transactional
-    @CacheEvict(cacheNames = "carts", key = "#email")
+    @CachePut(cacheNames = "carts", key = "#email")
     public CartResponseDto clearCart(String email) throws UserNotFoundException {
+        if (cartWriteBehindStore.isEnabled()) {
+            return mutateLiveCart(email, LiveCart::clear);
+        }
+
         User user = getUserByEmail(email);
-        Cart cart = getOrCreateCart(user);
-        cartItemRepository.deleteByCart(cart);
+        return inCartTransaction(user, cart -> {
+            cartItemRepository.deleteByCart(cart);
+            cartRepository.clearTotals(cart.getId());
 
-        cart.setLastModified(new Date());
-        cartRepository.save(cart);
+            cart.setLastModified(new Date());
+            cartRepository.save(cart);
 
-        return buildCartResponse(cart);
+            return indexed(email, buildCartResponse(cart));
+        });
+    }
+
+    private CartItem findCartItem(Cart cart, Long itemId) throws CartItemNotFoundException {
+        CartItem cartItem = cartItemRepository.findById(itemId)
+                .orElseThrow(() -> new CartItemNotFoundException("Cart item with id " + itemId + " not found"));
+        if (!cartItem.getCart().getId().equals(cart.getId())) {
+            throw new CartItemNotFoundException("Cart item does not belong to user's cart");
+        }
+        return cartItem;
     }
 
     private Cart getOrCreateCart(User user) {
@@ -150,26 +238,279 @@ public class CartService {
         cart.setCreatedAt(new Date());
         cart.setLastModified(new Date());
         cart.setDeleted(false);
-        return cartRepository.save(cart);
+        try {
+            return cartRepository.save(cart);
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent request in the meantime (uk_cart_user)
+            return cartRepository.findByUser(user).orElseThrow(() -> e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CartWork<E extends Exception> {
+        CartResponseDto run(Cart cart) throws E;
+    }
+
+    /**
+     * Runs the work on the user's cart in an optimistic lock retried transaction. A user without
+     * a cart gets one first, outside that transaction: a lost uk_cart_user race inside it would
+     * mark it rollback-only, and getOrCreateCart can only recover from the race on its own.
+     */
+    private <E extends Exception> CartResponseDto inCartTransaction(User user, CartWork<E> work) throws E {
+        Optional<CartResponseDto> response = optimisticLockRetry.inTransaction(() -> {
+            Optional<Cart> cart = cartRepository.findByUser(user);
+            return cart.isPresent() ? Optional.of(work.run(cart.get())) : Optional.empty();
+        });
+        if (response.isPresent()) {
+            return response.get();
+        }
+        getOrCreateCart(user);
+        return optimisticLockRetry.inTransaction(() -> work.run(getOrCreateCart(user)));
+    }
+
+    /**
+     * Applies an ordered list of add/update/remove operations (PATCH /cart) in one transaction.
+     * The operations are first folded into the final quantity of each product, so every line
+     * gets at most one write, sent as JDBC batches; an invalid operation rejects the whole list
+     * before anything is written. The cart update is version checked, so a concurrent change
+     * of the cart makes the whole list start over on the current lines.
+     */
+    @CachePut(cacheNames = "carts", key = "#email")
+    public CartResponseDto applyOperations(String email, List<CartOperationDto> operations)
+            throws ProductNotFoundException, CartItemNotFoundException, UserNotFoundException {
+        if (cartWriteBehindStore.isEnabled()) {
+            // The operations go straight to the database, after the pending live changes
+            cartWriteBehindStore.detach(email);
+        }
+
+        User user = getUserByEmail(email);
+        requireActiveProducts(operations);
+        // Retried on a version conflict: the operations are folded again onto the current lines
+        return inCartTransaction(user, cart -> {
+            List<CartItem> cartItems = cartItemRepository.findByCart(cart);
+
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            Map<Long, Long> productIdByItem = new HashMap<>();
+            for (CartItem cartItem : cartItems) {
+                quantities.put(cartItem.getProduct().getId(), cartItem.getQuantity());
+                productIdByItem.put(cartItem.getId(), cartItem.getProduct().getId());
+            }
+
+            for (int i = 0; i < operations.size(); i++) {
+                CartOperationDto operation = operations.get(i);
+                switch (operation.getOp()) {
+                    case ADD -> {
+                        if (operation.getProductId() == null || operation.getQuantity() == null) {
+                            throw new IllegalArgumentException("Operation " + i + " (ADD) needs productId and quantity");
+                        }
+                        quantities.merge(operation.getProductId(), operation.getQuantity(), Integer::sum);
+                    }
+                    case UPDATE -> {
+                        if (operation.getQuantity() == null) {
+                            throw new IllegalArgumentException("Operation " + i + " (UPDATE) needs a quantity");
+                        }
+                        quantities.put(lineOf(operation, i, quantities, productIdByItem), operation.getQuantity());
+                    }
+                    case REMOVE -> quantities.remove(lineOf(operation, i, quantities, productIdByItem));
+                }
+            }
+
+            Map<Long, Integer> added = new LinkedHashMap<>(quantities);
+            Map<Long, Integer> updated = new HashMap<>();
+            List<Long> removed = new ArrayList<>();
+            for (CartItem cartItem : cartItems) {
+                Integer quantity = added.remove(cartItem.getProduct().getId());
+                if (quantity == null) {
+                    removed.add(cartItem.getId());
+                } else if (!quantity.equals(cartItem.getQuantity())) {
+                    updated.put(cartItem.getId(), quantity);
+                }
+            }
+
+            Date now = new Date();
+            cart.setLastModified(now);
+            cartRepository.save(cart);
+            cartItemRepository.writeBatch(cart.getId(), added, updated, removed, now);
+
+            return indexed(email, buildCartResponse(cart));
+        });
+    }
+
+    /**
+     * Adds the lines of a guest cart (product id -> quantity) to the user's cart at login.
+     * Products no longer for sale are skipped; the rest is one batched upsert that adds to the
+     * lines the user's cart already has.
+     */
+    @CachePut(cacheNames = "carts", key = "#email")
+    public CartResponseDto mergeGuestCart(String email, Map<Long, Integer> quantities) throws UserNotFoundException {
+        if (cartWriteBehindStore.isEnabled()) {
+            // The merge goes straight to the database, after the pending live changes
+            cartWriteBehindStore.detach(email);
+        }
+
+        User user = getUserByEmail(email);
+        // The soft delete filter leaves deleted products out
+        Set<Long> activeProductIds = productRepository.findAllById(quantities.keySet()).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Integer> added = new LinkedHashMap<>(quantities);
+        added.keySet().retainAll(activeProductIds);
+
+        return inCartTransaction(user, cart -> {
+            if (!added.isEmpty()) {
+                Date now = new Date();
+                cart.setLastModified(now);
+                cartRepository.save(cart);
+                cartItemRepository.writeBatch(cart.getId(), added, Map.of(), List.of(), now);
+            }
+            return indexed(email, buildCartResponse(cart));
+        });
+    }
+
+    private void requireActiveProducts(List<CartOperationDto> operations) throws ProductNotFoundException {
+        Set<Long> productIds = operations.stream()
+                .filter(operation -> operation.getOp() == CartOperationType.ADD && operation.getProductId() != null)
+                .map(CartOperationDto::getProductId)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return;
+        }
+        // The soft delete filter leaves deleted products out
+        Set<Long> found = productRepository.findAllById(productIds).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        for (Long productId : productIds) {
+            if (!found.contains(productId)) {
+                throw new ProductNotFoundException("Product with id " + productId + " not found");
+            }
+        }
+    }
+
+    /**
+     * The product id of the cart line an UPDATE or REMOVE targets.
+     */
+    private Long lineOf(CartOperationDto operation, int index, Map<Long, Integer> quantities,
+                        Map<Long, Long> productIdByItem) throws CartItemNotFoundException {
+        if (operation.getItemId() != null) {
+            Long productId = productIdByItem.get(operation.getItemId());
+            if (productId == null || !quantities.containsKey(productId)) {
+                throw new CartItemNotFoundException("Cart item with id " + operation.getItemId() + " not found");
+            }
+            return productId;
+        }
+        if (operation.getProductId() == null) {
+            throw new IllegalArgumentException("Operation " + index + " (" + operation.getOp() + ") needs itemId or productId");
+        }
+        if (!quantities.containsKey(operation.getProductId())) {
+            throw new CartItemNotFoundException("Product with id " + operation.getProductId() + " is not in the cart");
+        }
+        return operation.getProductId();
+    }
+
+    private Product findActiveProduct(Long productId) throws ProductNotFoundException {
+        return productRepository.findById(productId)
+                .filter(found -> !found.isDeleted())
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + productId + " not found"));
+    }
+
+    private CartItem newCartItem(Cart cart, Product product, Integer quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setCreatedAt(new Date());
+        cartItem.setLastModified(new Date());
+        cartItem.setDeleted(false);
+        return cartItem;
+    }
+
+    @FunctionalInterface
+    private interface LiveCartMutation<E extends Exception> {
+        void apply(LiveCart cart) throws E;
+    }
+
+    private LiveCart liveCart(String email) throws UserNotFoundException {
+        LiveCart cart = cartWriteBehindStore.get(email);
+        if (cart == null) {
+            Cart loaded = getOrCreateCart(getUserByEmail(email));
+            cart = cartWriteBehindStore.register(email, new LiveCart(loaded.getId(), cartItemRepository.findByCart(loaded)));
+        }
+        return cart;
+    }
+
+    private <E extends Exception> CartResponseDto mutateLiveCart(String email, LiveCartMutation<E> mutation) throws E, UserNotFoundException {
+        return mutateLiveCart(email, null, mutation);
+    }
+
+    /**
+     * With a product id, first waits for a flush writing the DELETE of that product's line
+     * (adds may insert a new row for the product).
+     */
+    private <E extends Exception> CartResponseDto mutateLiveCart(String email, Long productId, LiveCartMutation<E> mutation) throws E, UserNotFoundException {
+        while (true) {
+            LiveCart cart = liveCart(email);
+            synchronized (cart) {
+                if (productId != null) {
+                    cart.awaitDeleteOf(productId);
+                }
+                // A cart detached by checkout or idle eviction is reloaded from the database
+                if (!cart.isDetached()) {
+                    mutation.apply(cart);
+                    cart.touch();
+                    return indexed(email, buildCartResponse(cart));
+                }
+            }
+        }
+    }
+
+    private LiveCart.Line findLine(LiveCart cart, Long itemId) throws CartItemNotFoundException {
+        LiveCart.Line line = cart.lineOfItem(itemId);
+        if (line == null) {
+            throw new CartItemNotFoundException("Cart item with id " + itemId + " not found");
+        }
+        return line;
+    }
+
+    // Recorded before @Cacheable/@CachePut store the cart
+    private CartResponseDto indexed(String email, CartResponseDto cart) {
+        cartCacheIndex.cartCached(email, cart);
+        return cart;
     }
 
     private CartResponseDto buildCartResponse(Cart cart) {
-        List<CartItem> cartItems = cartItemRepository.findByCart(cart);
-        
-        List<CartItemResponseDto> itemDtos = cartItems.stream()
+        List<CartItemResponseDto> itemDtos = cartItemRepository.findWithProductByCart(cart).stream()
                 .map(CartItemResponseDto::from)
                 .collect(Collectors.toList());
+        return buildCartResponse(cart.getId(), itemDtos);
+    }
 
-        Integer totalItems = cartItems.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+    private CartResponseDto buildCartResponse(LiveCart cart) {
+        List<CartItemResponseDto> itemDtos = new ArrayList<>();
+        for (LiveCart.Line line : cart.lines()) {
+            // Products are usually served by the second-level cache
+            Optional<Product> product = productRepository.findById(line.getProductId())
+                    .filter(found -> !found.isDeleted());
+            if (product.isEmpty()) {
+                // Deleting the product already removed its cart rows
+                cart.forget(line);
+                continue;
+            }
+            itemDtos.add(CartItemResponseDto.of(line.getItemId(), product.get(), line.getQuantity()));
+        }
+        return buildCartResponse(cart.getCartId(), itemDtos);
+    }
 
-        Double totalAmount = cartItems.stream()
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-                .sum();
+    private CartResponseDto buildCartResponse(Long cartId, List<CartItemResponseDto> itemDtos) {
+        // One pass over the lines for both totals
+        int totalItems = 0;
+        double totalAmount = 0.0;
+        for (CartItemResponseDto itemDto : itemDtos) {
+            totalItems += itemDto.getQuantity();
+            totalAmount += itemDto.getSubtotal();
+        }
 
         CartResponseDto response = new CartResponseDto();
-        response.setCartId(cart.getId());
+        response.setCartId(cartId);
         response.setItems(itemDtos);
         response.setTotalItems(totalItems);
         response.setTotalAmount(totalAmount);
@@ -0,0 +1,250 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CategoryStatsView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory registry of categories keyed by name.
+ *
+ * Loaded at startup and refreshed periodically, so resolving the category of a product
+ * write is normally a map lookup instead of a DB round trip. Unknown names are created
+ * with insert-ignore semantics: the insert runs in its own transaction against the
+ * uk_category_name unique index, and a concurrent creator losing the race simply re-reads
+ * the winner's row instead of producing a duplicate.
+ *
+ * Callers receive a detached copy of the category; it is only used as a foreign key target
+ * and for its name/description, never modified.
+ *
+ * The registry also holds the per-category product stats, so GET /categories?withStats=true
+ * is served without touching the DB. CategoryStatsService pushes fresh values after each
+ * product write.
+ */
+@Service
+public class CategoryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate requiresNewTransaction;
+
+    private final Map<String, CategoryEntry> categoriesByName = new ConcurrentHashMap<>();
+
+    public CategoryRegistry(CategoryRepository categoryRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCategories() {
+        refresh();
+        logger.info("Category registry loaded with {} categories", categoriesByName.size());
+    }
+
+    /**
+     * Picks up categories created or changed by other application instances.
+     */
+    @Scheduled(fixedDelayString = "${catalog.category-registry.refresh-ms:300000}",
+            initialDelayString = "${catalog.category-registry.refresh-ms:300000}")
+    public void refresh() {
+        Map<String, CategoryEntry> loaded = categoryRepository.findAll().stream()
+                .filter(category -> category.getName() != null)
+                .collect(Collectors.toMap(Category::getName, CategoryEntry::of, (first, second) -> first));
+        categoriesByName.keySet().retainAll(loaded.keySet());
+        categoriesByName.putAll(loaded);
+    }
+
+    /**
+     * Returns the category with the given name, creating it if it does not exist yet.
+     */
+    public Category getOrCreate(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new NullPointerException("Category name cannot be null or empty");
+        }
+        String categoryName = name.trim();
+
+        CategoryEntry cached = categoriesByName.get(categoryName);
+        if (cached != null) {
+            return cached.toCategory();
+        }
+
+        // Read inside the caller's transaction so rows it created itself are visible.
+        // Only remember them once committed, otherwise a rollback would leave a dangling id.
+        Optional<Category> existing = categoryRepository.findByName(categoryName);
+        if (existing.isPresent()) {
+            registerAfterCommit(existing.get());
+            return existing.get();
+        }
+
+        CategoryEntry created = insertIgnoringDuplicate(categoryName);
+        categoriesByName.put(categoryName, created);
+        return created.toCategory();
+    }
+
+    /**
+     * All known categories ordered by id.
+     */
+    public List<Category> getAllCategories() {
+        return categoriesByName.values().stream()
+                .sorted(Comparator.comparing(CategoryEntry::id))
+                .map(CategoryEntry::toCategory)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Publishes the stats a product write just produced. Applied immediately so the writer
+     * sees its own change; if the transaction rolls back, or the category is not registered
+     * yet, the entry is re-read from the DB once the transaction has completed.
+     */
+    public void applyStats(CategoryStatsView stats) {
+        CategoryEntry updated = categoriesByName.computeIfPresent(stats.getName(),
+                (name, entry) -> entry.withStats(stats));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (updated == null) {
+                reload(stats.getId(), stats.getName());
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (updated == null || status == STATUS_ROLLED_BACK) {
+                    reload(stats.getId(), stats.getName());
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces the entry of a renamed category once the rename has committed.
+     */
+    public void renamed(String previousName, Category category) {
+        CategoryEntry entry = CategoryEntry.of(category);
+        afterCommit(() -> {
+            categoriesByName.remove(previousName);
+            categoriesByName.put(entry.name(), entry);
+        });
+    }
+
+    /**
+     * Drops a soft-deleted category once the delete has committed.
+     */
+    public void deleted(String name) {
+        afterCommit(() -> categoriesByName.remove(name));
+    }
+
+    public void evict(String name) {
+        if (name != null) {
+            categoriesByName.remove(name.trim());
+        }
+    }
+
+    private CategoryEntry insertIgnoringDuplicate(String categoryName) {
+        try {
+            return requiresNewTransaction.execute(status -> {
+                Category category = new Category();
+                category.setName(categoryName);
+                category.setCreatedAt(new Date());
+                category.setLastModified(new Date());
+                category.setDeleted(false);
+                logger.info("Creating category: {}", categoryName);
+                return CategoryEntry.of(categoryRepository.saveAndFlush(category));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Either created concurrently, or a soft-deleted category with this name, which is restored
+            logger.info("Category {} already exists, using the existing row", categoryName);
+            return requiresNewTransaction.execute(status -> {
+                categoryRepository.restoreDeleted(categoryName, new Date());
+                return categoryRepository.findByName(categoryName)
+                        .map(CategoryEntry::of)
+                        .orElseThrow(() -> e);
+            });
+        }
+    }
+
+    // Runs after completion of the caller's transaction, hence the separate transaction
+    private void reload(Long id, String name) {
+        Optional<Category> category = requiresNewTransaction.execute(status -> categoryRepository.findById(id)
+                .filter(found -> !found.isDeleted()));
+        if (category != null && category.isPresent()) {
+            categoriesByName.put(name, CategoryEntry.of(category.get()));
+        } else {
+            categoriesByName.remove(name);
+        }
+    }
+
+    private void registerAfterCommit(Category category) {
+        CategoryEntry entry = CategoryEntry.of(category);
+        afterCommit(() -> categoriesByName.put(entry.name(), entry));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record CategoryEntry(Long id, String name, String description, Date createdAt, Date lastModified,
+                                 long productCount, double priceTotal, Double minPrice, Double maxPrice,
+                                 Date statsLastUpdated) {
+
+        static CategoryEntry of(Category category) {
+            return new CategoryEntry(category.getId(), category.getName(), category.getDescription(),
+                    category.getCreatedAt(), category.getLastModified(),
+                    category.getProductCount(), category.getPriceTotal(), category.getMinPrice(),
+                    category.getMaxPrice(), category.getStatsLastUpdated());
+        }
+
+        CategoryEntry withStats(CategoryStatsView stats) {
+            return new CategoryEntry(id, name, description, createdAt, lastModified,
+                    stats.getProductCount() != null ? stats.getProductCount() : 0L,
+                    stats.getPriceTotal() != null ? stats.getPriceTotal() : 0.0,
+                    stats.getMinPrice(), stats.getMaxPrice(), stats.getStatsLastUpdated());
+        }
+
+        Category toCategory() {
+            Category category = new Category();
+            category.setId(id);
+            category.setName(name);
+            category.setDescription(description);
+            category.setCreatedAt(createdAt);
+            category.setLastModified(lastModified);
+            category.setDeleted(false);
+            category.setProductCount(productCount);
+            category.setPriceTotal(priceTotal);
+            category.setMinPrice(minPrice);
+            category.setMaxPrice(maxPrice);
+            category.setStatsLastUpdated(statsLastUpdated);
+            return category;
+        }
+    }
+}
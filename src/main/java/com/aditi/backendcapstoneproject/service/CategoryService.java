@@ -0,0 +1,97 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.dto.CategoryRequestDto;
+import com.aditi.backendcapstoneproject.exception.CategoryNotFoundException;
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+/**
+ * Admin changes to categories. Renaming a category also rewrites the denormalized
+ * category_name of its products in the same transaction, so category filters and
+ * product responses never see the old name once the rename has committed.
+ */
+@Service
+public class CategoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final CatalogVersionTracker catalogVersionTracker;
+
+    public CategoryService(CategoryRepository categoryRepository,
+                           ProductRepository productRepository,
+                           CategoryRegistry categoryRegistry,
+                           CatalogVersionTracker catalogVersionTracker) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.catalogVersionTracker = catalogVersionTracker;
+    }
+
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsById", allEntries = true),
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public Category updateCategory(String name, CategoryRequestDto categoryRequestDto) throws CategoryNotFoundException {
+        Category category = categoryRepository.findByName(name)
+                .orElseThrow(() -> new CategoryNotFoundException("Category " + name + " not found"));
+        String previousName = category.getName();
+        Date now = new Date();
+
+        if (categoryRequestDto.getDescription() != null) {
+            category.setDescription(categoryRequestDto.getDescription());
+        }
+        String newName = categoryRequestDto.getName() != null ? categoryRequestDto.getName().trim() : null;
+        boolean renamed = newName != null && !newName.isEmpty() && !newName.equals(previousName);
+        if (renamed) {
+            if (categoryRepository.findByName(newName).isPresent()) {
+                throw new IllegalArgumentException("Category " + newName + " already exists");
+            }
+            category.setName(newName);
+        }
+        category.setLastModified(now);
+        Category saved = categoryRepository.save(category);
+
+        if (renamed) {
+            int updated = productRepository.updateCategoryName(saved.getId(), newName, now);
+            logger.info("Renamed category {} to {}, updated {} products", previousName, newName, updated);
+        }
+        catalogVersionTracker.catalogChanged();
+        categoryRegistry.renamed(previousName, saved);
+        return saved;
+    }
+
+    /**
+     * Soft-deletes an empty category. Products have to be moved or deleted first.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    public void deleteCategory(String name) throws CategoryNotFoundException {
+        Category category = categoryRepository.findByName(name)
+                .orElseThrow(() -> new CategoryNotFoundException("Category " + name + " not found"));
+        if (productRepository.existsByCategoryId(category.getId())) {
+            throw new IllegalArgumentException("Category " + name + " still has products");
+        }
+        category.setDeleted(true);
+        category.setLastModified(new Date());
+        categoryRepository.save(category);
+        categoryRegistry.deleted(category.getName());
+        catalogVersionTracker.catalogChanged();
+        logger.info("Deleted category {}", name);
+    }
+}
@@ -0,0 +1,122 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Maintains the per-category product summary (count, min/max/avg price, last updated)
+ * stored on the category row.
+ *
+ * Every product write applies its delta with a single atomic UPDATE in the writer's
+ * transaction, so concurrent writes never lose an increment and no aggregation over the
+ * category's products is needed to serve the stats. Only when a removed price was the
+ * category's min or max is that value re-read from the remaining products.
+ * The resulting row is then pushed to the CategoryRegistry.
+ */
+@Service
+public class CategoryStatsService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+
+    public CategoryStatsService(CategoryRepository categoryRepository, CategoryRegistry categoryRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    @Transactional
+    public void productAdded(Product product) {
+        Long categoryId = categoryId(product.getCategory());
+        if (categoryId == null) {
+            return;
+        }
+        categoryRepository.addProductToStats(categoryId, price(product.getPrice()), new Date());
+        publish(categoryId);
+    }
+
+    /**
+     * Removes a soft-deleted product (already flagged and flushed) from its category.
+     */
+    @Transactional
+    public void productRemoved(Product product) {
+        Long categoryId = categoryId(product.getCategory());
+        if (categoryId == null) {
+            return;
+        }
+        categoryRepository.removeProductFromStats(categoryId, price(product.getPrice()), new Date());
+        publish(categoryId);
+    }
+
+    /**
+     * Applies a batch of products inserted into one category, e.g. by the bulk import,
+     * given the count, sum, min and max of their prices.
+     */
+    @Transactional
+    public void productsAdded(Long categoryId, long count, double total, double minPrice, double maxPrice) {
+        if (categoryId == null || count == 0) {
+            return;
+        }
+        categoryRepository.addProductsToStats(categoryId, count, total, minPrice, maxPrice, new Date());
+        publish(categoryId);
+    }
+
+    /**
+     * Applies an update of a product that previously belonged to previousCategory with
+     * previousPrice. Moving the product between categories updates both of them.
+     */
+    @Transactional
+    public void productUpdated(Category previousCategory, Double previousPrice, Product product) {
+        Long previousCategoryId = categoryId(previousCategory);
+        Long categoryId = categoryId(product.getCategory());
+        Date now = new Date();
+
+        if (previousCategoryId != null && previousCategoryId.equals(categoryId)) {
+            if (price(previousPrice) == price(product.getPrice())) {
+                categoryRepository.touchStats(categoryId, now);
+            } else {
+                categoryRepository.removeProductFromStats(categoryId, price(previousPrice), now);
+                categoryRepository.addProductToStats(categoryId, price(product.getPrice()), now);
+            }
+            publish(categoryId);
+            return;
+        }
+
+        if (previousCategoryId != null) {
+            categoryRepository.removeProductFromStats(previousCategoryId, price(previousPrice), now);
+            publish(previousCategoryId);
+        }
+        if (categoryId != null) {
+            categoryRepository.addProductToStats(categoryId, price(product.getPrice()), now);
+            publish(categoryId);
+        }
+    }
+
+    /**
+     * Rebuilds the stats of a category from its products. Only for set-based bulk updates,
+     * where the individual price changes are not known.
+     */
+    @Transactional
+    public void recompute(Long categoryId) {
+        categoryRepository.recomputeStats(categoryId, new Date());
+        publish(categoryId);
+    }
+
+    private void publish(Long categoryId) {
+        categoryRepository.findStatsById(categoryId).ifPresent(categoryRegistry::applyStats);
+    }
+
+    private static Long categoryId(Category category) {
+        return category != null ? category.getId() : null;
+    }
+
+    // A missing price counts as 0.0, the same value updateProduct stores for it
+    private static double price(Double price) {
+        return Objects.requireNonNullElse(price, 0.0);
+    }
+}
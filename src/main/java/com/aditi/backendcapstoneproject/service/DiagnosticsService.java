@@ -0,0 +1,103 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.dto.CacheRegionStatsDto;
+import com.aditi.backendcapstoneproject.dto.ConnectionPoolStatsDto;
+import com.aditi.backendcapstoneproject.dto.DiagnosticsResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the runtime state shown by GET /admin/diagnostics.
+ *
+ * Connection pool figures come from the hikaricp.* meters, which every Hikari pool (primary and,
+ * when enabled, the replicas) publishes under its pool name. Cache figures come from the
+ * Hibernate statistics of the second-level cache regions.
+ */
+@Service
+public class DiagnosticsService {
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public DiagnosticsService(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public DiagnosticsResponseDto getDiagnostics() {
+        DiagnosticsResponseDto diagnostics = new DiagnosticsResponseDto();
+        diagnostics.setConnectionPools(getConnectionPoolStats());
+        diagnostics.setCacheRegions(getCacheRegionStats());
+        return diagnostics;
+    }
+
+    public List<ConnectionPoolStatsDto> getConnectionPoolStats() {
+        return meterRegistry.find("hikaricp.connections").gauges().stream()
+                .map(gauge -> gauge.getId().getTag("pool"))
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .map(this::poolStats)
+                .toList();
+    }
+
+    public List<CacheRegionStatsDto> getCacheRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().forEach(name -> {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                return;
+            }
+            CacheRegionStatsDto dto = new CacheRegionStatsDto();
+            dto.setRegion(name);
+            dto.setHits(region.getHitCount());
+            dto.setMisses(region.getMissCount());
+            dto.setPuts(region.getPutCount());
+            long lookups = region.getHitCount() + region.getMissCount();
+            dto.setHitRatio(lookups > 0 ? (double) region.getHitCount() / lookups : null);
+            regions.add(dto);
+        });
+        return regions;
+    }
+
+    private ConnectionPoolStatsDto poolStats(String pool) {
+        ConnectionPoolStatsDto dto = new ConnectionPoolStatsDto();
+        dto.setPool(pool);
+        dto.setTotal(gauge("hikaricp.connections", pool));
+        dto.setActive(gauge("hikaricp.connections.active", pool));
+        dto.setIdle(gauge("hikaricp.connections.idle", pool));
+        dto.setPending(gauge("hikaricp.connections.pending", pool));
+        dto.setMaximum(gauge("hikaricp.connections.max", pool));
+        dto.setMinimumIdle(gauge("hikaricp.connections.min", pool));
+
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", pool).counter();
+        dto.setTimeouts(timeouts != null ? (long) timeouts.count() : 0);
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        if (acquire != null) {
+            dto.setAcquired(acquire.count());
+            dto.setAcquireMeanMillis(acquire.mean(TimeUnit.MILLISECONDS));
+            dto.setAcquireMaxMillis(acquire.max(TimeUnit.MILLISECONDS));
+        }
+        return dto;
+    }
+
+    private long gauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? (long) gauge.value() : 0;
+    }
+}
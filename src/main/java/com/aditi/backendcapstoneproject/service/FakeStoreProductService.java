@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service("fakeStoreProductService")
@@ -90,6 +91,11 @@ public class FakeStoreProductService implements ProductService{
         throw new UnsupportedOperationException("Partial update is not supported for FakeStoreProductService");
     }
 
+    @Override
+    public void deleteProduct(Long id) {
+        throw new UnsupportedOperationException("Delete is not supported for FakeStoreProductService");
+    }
+
     @Override
     public List<Product> searchProducts(String keyword) {
         List<Product> allProducts = getAllProducts();
@@ -124,6 +130,15 @@ public class FakeStoreProductService implements ProductService{
         return getAllProducts(pageable);
     }
 
+    @Override
+    public List<Product> getProductsByCategoryAfter(String categoryName, long afterId, int limit) {
+        return getProductsByCategory(categoryName).stream()
+                .filter(product -> product.getId() != null && product.getId() > afterId)
+                .sorted(Comparator.comparing(Product::getId))
+                .limit(limit)
+                .toList();
+    }
+
     private Page<Product> paginateList(List<Product> products, Pageable pageable) {
         if (pageable == null || pageable.isUnpaged()) {
             return new PageImpl<>(products);
@@ -0,0 +1,158 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.GuestCartStore;
+import com.aditi.backendcapstoneproject.dto.CartItemResponseDto;
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.exception.CartItemNotFoundException;
+import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
+import com.aditi.backendcapstoneproject.exception.UserNotFoundException;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carts of visitors who have not logged in. A guest cart lives in GuestCartStore only and is
+ * addressed by a cart token signed by JwtService, so it costs no database write; at login
+ * AuthenticationService hands it to mergeIntoUserCart, which adds its lines to the user's cart.
+ *
+ * Guest cart lines are keyed by product id: a guest cart has no cart_item rows, so the items
+ * in its responses carry no id.
+ */
+@Service
+public class GuestCartService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuestCartService.class);
+
+    private final GuestCartStore guestCartStore;
+    private final JwtService jwtService;
+    private final ProductRepository productRepository;
+    private final CartService cartService;
+
+    public GuestCartService(GuestCartStore guestCartStore,
+                            JwtService jwtService,
+                            ProductRepository productRepository,
+                            CartService cartService) {
+        this.guestCartStore = guestCartStore;
+        this.jwtService = jwtService;
+        this.productRepository = productRepository;
+        this.cartService = cartService;
+    }
+
+    /**
+     * Returns the token if it names a live guest cart; otherwise (no token, a forged one or an
+     * expired cart) starts a new guest cart and returns its token.
+     */
+    public String resolveToken(String token) {
+        if (token != null && guestCartStore.exists(jwtService.extractGuestCartId(token))) {
+            return token;
+        }
+        return jwtService.generateGuestCartToken(guestCartStore.create());
+    }
+
+    /**
+     * The guest cart of the token; empty if the token names no live guest cart.
+     */
+    public CartResponseDto getCart(String token) {
+        Map<Long, Integer> quantities = guestCartStore.get(cartIdOf(token));
+        return buildCartResponse(quantities != null ? quantities : Map.of());
+    }
+
+    /**
+     * Adds the product to the guest cart of a token returned by resolveToken.
+     */
+    public CartResponseDto addItem(String token, Long productId, Integer quantity) throws ProductNotFoundException {
+        productRepository.findById(productId)
+                .filter(found -> !found.isDeleted())
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + productId + " not found"));
+
+        String cartId = cartIdOf(token);
+        Map<Long, Integer> quantities = guestCartStore.update(cartId,
+                lines -> lines.merge(productId, quantity, Integer::sum));
+        if (quantities == null) {
+            // Expired since the token was resolved
+            quantities = Map.of(productId, quantity);
+            guestCartStore.restore(cartId, quantities);
+        }
+        return buildCartResponse(quantities);
+    }
+
+    public CartResponseDto updateItem(String token, Long productId, Integer quantity) throws CartItemNotFoundException {
+        String cartId = requireLine(token, productId);
+        Map<Long, Integer> quantities = guestCartStore.update(cartId, lines -> lines.replace(productId, quantity));
+        return buildCartResponse(quantities != null ? quantities : Map.of());
+    }
+
+    public CartResponseDto removeItem(String token, Long productId) throws CartItemNotFoundException {
+        String cartId = requireLine(token, productId);
+        Map<Long, Integer> quantities = guestCartStore.update(cartId, lines -> lines.remove(productId));
+        return buildCartResponse(quantities != null ? quantities : Map.of());
+    }
+
+    /**
+     * Moves the guest cart of the token into the user's cart, in one batched upsert. Does
+     * nothing without a live guest cart. A failed merge does not fail the login: the guest cart
+     * is put back, so the next login merges it.
+     */
+    public void mergeIntoUserCart(String token, String email) {
+        String cartId = cartIdOf(token);
+        Map<Long, Integer> quantities = guestCartStore.remove(cartId);
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+        try {
+            cartService.mergeGuestCart(email, quantities);
+            logger.info("Merged guest cart with {} products into the cart of {}", quantities.size(), email);
+        } catch (UserNotFoundException | RuntimeException e) {
+            guestCartStore.restore(cartId, quantities);
+            logger.warn("Merging the guest cart into the cart of {} failed, kept the guest cart: {}", email, e.getMessage());
+        }
+    }
+
+    private String cartIdOf(String token) {
+        return token != null ? jwtService.extractGuestCartId(token) : null;
+    }
+
+    private String requireLine(String token, Long productId) throws CartItemNotFoundException {
+        String cartId = cartIdOf(token);
+        Map<Long, Integer> quantities = guestCartStore.get(cartId);
+        if (quantities == null || !quantities.containsKey(productId)) {
+            throw new CartItemNotFoundException("Product with id " + productId + " is not in the cart");
+        }
+        return cartId;
+    }
+
+    private CartResponseDto buildCartResponse(Map<Long, Integer> quantities) {
+        List<CartItemResponseDto> itemDtos = new ArrayList<>();
+        int totalItems = 0;
+        double totalAmount = 0.0;
+        if (!quantities.isEmpty()) {
+            // The soft delete filter leaves deleted products out
+            Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                Product product = products.get(line.getKey());
+                if (product == null) {
+                    continue;
+                }
+                CartItemResponseDto itemDto = CartItemResponseDto.of(null, product, line.getValue());
+                itemDtos.add(itemDto);
+                totalItems += itemDto.getQuantity();
+                totalAmount += itemDto.getSubtotal();
+            }
+        }
+
+        CartResponseDto response = new CartResponseDto();
+        response.setItems(itemDtos);
+        response.setTotalItems(totalItems);
+        response.setTotalAmount(totalAmount);
+        return response;
+    }
+}
@@ -1,6 +1,7 @@
 package com.aditi.backendcapstoneproject.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -17,6 +18,9 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    private static final String TOKEN_TYPE_CLAIM = "type";
+    private static final String GUEST_CART_TOKEN_TYPE = "guest-cart";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -52,6 +56,33 @@ public class JwtService {
         return (email.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    /**
+     * A signed token naming a guest cart. It has no expiry of its own; the cart expires in
+     * GuestCartStore when it is not used.
+     */
+    public String generateGuestCartToken(String cartId) {
+        return Jwts
+                .builder()
+                .claim(TOKEN_TYPE_CLAIM, GUEST_CART_TOKEN_TYPE)
+                .subject(cartId)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .signWith(getSignInKey())
+                .compact();
+    }
+
+    /**
+     * The cart id of a guest cart token, or null if the token is not a guest cart token
+     * signed by this service (a login token included).
+     */
+    public String extractGuestCartId(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return GUEST_CART_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM)) ? claims.getSubject() : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -1,15 +1,21 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
 import com.aditi.backendcapstoneproject.dto.OrderItemResponseDto;
 import com.aditi.backendcapstoneproject.dto.OrderResponseDto;
 import com.aditi.backendcapstoneproject.enums.OrderStatus;
 import com.aditi.backendcapstoneproject.exception.EmptyCartException;
 import com.aditi.backendcapstoneproject.exception.OrderNotFoundException;
 import com.aditi.backendcapstoneproject.exception.UserNotFoundException;
+import com.aditi.backendcapstoneproject.exception.VersionConflictException;
 import com.aditi.backendcapstoneproject.model.*;
 import com.aditi.backendcapstoneproject.repository.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,8 +23,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,17 +39,30 @@ public class OrderService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
+    private final CartWriteBehindStore cartWriteBehindStore;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final CartCacheIndex cartCacheIndex;
+
+    // Checkout copies the cart lines in SQL (createOrderSetBased) instead of loading them
+    @Value("${catalog.checkout.set-based:true}")
+    private boolean setBasedCheckout = true;
 
     public OrderService(OrderRepository orderRepository,
                         OrderItemRepository orderItemRepository,
                         CartRepository cartRepository,
                         CartItemRepository cartItemRepository,
-                        UserRepository userRepository) {
+                        UserRepository userRepository,
+                        CartWriteBehindStore cartWriteBehindStore,
+                        OptimisticLockRetry optimisticLockRetry,
+                        CartCacheIndex cartCacheIndex) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.userRepository = userRepository;
+        this.cartWriteBehindStore = cartWriteBehindStore;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.cartCacheIndex = cartCacheIndex;
     }
 
     private User getUserByEmail(String email) throws UserNotFoundException {
@@ -49,39 +70,62 @@ public class OrderService {
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
     }
 
-    @Transactional
-    @CacheEvict(cacheNames = {"orders", "orderById"}, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = {"orders", "orderById"}, allEntries = true),
+            @CacheEvict(cacheNames = "carts", key = "#email")
+    })
     public OrderResponseDto createOrder(String email, String deliveryAddress) throws EmptyCartException, UserNotFoundException {
         logger.info("Creating order for user: {}", email);
+
+        if (cartWriteBehindStore.isEnabled()) {
+            // Writes the pending cart changes before the order reads the cart rows, and drops
+            // the live cart because the order empties it
+            cartWriteBehindStore.detach(email);
+        }
         
         User user = getUserByEmail(email);
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> {
-                    logger.warn("Order creation failed: Cart is empty for user: {}", email);
-                    return new EmptyCartException("Cart is empty");
-                });
+        // The order item ids are reserved before the checkout transaction opens: reserved inside
+        // it, they would take a second pooled connection while the transaction holds the first
+        int reservedIds = setBasedCheckout ? (int) cartItemRepository.countByCartUser(user) : 0;
+        long firstId = reservedIds > 0 ? orderItemRepository.reserveIds(reservedIds) : 0;
+        // The cart update at the end is version checked: an item added to the cart while the
+        // order was being built fails it, and the order is built again with that item
+        OrderResponseDto created = optimisticLockRetry.inTransaction(() -> {
+            Cart cart = cartRepository.findByUser(user)
+                    .orElseThrow(() -> {
+                        logger.warn("Order creation failed: Cart is empty for user: {}", email);
+                        return new EmptyCartException("Cart is empty");
+                    });
+
+            OrderResponseDto order = setBasedCheckout
+                    ? createOrderSetBased(user, cart, deliveryAddress, firstId, reservedIds)
+                    : createOrderFromCartItems(user, cart, deliveryAddress);
+
+            logger.info("Order created successfully with ID: {} and total amount: {} for user: {}",
+                    order.getOrderId(), order.getTotalAmount(), email);
+            return order;
+        });
+        // The cached cart is evicted on return
+        cartCacheIndex.cartEvicted(email);
+        return created;
+    }
 
+    /**
+     * Builds the order items from the cart items loaded into memory and saves the order once
+     * with its items, as JDBC batches.
+     */
+    private OrderResponseDto createOrderFromCartItems(User user, Cart cart, String deliveryAddress) throws EmptyCartException {
         List<CartItem> cartItems = cartItemRepository.findByCart(cart);
         if (cartItems.isEmpty()) {
-            logger.warn("Order creation failed: Cart has no items for user: {}", email);
+            logger.warn("Order creation failed: Cart has no items for user: {}", user.getEmail());
             throw new EmptyCartException("Cart is empty");
         }
 
-        logger.debug("Creating order with {} items from cart for user: {}", cartItems.size(), email);
-
-        Order order = new Order();
-        order.setUser(user);
-        order.setOrderDate(new Date());
-        order.setStatus(OrderStatus.PENDING);
-        order.setDeliveryAddress(deliveryAddress);
-        order.setCreatedAt(new Date());
-        order.setLastModified(new Date());
-        order.setDeleted(false);
-
-        order = orderRepository.save(order);
-        logger.debug("Order created with ID: {}", order.getId());
+        logger.debug("Creating order with {} items from cart for user: {}", cartItems.size(), user.getEmail());
 
+        Order order = newOrder(user, deliveryAddress);
         double totalAmount = 0.0;
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
 
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
@@ -94,24 +138,84 @@ public class OrderService {
             orderItem.setDeleted(false);
 
             totalAmount += orderItem.getPrice() * orderItem.getQuantity();
-            orderItemRepository.save(orderItem);
+            orderItems.add(orderItem);
         }
 
+        // Saved once with its items (cascade): the ids come from the pooled generator, so
+        // the order and item INSERTs go out as JDBC batches at the flush below
         order.setTotalAmount(totalAmount);
-        order.setLastModified(new Date());
-        orderRepository.save(order);
+        order.setOrderItems(orderItems);
+        order = orderRepository.save(order);
+        logger.debug("Order created with ID: {}", order.getId());
 
         cartItemRepository.deleteByCart(cart);
-        cart.setLastModified(new Date());
-        cartRepository.save(cart);
+        emptyCart(cart);
+
+        return buildOrderResponse(order, orderItems);
+    }
+
+    /**
+     * Copies the cart lines into order_item with one INSERT ... SELECT joined to the product
+     * prices and sums the total with one aggregate UPDATE, without loading the cart items.
+     * Writes the same rows as createOrderFromCartItems.
+     */
+    private OrderResponseDto createOrderSetBased(User user, Cart cart, String deliveryAddress,
+                                                 long firstId, int reservedIds) throws EmptyCartException {
+        int lines = (int) cartItemRepository.countByCart(cart);
+        if (lines == 0) {
+            logger.warn("Order creation failed: Cart has no items for user: {}", user.getEmail());
+            throw new EmptyCartException("Cart is empty");
+        }
+        if (lines > reservedIds) {
+            // Lines added since the ids were reserved, which are left unused
+            logger.debug("Cart of user {} outgrew the {} reserved order item ids", user.getEmail(), reservedIds);
+            return createOrderFromCartItems(user, cart, deliveryAddress);
+        }
 
-        logger.info("Order created successfully with ID: {} and total amount: {} for user: {}", 
-                order.getId(), totalAmount, email);
+        logger.debug("Creating order with {} items from cart for user: {}", lines, user.getEmail());
+
+        Order order = newOrder(user, deliveryAddress);
+        order.setTotalAmount(0.0);
+        order = orderRepository.saveAndFlush(order);
+        logger.debug("Order created with ID: {}", order.getId());
+
+        // Lines added after the count are left out; the add bumped the cart version, so the
+        // cart update below fails and the order is built again
+        orderItemRepository.copyCartItems(order.getId(), cart.getId(), firstId, lines, order.getCreatedAt());
+        orderItemRepository.updateTotalAmount(order);
+
+        cartItemRepository.deleteAllByCartId(cart.getId());
+        emptyCart(cart);
 
         return buildOrderResponse(order);
     }
 
+    private Order newOrder(User user, String deliveryAddress) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderDate(new Date());
+        order.setStatus(OrderStatus.PENDING);
+        order.setDeliveryAddress(deliveryAddress);
+        order.setCreatedAt(new Date());
+        order.setLastModified(new Date());
+        order.setDeleted(false);
+        return order;
+    }
+
+    /**
+     * Clears the totals of the cart whose items were deleted and updates the cart, version
+     * checked: a cart changed since it was read fails the order, which is then built again.
+     */
+    private void emptyCart(Cart cart) {
+        cartRepository.clearTotals(cart.getId());
+        cart.setLastModified(new Date());
+        cartRepository.save(cart);
+        // Flushed here, so the response carries the version the order is committed with
+        orderRepository.flush();
+    }
+
     @Cacheable(cacheNames = "orderById", key = "#email + ':' + #orderId")
+    @Transactional(readOnly = true)
     public OrderResponseDto getOrderById(String email, Long orderId) throws OrderNotFoundException, UserNotFoundException {
         User user = getUserByEmail(email);
         Order order = orderRepository.findById(orderId)
@@ -125,14 +229,17 @@ public class OrderService {
     }
 
     @Cacheable(cacheNames = "orders", key = "#email")
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getOrders(String email) throws UserNotFoundException {
         User user = getUserByEmail(email);
         List<Order> orders = orderRepository.findByUser(user);
+        Map<Long, List<OrderItem>> itemsByOrder = findItemsByOrder(orders);
         return orders.stream()
-                .map(this::buildOrderResponse)
+                .map(order -> buildOrderResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderResponseDto> getOrders(String email, Pageable pageable, OrderStatus status) throws UserNotFoundException {
         User user = getUserByEmail(email);
         Page<Order> page;
@@ -142,33 +249,61 @@ public class OrderService {
             page = orderRepository.findByUser(user, pageable);
         }
 
-        return page.map(this::buildOrderResponse);
+        Map<Long, List<OrderItem>> itemsByOrder = findItemsByOrder(page.getContent());
+        return page.map(order -> buildOrderResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())));
     }
 
-    @Transactional
+    /**
+     * Sets the status of an order. With an expected version (the version of the order the
+     * caller last read), a status change made in the meantime is not overwritten: the update is
+     * refused with a VersionConflictException. Without one, the status is applied to the current
+     * order, retrying when a concurrent update wins the race.
+     */
     @CacheEvict(cacheNames = {"orders", "orderById"}, allEntries = true)
-    public OrderResponseDto updateOrderStatus(Long orderId, OrderStatus status) throws OrderNotFoundException {
+    public OrderResponseDto updateOrderStatus(Long orderId, OrderStatus status, Long expectedVersion) throws OrderNotFoundException {
         logger.info("Updating order status: Order ID: {}, New Status: {}", orderId, status);
-        
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> {
-                    logger.warn("Order status update failed: Order with id {} not found", orderId);
-                    return new OrderNotFoundException("Order with id " + orderId + " not found");
-                });
 
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(status);
-        order.setLastModified(new Date());
-        orderRepository.save(order);
-
-        logger.info("Order status updated successfully: Order ID: {}, Status changed from {} to {}", 
-                orderId, oldStatus, status);
+        return optimisticLockRetry.inTransaction(() -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> {
+                        logger.warn("Order status update failed: Order with id {} not found", orderId);
+                        return new OrderNotFoundException("Order with id " + orderId + " not found");
+                    });
+
+            if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+                logger.warn("Order status update refused: Order ID: {} is at version {}, not {}",
+                        orderId, order.getVersion(), expectedVersion);
+                throw new VersionConflictException("Order with id " + orderId + " was changed since version "
+                        + expectedVersion + " (current version " + order.getVersion() + ")");
+            }
+
+            OrderStatus oldStatus = order.getStatus();
+            order.setStatus(status);
+            order.setLastModified(new Date());
+            order = orderRepository.save(order);
+            orderRepository.flush();
+
+            logger.info("Order status updated successfully: Order ID: {}, Status changed from {} to {}",
+                    orderId, oldStatus, status);
+
+            return buildOrderResponse(order);
+        });
+    }
 
-        return buildOrderResponse(order);
+    // One query for the items of all orders instead of one per order
+    private Map<Long, List<OrderItem>> findItemsByOrder(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        return orderItemRepository.findByOrderIn(orders).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
     }
 
     private OrderResponseDto buildOrderResponse(Order order) {
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
+        return buildOrderResponse(order, orderItemRepository.findByOrder(order));
+    }
+
+    private OrderResponseDto buildOrderResponse(Order order, List<OrderItem> orderItems) {
         List<OrderItemResponseDto> itemDtos = orderItems.stream()
                 .map(OrderItemResponseDto::from)
                 .collect(Collectors.toList());
@@ -185,6 +320,7 @@ public class OrderService {
         responseDto.setDeliveryAddress(order.getDeliveryAddress());
         responseDto.setItems(itemDtos);
         responseDto.setTotalItems(totalItems);
+        responseDto.setVersion(order.getVersion());
 
         return responseDto;
     }
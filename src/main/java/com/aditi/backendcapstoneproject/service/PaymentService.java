@@ -1,5 +1,6 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
 import com.aditi.backendcapstoneproject.dto.PaymentRequestDto;
 import com.aditi.backendcapstoneproject.dto.PaymentResponseDto;
 import com.aditi.backendcapstoneproject.dto.StripePaymentRequestDto;
@@ -40,6 +41,7 @@ public class PaymentService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final StripePaymentService stripePaymentService;
+    private final OptimisticLockRetry optimisticLockRetry;
 
     @Value("${stripe.webhook.success-url:}")
     private String successUrl;
@@ -50,11 +52,13 @@ public class PaymentService {
     public PaymentService(PaymentRepository paymentRepository,
                           OrderRepository orderRepository,
                           UserRepository userRepository,
-                          StripePaymentService stripePaymentService) {
+                          StripePaymentService stripePaymentService,
+                          OptimisticLockRetry optimisticLockRetry) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.stripePaymentService = stripePaymentService;
+        this.optimisticLockRetry = optimisticLockRetry;
     }
 
     private User getUserByEmail(String email) throws UserNotFoundException {
@@ -248,48 +252,51 @@ public class PaymentService {
     }
 
     /**
-     * Update payment status from Stripe webhook
+     * Update payment status from Stripe webhook. Webhooks, the status sync and the expiry job
+     * can race on the same payment: the update is version checked and retried on the current
+     * row.
      */
-    @Transactional
     @CacheEvict(cacheNames = "payments", allEntries = true)
     public void updatePaymentStatusFromStripe(String stripePaymentIntentId, PaymentStatus status) 
             throws PaymentNotFoundException {
         logger.info("Updating payment status from Stripe webhook: paymentIntent={}, status={}", 
                 stripePaymentIntentId, status);
 
-        Payment payment = paymentRepository.findByTransactionId(stripePaymentIntentId)
-                .orElseThrow(() -> {
-                    logger.warn("Payment not found for Stripe payment intent: {}", stripePaymentIntentId);
-                    return new PaymentNotFoundException("Payment not found for transaction: " + stripePaymentIntentId);
-                });
+        optimisticLockRetry.inTransaction(() -> {
+            Payment payment = paymentRepository.findByTransactionId(stripePaymentIntentId)
+                    .orElseThrow(() -> {
+                        logger.warn("Payment not found for Stripe payment intent: {}", stripePaymentIntentId);
+                        return new PaymentNotFoundException("Payment not found for transaction: " + stripePaymentIntentId);
+                    });
 
-        PaymentStatus oldStatus = payment.getStatus();
-        payment.setStatus(status);
-        payment.setLastModified(new Date());
+            PaymentStatus oldStatus = payment.getStatus();
+            payment.setStatus(status);
+            payment.setLastModified(new Date());
 
-        if (status == PaymentStatus.SUCCESS) {
-            payment.setPaymentDate(new Date());
-        }
+            if (status == PaymentStatus.SUCCESS) {
+                payment.setPaymentDate(new Date());
+            }
 
-        payment = paymentRepository.save(payment);
-        logger.info("Payment status updated: paymentId={}, oldStatus={}, newStatus={}", 
-                payment.getId(), oldStatus, status);
-
-        // Update order status if payment succeeded
-        if (status == PaymentStatus.SUCCESS && payment.getOrder().getStatus() == OrderStatus.PENDING) {
-            logger.info("Payment successful, updating order status from PENDING to CONFIRMED for order ID: {}", 
-                    payment.getOrder().getId());
-            Order order = payment.getOrder();
-            order.setStatus(OrderStatus.CONFIRMED);
-            order.setLastModified(new Date());
-            orderRepository.save(order);
-        }
+            payment = paymentRepository.save(payment);
+            logger.info("Payment status updated: paymentId={}, oldStatus={}, newStatus={}", 
+                    payment.getId(), oldStatus, status);
+
+            // Update order status if payment succeeded
+            if (status == PaymentStatus.SUCCESS && payment.getOrder().getStatus() == OrderStatus.PENDING) {
+                logger.info("Payment successful, updating order status from PENDING to CONFIRMED for order ID: {}", 
+                        payment.getOrder().getId());
+                Order order = payment.getOrder();
+                order.setStatus(OrderStatus.CONFIRMED);
+                order.setLastModified(new Date());
+                orderRepository.save(order);
+            }
+            return null;
+        });
     }
 
     /**
      * Handle successful Stripe webhook event (payment_intent.succeeded)
      */
-    @Transactional
     public void handleSuccessfulStripePaymentIntent(PaymentIntent paymentIntent) {
         if (paymentIntent == null) {
             logger.warn("Received null PaymentIntent in handleSuccessfulStripePaymentIntent");
@@ -305,9 +312,9 @@ public class PaymentService {
     }
 
     /**
-     * Synchronize payment status with Stripe
+     * Synchronize payment status with Stripe. Runs outside a transaction, so no connection is
+     * held during the Stripe call and the status update can retry on its own.
      */
-    @Transactional
     public void synchronizePaymentStatus(String stripePaymentIntentId) throws PaymentNotFoundException, StripePaymentException {
         logger.info("Synchronizing payment status with Stripe: paymentIntent={}", stripePaymentIntentId);
 
@@ -350,30 +357,33 @@ public class PaymentService {
     }
 
     /**
-     * Expire pending payments older than 24 hours and stop syncing them.
+     * Expire pending payments older than 24 hours and stop syncing them. A payment completed by
+     * a webhook meanwhile fails the version check; the retry no longer finds it pending.
      */
-    @Transactional
     public void expireStalePendingPayments() {
         Instant cutoff = Instant.now().minus(24, ChronoUnit.HOURS);
         Date cutoffDate = Date.from(cutoff);
 
         logger.info("Expiring pending payments created before {}", cutoffDate);
 
-        var stalePayments = paymentRepository.findByStatusAndCreatedAtBefore(PaymentStatus.PENDING, cutoffDate);
-        if (stalePayments.isEmpty()) {
-            logger.debug("No stale pending payments to expire");
-            return;
-        }
+        optimisticLockRetry.inTransaction(() -> {
+            var stalePayments = paymentRepository.findByStatusAndCreatedAtBefore(PaymentStatus.PENDING, cutoffDate);
+            if (stalePayments.isEmpty()) {
+                logger.debug("No stale pending payments to expire");
+                return null;
+            }
 
-        for (Payment payment : stalePayments) {
-            logger.info("Marking payment {} as FAILED due to staleness (createdAt={})",
-                    payment.getId(), payment.getCreatedAt());
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setLastModified(new Date());
-        }
+            for (Payment payment : stalePayments) {
+                logger.info("Marking payment {} as FAILED due to staleness (createdAt={})",
+                        payment.getId(), payment.getCreatedAt());
+                payment.setStatus(PaymentStatus.FAILED);
+                payment.setLastModified(new Date());
+            }
 
-        paymentRepository.saveAll(stalePayments);
-        logger.info("Expired {} stale pending payments", stalePayments.size());
+            paymentRepository.saveAll(stalePayments);
+            logger.info("Expired {} stale pending payments", stalePayments.size());
+            return null;
+        });
     }
 
     /**
@@ -0,0 +1,277 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.dto.ProductBulkImportResponseDto;
+import com.aditi.backendcapstoneproject.dto.ProductImportErrorDto;
+import com.aditi.backendcapstoneproject.dto.ProductRequestDto;
+import com.aditi.backendcapstoneproject.enums.ProductImportFormat;
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.repository.CustomQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from a streamed CSV or NDJSON feed (POST /products/bulk).
+ *
+ * The feed is read line by line and inserted in batches of catalog.bulk-import.batch-size
+ * rows through JdbcTemplate.batchUpdate, one transaction per batch. This bypasses Hibernate,
+ * whose IDENTITY id generation disables insert batching, so the MySQL driver can rewrite each
+ * batch into multi-row INSERTs (rewriteBatchedStatements). Categories are resolved once per
+ * distinct name, category stats are applied once per batch and category, and the catalog
+ * caches are invalidated once at the end.
+ *
+ * Invalid rows are skipped and reported with their line number; a batch rejected by the
+ * database is reported row by row and does not stop the import.
+ */
+@Service
+public class ProductBulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRegistry categoryRegistry;
+    private final CategoryStatsService categoryStatsService;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.bulk-import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public ProductBulkImportService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    CategoryRegistry categoryRegistry,
+                                    CategoryStatsService categoryStatsService,
+                                    CatalogVersionTracker catalogVersionTracker,
+                                    ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRegistry = categoryRegistry;
+        this.categoryStatsService = categoryStatsService;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.objectMapper = objectMapper;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public ProductBulkImportResponseDto importProducts(Reader input, ProductImportFormat format) throws IOException {
+        ProductBulkImportResponseDto result = new ProductBulkImportResponseDto();
+        Map<String, Category> categories = new HashMap<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(input);
+        Map<String, Integer> csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ProductImportFormat.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+            result.setReceived(result.getReceived() + 1);
+            try {
+                ProductRequestDto product = format == ProductImportFormat.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : parseJsonRow(line);
+                validate(product);
+                Category category = categories.computeIfAbsent(product.getCategory().trim(),
+                        categoryRegistry::getOrCreate);
+                batch.add(new ImportRow(lineNumber, product, category.getId(), category.getName()));
+            } catch (IllegalArgumentException e) {
+                reportError(result, lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                insertBatch(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, result);
+        }
+
+        catalogVersionTracker.catalogChanged();
+        logger.info("Bulk import finished: received={}, imported={}, failed={}",
+                result.getReceived(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void insertBatch(List<ImportRow> batch, ProductBulkImportResponseDto result) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(CustomQuery.INSERT_PRODUCT, batch, batch.size(), (ps, row) -> {
+                    ProductRequestDto product = row.product();
+                    ps.setString(1, product.getName().trim());
+                    ps.setString(2, product.getDescription());
+                    ps.setString(3, product.getImageUrl());
+                    if (product.getPrice() != null) {
+                        ps.setDouble(4, product.getPrice());
+                    } else {
+                        ps.setNull(4, Types.DOUBLE);
+                    }
+                    ps.setLong(5, row.categoryId());
+                    ps.setString(6, row.categoryName());
+                    ps.setTimestamp(7, now);
+                    ps.setTimestamp(8, now);
+                    ps.setBoolean(9, false);
+                });
+                applyCategoryStats(batch);
+            });
+            result.setImported(result.getImported() + batch.size());
+        } catch (DataAccessException e) {
+            logger.warn("Bulk import batch of {} rows failed: {}", batch.size(), e.getMostSpecificCause().getMessage());
+            for (ImportRow row : batch) {
+                reportError(result, row.line(), "Insert failed: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void applyCategoryStats(List<ImportRow> batch) {
+        Map<Long, List<Double>> pricesByCategory = batch.stream()
+                .collect(Collectors.groupingBy(ImportRow::categoryId,
+                        Collectors.mapping(row -> Objects.requireNonNullElse(row.product().getPrice(), 0.0),
+                                Collectors.toList())));
+        pricesByCategory.forEach((categoryId, prices) -> categoryStatsService.productsAdded(categoryId,
+                prices.size(),
+                prices.stream().mapToDouble(Double::doubleValue).sum(),
+                prices.stream().mapToDouble(Double::doubleValue).min().orElse(0.0),
+                prices.stream().mapToDouble(Double::doubleValue).max().orElse(0.0)));
+    }
+
+    private static void validate(ProductRequestDto product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (product.getCategory() == null || product.getCategory().isBlank()) {
+            throw new IllegalArgumentException("category is required");
+        }
+        if (product.getPrice() != null && product.getPrice() < 0) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+    }
+
+    private static void reportError(ProductBulkImportResponseDto result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(ProductImportErrorDto.of(line, message));
+        }
+    }
+
+    private ProductRequestDto parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, ProductRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Maps the CSV header to column positions. name and category are required;
+     * description, price and imageUrl are optional.
+     */
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> header = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("category")) {
+            throw new IllegalArgumentException("CSV header must contain the columns name and category");
+        }
+        return columns;
+    }
+
+    private static ProductRequestDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        ProductRequestDto product = new ProductRequestDto();
+        product.setName(column(values, columns, "name"));
+        product.setDescription(column(values, columns, "description"));
+        product.setImageUrl(column(values, columns, "imageurl"));
+        product.setCategory(column(values, columns, "category"));
+        String price = column(values, columns, "price");
+        if (price != null && !price.isBlank()) {
+            try {
+                product.setPrice(Double.parseDouble(price.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price: " + price);
+            }
+        }
+        return product;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line (RFC 4180 quoting with "" as escaped quote). Quoted values
+     * spanning several lines are not supported.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record ImportRow(long line, ProductRequestDto product, Long categoryId, String categoryName) {
+    }
+}
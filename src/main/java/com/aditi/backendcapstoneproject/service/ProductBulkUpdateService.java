@@ -0,0 +1,271 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CustomQuery;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Admin bulk updates of existing products (PATCH /products/bulk/...).
+ *
+ * Each operation runs as set-based UPDATE statements over chunks of catalog.bulk-update.chunk-size
+ * product ids, one transaction per chunk, instead of loading and saving every entity. Once a chunk
+ * has committed, exactly its productsById entries, Hibernate second-level cache entries and product
+ * ETags are invalidated. The stats of
+ * the touched categories are rebuilt and the listing caches evicted once at the end.
+ */
+@Service
+public class ProductBulkUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkUpdateService.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final CategoryStatsService categoryStatsService;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final CartCacheIndex cartCacheIndex;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${catalog.bulk-update.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public ProductBulkUpdateService(NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    CategoryRepository categoryRepository,
+                                    CategoryRegistry categoryRegistry,
+                                    CategoryStatsService categoryStatsService,
+                                    CatalogVersionTracker catalogVersionTracker,
+                                    CartCacheIndex cartCacheIndex,
+                                    CacheManager cacheManager,
+                                    EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.categoryStatsService = categoryStatsService;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.cartCacheIndex = cartCacheIndex;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Changes every price in the category by the given percentage, rounded to 2 decimals.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public long adjustPricesByCategory(String categoryName, double percentage) {
+        if (percentage <= -100) {
+            throw new IllegalArgumentException("percentage must be greater than -100");
+        }
+        Category category = findCategory(categoryName);
+        double factor = 1 + percentage / 100;
+
+        long updated = forEachChunkOfCategory(category.getId(), ids -> {
+            // Evicted once the chunk commits
+            cartCacheIndex.productsChanged(ids);
+            int chunkUpdated = jdbcTemplate.update(
+                    CustomQuery.ADJUST_PRODUCT_PRICES,
+                    new MapSqlParameterSource("factor", factor)
+                            .addValue("now", now())
+                            .addValue("ids", ids));
+            recomputeCartTotals(ids);
+            return chunkUpdated;
+        });
+
+        categoryStatsService.recompute(category.getId());
+        logger.info("Adjusted prices of {} products in category {} by {}%", updated, category.getName(), percentage);
+        return updated;
+    }
+
+    /**
+     * Sets explicit prices; ids that do not exist are ignored.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public long updatePrices(Map<Long, Double> prices) {
+        prices.forEach((id, price) -> {
+            if (id == null || price == null || price < 0) {
+                throw new IllegalArgumentException("Invalid price " + price + " for product " + id);
+            }
+        });
+        Set<Long> touchedCategories = new HashSet<>();
+        long updated = 0;
+        for (List<Long> ids : chunks(new ArrayList<>(prices.keySet()))) {
+            updated += runChunk(ids, () -> {
+                touchedCategories.addAll(categoryIdsOf(ids));
+                cartCacheIndex.productsChanged(ids);
+                int chunkUpdated = jdbcTemplate.update(buildPriceUpdate(ids.size()), priceParameters(ids, prices));
+                recomputeCartTotals(ids);
+                return chunkUpdated;
+            });
+        }
+
+        touchedCategories.forEach(categoryStatsService::recompute);
+        logger.info("Updated prices of {} products", updated);
+        return updated;
+    }
+
+    /**
+     * Moves the given products, or all products of fromCategory, to toCategory
+     * (created if it does not exist yet).
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public long moveProducts(List<Long> productIds, String fromCategory, String toCategory) {
+        boolean byIds = productIds != null && !productIds.isEmpty();
+        if (!byIds && (fromCategory == null || fromCategory.isBlank())) {
+            throw new IllegalArgumentException("Provide productIds or fromCategory");
+        }
+        if (toCategory == null || toCategory.isBlank()) {
+            throw new IllegalArgumentException("toCategory is required");
+        }
+        Category target = categoryRegistry.getOrCreate(toCategory);
+        Set<Long> touchedCategories = new HashSet<>();
+        touchedCategories.add(target.getId());
+        Function<List<Long>, Integer> move = ids -> jdbcTemplate.update(
+                CustomQuery.MOVE_PRODUCTS_TO_CATEGORY,
+                new MapSqlParameterSource("categoryId", target.getId())
+                        .addValue("categoryName", target.getName())
+                        .addValue("now", now())
+                        .addValue("ids", ids));
+
+        long updated = 0;
+        if (byIds) {
+            for (List<Long> ids : chunks(new ArrayList<>(new HashSet<>(productIds)))) {
+                updated += runChunk(ids, () -> {
+                    touchedCategories.addAll(categoryIdsOf(ids));
+                    return move.apply(ids);
+                });
+            }
+        } else {
+            Category source = findCategory(fromCategory);
+            touchedCategories.add(source.getId());
+            updated = forEachChunkOfCategory(source.getId(), move);
+        }
+
+        touchedCategories.forEach(categoryStatsService::recompute);
+        logger.info("Moved {} products to category {}", updated, target.getName());
+        return updated;
+    }
+
+    /**
+     * Walks the category's product ids in keyset chunks and applies the update to each chunk.
+     * Moving products out of the category does not disturb the walk, which only seeks forward.
+     */
+    private long forEachChunkOfCategory(Long categoryId, Function<List<Long>, Integer> update) {
+        long updated = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(CustomQuery.SELECT_PRODUCT_IDS_IN_CATEGORY_AFTER,
+                    new MapSqlParameterSource("categoryId", categoryId)
+                            .addValue("afterId", afterId)
+                            .addValue("limit", chunkSize),
+                    Long.class);
+            if (!ids.isEmpty()) {
+                List<Long> chunk = ids;
+                updated += runChunk(chunk, () -> update.apply(chunk));
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == chunkSize);
+        return updated;
+    }
+
+    private int runChunk(List<Long> ids, Supplier<Integer> update) {
+        Integer updated = transactionTemplate.execute(status -> update.get());
+        // Committed: drop exactly the cached entries of this chunk
+        Cache productsById = cacheManager.getCache("productsById");
+        if (productsById != null) {
+            ids.forEach(productsById::evict);
+        }
+        // JDBC updates bypass Hibernate, which would keep serving the old rows from the second-level cache
+        ids.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+        catalogVersionTracker.catalogChanged();
+        return updated != null ? updated : 0;
+    }
+
+    // In the chunk's transaction, after its prices changed
+    private void recomputeCartTotals(List<Long> ids) {
+        jdbcTemplate.update(CustomQuery.RECOMPUTE_CART_TOTALS_OF_PRODUCTS, new MapSqlParameterSource("ids", ids));
+    }
+
+    private Set<Long> categoryIdsOf(List<Long> ids) {
+        return new HashSet<>(jdbcTemplate.queryForList(CustomQuery.SELECT_CATEGORY_IDS_OF_PRODUCTS,
+                new MapSqlParameterSource("ids", ids), Long.class));
+    }
+
+    private Category findCategory(String categoryName) {
+        if (categoryName == null || categoryName.isBlank()) {
+            throw new IllegalArgumentException("category is required");
+        }
+        return categoryRepository.findByName(categoryName.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Category " + categoryName + " does not exist"));
+    }
+
+    // update product set price = case id when :id0 then :price0 ... end where id in (:ids)
+    private static String buildPriceUpdate(int size) {
+        StringBuilder sql = new StringBuilder("update product set price = case id");
+        for (int i = 0; i < size; i++) {
+            sql.append(" when :id").append(i).append(" then :price").append(i);
+        }
+        return sql.append(" end, last_modified = :now where id in (:ids) and is_deleted = false").toString();
+    }
+
+    private static MapSqlParameterSource priceParameters(List<Long> ids, Map<Long, Double> prices) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids).addValue("now", now());
+        for (int i = 0; i < ids.size(); i++) {
+            parameters.addValue("id" + i, ids.get(i));
+            parameters.addValue("price" + i, prices.get(ids.get(i)));
+        }
+        return parameters;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -1,37 +1,53 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
 import com.aditi.backendcapstoneproject.dto.ProductRequestDto;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
 import com.aditi.backendcapstoneproject.model.Category;
 import com.aditi.backendcapstoneproject.model.Product;
-import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CartItemRepository;
 import com.aditi.backendcapstoneproject.repository.ProductRepository;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service("productDBService")
 public class ProductDBService implements ProductService {
 
     ProductRepository productRepository;
-    CategoryRepository categoryRepository;
+    CategoryRegistry categoryRegistry;
+    CatalogVersionTracker catalogVersionTracker;
+    CategoryStatsService categoryStatsService;
+    CartItemRepository cartItemRepository;
+    CartCacheIndex cartCacheIndex;
 
-    ProductDBService(ProductRepository productRepository, CategoryRepository categoryRepository){
+    ProductDBService(ProductRepository productRepository, CategoryRegistry categoryRegistry,
+                     CatalogVersionTracker catalogVersionTracker, CategoryStatsService categoryStatsService,
+                     CartItemRepository cartItemRepository, CartCacheIndex cartCacheIndex){
         this.productRepository = productRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.categoryStatsService = categoryStatsService;
+        this.cartItemRepository = cartItemRepository;
+        this.cartCacheIndex = cartCacheIndex;
     }
 
     @Override
     @Cacheable(cacheNames = "productsById", key = "#id")
+    @Transactional(readOnly = true)
     public Product getProductsById(Long id) throws ProductNotFoundException {
-        Optional<Product> optionalProduct=productRepository.findById(id);
+        Optional<Product> optionalProduct=findActiveProduct(id);
         if(optionalProduct.isEmpty()){
             throw new ProductNotFoundException("The product with id " + id + " is not found");
         }
@@ -40,11 +56,13 @@ public class ProductDBService implements ProductService {
 
     @Override
     @Cacheable(cacheNames = "productsAll")
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
@@ -54,8 +72,8 @@ public class ProductDBService implements ProductService {
     @Caching(evict = {
             @CacheEvict(cacheNames = "productsAll", allEntries = true),
             @CacheEvict(cacheNames = "productsById", allEntries = true),
-            @CacheEvict(cacheNames = "productsByCategory", allEntries = true),
-            @CacheEvict(cacheNames = "productsSearch", allEntries = true)
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
     })
     public Product createProduct(String name, String description, String category, Double price, String imageUrl) {
 
@@ -64,10 +82,17 @@ public class ProductDBService implements ProductService {
         product.setDescription(description);
         product.setPrice(price);
         product.setImageUrl(imageUrl);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        product.setDeleted(false);
 
-        Category category1=getCategoryFromDB(category);
+        Category category1=categoryRegistry.getOrCreate(category);
         product.setCategory(category1);
-        return productRepository.save(product);
+        product.setCategoryName(category1.getName());
+        Product savedProduct = productRepository.save(product);
+        categoryStatsService.productAdded(savedProduct);
+        catalogVersionTracker.catalogChanged();
+        return savedProduct;
 
     }
 
@@ -76,22 +101,37 @@ public class ProductDBService implements ProductService {
     @Caching(evict = {
             @CacheEvict(cacheNames = "productsAll", allEntries = true),
             @CacheEvict(cacheNames = "productsById", key = "#id"),
-            @CacheEvict(cacheNames = "productsByCategory", allEntries = true),
-            @CacheEvict(cacheNames = "productsSearch", allEntries = true)
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
     })
     public Product updateProduct(Long id, ProductRequestDto productRequestDto) throws ProductNotFoundException {
-        Product product=productRepository.findById(id)
+        Product product=findActiveProduct(id)
                 .orElseThrow(()->new ProductNotFoundException("The Product with id "+id+" doesn't exist"));
+        Category previousCategory=product.getCategory();
+        Double previousPrice=product.getPrice();
+        String previousName=product.getName();
+        String previousImageUrl=product.getImageUrl();
 
         product.setName(productRequestDto.getName());
         product.setDescription(productRequestDto.getDescription());
 
         product.setPrice(productRequestDto.getPrice()!=null ? productRequestDto.getPrice() : 0.0);
         product.setImageUrl(productRequestDto.getImageUrl());
+        product.setLastModified(new Date());
 
-        Category category1=getCategoryFromDB(productRequestDto.getCategory());
+        Category category1=categoryRegistry.getOrCreate(productRequestDto.getCategory());
         product.setCategory(category1);
-        return productRepository.save(product);
+        product.setCategoryName(category1.getName());
+        Product savedProduct = productRepository.save(product);
+        categoryStatsService.productUpdated(previousCategory, previousPrice, savedProduct);
+        catalogVersionTracker.catalogChanged();
+        if (!Objects.equals(previousPrice, savedProduct.getPrice())) {
+            cartItemRepository.recomputeCartTotalsOfProducts(List.of(id));
+        }
+        if (cartViewChanged(previousName, previousPrice, previousImageUrl, savedProduct)) {
+            cartCacheIndex.productChanged(id);
+        }
+        return savedProduct;
     }
 
     @Override
@@ -99,12 +139,16 @@ public class ProductDBService implements ProductService {
     @Caching(evict = {
             @CacheEvict(cacheNames = "productsAll", allEntries = true),
             @CacheEvict(cacheNames = "productsById", key = "#id"),
-            @CacheEvict(cacheNames = "productsByCategory", allEntries = true),
-            @CacheEvict(cacheNames = "productsSearch", allEntries = true)
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
     })
     public Product partialUpdateProduct(Long id, ProductRequestDto productRequestDto) throws ProductNotFoundException {
-        Product product=productRepository.findById(id)
+        Product product=findActiveProduct(id)
                 .orElseThrow(()-> new ProductNotFoundException("The Product with id "+id+" doesn't exist"));
+        Category previousCategory=product.getCategory();
+        Double previousPrice=product.getPrice();
+        String previousName=product.getName();
+        String previousImageUrl=product.getImageUrl();
 
         if(productRequestDto.getName()!=null){
             product.setName(productRequestDto.getName());
@@ -119,15 +163,51 @@ public class ProductDBService implements ProductService {
             product.setImageUrl(productRequestDto.getImageUrl());
         }
         if(productRequestDto.getCategory()!=null) {
-            Category category = getCategoryFromDB(productRequestDto.getCategory());
+            Category category = categoryRegistry.getOrCreate(productRequestDto.getCategory());
             product.setCategory(category);
+            product.setCategoryName(category.getName());
+        }
+        product.setLastModified(new Date());
+        Product savedProduct = productRepository.save(product);
+        categoryStatsService.productUpdated(previousCategory, previousPrice, savedProduct);
+        catalogVersionTracker.catalogChanged();
+        if (!Objects.equals(previousPrice, savedProduct.getPrice())) {
+            cartItemRepository.recomputeCartTotalsOfProducts(List.of(id));
         }
-        return productRepository.save(product);
+        if (cartViewChanged(previousName, previousPrice, previousImageUrl, savedProduct)) {
+            cartCacheIndex.productChanged(id);
+        }
+        return savedProduct;
+    }
+
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "productsAll", allEntries = true),
+            @CacheEvict(cacheNames = "productsById", key = "#id"),
+            @CacheEvict(cacheNames = "productsSearch", allEntries = true),
+            @CacheEvict(cacheNames = "catalogResponses", allEntries = true)
+    })
+    public void deleteProduct(Long id) throws ProductNotFoundException {
+        Product product=findActiveProduct(id)
+                .orElseThrow(()-> new ProductNotFoundException("The Product with id "+id+" doesn't exist"));
+        product.setDeleted(true);
+        product.setLastModified(new Date());
+        Product savedProduct = productRepository.save(product);
+        // A deleted product can no longer be bought, so it leaves every cart (and its totals);
+        // just the cached carts showing it are evicted
+        cartCacheIndex.productChanged(id);
+        cartItemRepository.removeProductFromCartTotals(id);
+        cartItemRepository.deleteByProductId(id);
+        categoryStatsService.productRemoved(savedProduct);
+        catalogVersionTracker.catalogChanged();
     }
 
 
     @Override
     @Cacheable(cacheNames = "productsSearch", key = "#keyword == null ? 'ALL' : #keyword.trim().toLowerCase()")
+    @Transactional(readOnly = true)
     public List<Product> searchProducts(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return productRepository.findAll();
@@ -136,6 +216,7 @@ public class ProductDBService implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> searchProducts(String keyword, Pageable pageable) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return productRepository.findAll(pageable);
@@ -144,33 +225,41 @@ public class ProductDBService implements ProductService {
     }
 
     @Override
-    @Cacheable(cacheNames = "productsByCategory", key = "#categoryName == null ? 'ALL' : #categoryName.trim().toLowerCase()")
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String categoryName) {
         if (categoryName == null || categoryName.trim().isEmpty()) {
             return productRepository.findAll();
         }
-        return productRepository.findByCategory_Name(categoryName.trim());
+        return productRepository.findByCategoryName(categoryName.trim());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(String categoryName, Pageable pageable) {
         if (categoryName == null || categoryName.trim().isEmpty()) {
             return productRepository.findAll(pageable);
         }
-        return productRepository.findByCategory_Name(categoryName.trim(), pageable);
+        return productRepository.findByCategoryName(categoryName.trim(), pageable);
     }
 
-    public Category getCategoryFromDB(String name){
-        if(name == null || name.trim().isEmpty()){
-            throw new NullPointerException("Category name cannot be null or empty");
-        }
-        Optional<Category> optionalCategory = categoryRepository.findByName(name);
-        if(optionalCategory.isPresent()){
-            return optionalCategory.get();
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByCategoryAfter(String categoryName, long afterId, int limit) {
+        if (categoryName == null || categoryName.trim().isEmpty()) {
+            return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
         }
-        Category category=new Category();
-        category.setName(name);
-        categoryRepository.save(category);
-        return category;
+        return productRepository.findByCategoryNameAndIdGreaterThanOrderByIdAsc(categoryName.trim(), afterId, Limit.of(limit));
+    }
+
+    // Cached carts show the product's name, price and image
+    private boolean cartViewChanged(String previousName, Double previousPrice, String previousImageUrl, Product product) {
+        return !Objects.equals(previousName, product.getName())
+                || !Objects.equals(previousPrice, product.getPrice())
+                || !Objects.equals(previousImageUrl, product.getImageUrl());
+    }
+
+    // findById is not covered by the soft delete filter
+    private Optional<Product> findActiveProduct(Long id) {
+        return productRepository.findById(id).filter(product -> !product.isDeleted());
     }
 }
@@ -25,6 +25,11 @@ public interface ProductService {
 
     Product partialUpdateProduct(Long id, ProductRequestDto productRequestDto) throws ProductNotFoundException;
 
+    /**
+     * Soft-deletes the product: it disappears from all reads but stays referenced by existing orders.
+     */
+    void deleteProduct(Long id) throws ProductNotFoundException;
+
     List<Product> searchProducts(String keyword);
 
     /**
@@ -41,4 +46,10 @@ public interface ProductService {
      * Paginated list of products filtered by category name.
      */
     Page<Product> getProductsByCategory(String categoryName, Pageable pageable);
+
+    /**
+     * Keyset page of products in the given category: at most limit products with an id
+     * greater than afterId, ordered by id. Cost does not grow with the position in the category.
+     */
+    List<Product> getProductsByCategoryAfter(String categoryName, long afterId, int limit);
 }
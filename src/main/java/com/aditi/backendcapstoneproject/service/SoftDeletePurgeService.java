@@ -0,0 +1,96 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.CustomQuery;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves long soft-deleted rows out of the primary tables.
+ *
+ * Products deleted before the cutoff are copied to product_archive and removed from product in
+ * chunks of catalog.purge.batch-size, one transaction per chunk. Products still referenced by an
+ * order item stay soft-deleted, the order history needs them. Deleted categories without any
+ * remaining product rows are removed afterwards. The deletes run through JDBC, so the removed rows
+ * are evicted from the Hibernate second-level cache by hand.
+ */
+@Service
+public class SoftDeletePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurgeService.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${catalog.purge.batch-size:500}")
+    private int batchSize = 500;
+
+    public SoftDeletePurgeService(NamedParameterJdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Archives products soft-deleted before the cutoff and returns how many were moved.
+     */
+    public long purgeDeletedProducts(Date cutoff) {
+        long archived = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(CustomQuery.SELECT_PURGEABLE_PRODUCT_IDS,
+                    new MapSqlParameterSource("cutoff", cutoff)
+                            .addValue("afterId", afterId)
+                            .addValue("limit", batchSize),
+                    Long.class);
+            if (!ids.isEmpty()) {
+                archived += archiveChunk(ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+
+        logger.info("Archived {} products deleted before {}", archived, cutoff);
+        return archived;
+    }
+
+    /**
+     * Removes categories soft-deleted before the cutoff that no product row refers to any more.
+     */
+    public int purgeDeletedCategories(Date cutoff) {
+        Integer purged = transactionTemplate.execute(status -> jdbcTemplate.update(
+                CustomQuery.PURGE_DELETED_CATEGORIES, new MapSqlParameterSource("cutoff", cutoff)));
+        if (purged != null && purged > 0) {
+            entityManagerFactory.getCache().evict(Category.class);
+        }
+        logger.info("Purged {} categories deleted before {}", purged, cutoff);
+        return purged != null ? purged : 0;
+    }
+
+    private int archiveChunk(List<Long> ids) {
+        Integer archived = transactionTemplate.execute(status -> {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids)
+                    .addValue("now", new Timestamp(System.currentTimeMillis()));
+            jdbcTemplate.update(CustomQuery.ARCHIVE_PRODUCTS, parameters);
+            jdbcTemplate.update(CustomQuery.DELETE_CART_ITEMS_OF_PRODUCTS, parameters);
+            return jdbcTemplate.update(CustomQuery.DELETE_PRODUCTS, parameters);
+        });
+        ids.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+        return archived != null ? archived : 0;
+    }
+}
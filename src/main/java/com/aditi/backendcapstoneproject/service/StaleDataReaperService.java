@@ -0,0 +1,174 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.dto.ReaperReportDto;
+import com.aditi.backendcapstoneproject.repository.CustomQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Deletes rows nobody will use again: carts (with their items) not changed since a cutoff and
+ * password reset tokens past their expiry date.
+ *
+ * Like SoftDeletePurgeService, the rows are found by keyset over the primary key in chunks of
+ * catalog.reaper.batch-size and each chunk is deleted in its own short transaction, so no lock
+ * is held for long; the run pauses catalog.reaper.chunk-pause-ms between chunks to leave room
+ * for the regular traffic. A user whose cart was reaped gets a new, empty cart on the next access.
+ */
+@Service
+public class StaleDataReaperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleDataReaperService.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final CartWriteBehindStore cartWriteBehindStore;
+    private final CartCacheIndex cartCacheIndex;
+
+    @Value("${catalog.reaper.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${catalog.reaper.chunk-pause-ms:200}")
+    private long chunkPauseMs = 200;
+
+    public StaleDataReaperService(NamedParameterJdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  CacheManager cacheManager,
+                                  CartWriteBehindStore cartWriteBehindStore,
+                                  CartCacheIndex cartCacheIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.cartWriteBehindStore = cartWriteBehindStore;
+        this.cartCacheIndex = cartCacheIndex;
+    }
+
+    /**
+     * Deletes the carts not changed since the cart cutoff and the tokens expired before now,
+     * and reports the reclaimed rows.
+     */
+    public ReaperReportDto reap(Date cartCutoff, Date now) {
+        long start = System.currentTimeMillis();
+        ReaperReportDto report = new ReaperReportDto();
+        reapAbandonedCarts(cartCutoff, report);
+        reapExpiredPasswordResetTokens(now, report);
+        report.setDurationMs(System.currentTimeMillis() - start);
+
+        logger.info("Reaped {} carts ({} items) inactive since {} and {} expired password reset tokens: {} rows in {} chunks, {} ms",
+                report.getCarts(), report.getCartItems(), cartCutoff, report.getPasswordResetTokens(),
+                report.getTotalRows(), report.getChunks(), report.getDurationMs());
+        return report;
+    }
+
+    private void reapAbandonedCarts(Date cutoff, ReaperReportDto report) {
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(CustomQuery.SELECT_ABANDONED_CART_IDS,
+                    new MapSqlParameterSource("cutoff", cutoff)
+                            .addValue("afterId", afterId)
+                            .addValue("limit", batchSize),
+                    Long.class);
+            if (!ids.isEmpty()) {
+                CartChunk chunk = deleteCartChunk(ids, cutoff);
+                report.setCarts(report.getCarts() + chunk.carts());
+                report.setCartItems(report.getCartItems() + chunk.cartItems());
+                report.setChunks(report.getChunks() + 1);
+                forgetCarts(chunk.emails());
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize && pause());
+    }
+
+    private void reapExpiredPasswordResetTokens(Date now, ReaperReportDto report) {
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(CustomQuery.SELECT_EXPIRED_PASSWORD_RESET_TOKEN_IDS,
+                    new MapSqlParameterSource("now", now)
+                            .addValue("afterId", afterId)
+                            .addValue("limit", batchSize),
+                    Long.class);
+            if (!ids.isEmpty()) {
+                List<Long> chunk = ids;
+                Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(
+                        CustomQuery.DELETE_PASSWORD_RESET_TOKENS, new MapSqlParameterSource("ids", chunk)));
+                report.setPasswordResetTokens(report.getPasswordResetTokens() + (deleted != null ? deleted : 0));
+                report.setChunks(report.getChunks() + 1);
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize && pause());
+    }
+
+    private CartChunk deleteCartChunk(List<Long> ids, Date cutoff) {
+        return transactionTemplate.execute(status -> {
+            List<LockedCart> locked = jdbcTemplate.query(CustomQuery.LOCK_ABANDONED_CARTS,
+                    new MapSqlParameterSource("ids", ids).addValue("cutoff", cutoff),
+                    (rs, rowNum) -> new LockedCart(rs.getLong("id"), rs.getObject("user_id", Long.class)));
+            if (locked.isEmpty()) {
+                return new CartChunk(0, 0, List.of());
+            }
+
+            MapSqlParameterSource cartIds = new MapSqlParameterSource("ids", locked.stream().map(LockedCart::id).toList());
+            int cartItems = jdbcTemplate.update(CustomQuery.DELETE_CART_ITEMS_OF_CARTS, cartIds);
+            int carts = jdbcTemplate.update(CustomQuery.DELETE_CARTS, cartIds);
+
+            List<Long> userIds = locked.stream().map(LockedCart::userId).filter(Objects::nonNull).toList();
+            List<String> emails = userIds.isEmpty() ? List.of() : jdbcTemplate.queryForList(
+                    CustomQuery.SELECT_USER_EMAILS, new MapSqlParameterSource("ids", userIds), String.class);
+            return new CartChunk(carts, cartItems, emails);
+        });
+    }
+
+    /**
+     * Drops the reaped carts from the carts cache, its index and the write-behind store, so
+     * none serves or keeps a cart whose rows are gone.
+     */
+    private void forgetCarts(List<String> emails) {
+        Cache carts = cacheManager.getCache(CartCacheIndex.CACHE_NAME);
+        for (String email : emails) {
+            if (carts != null) {
+                carts.evict(email);
+            }
+            cartCacheIndex.cartEvicted(email);
+            cartWriteBehindStore.discard(email);
+        }
+    }
+
+    /**
+     * Waits between two chunks; false if the thread was interrupted, which ends the run.
+     */
+    private boolean pause() {
+        if (chunkPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Stale data reaper interrupted, stopping after the current chunk");
+            return false;
+        }
+    }
+
+    private record LockedCart(Long id, Long userId) {
+    }
+
+    private record CartChunk(int carts, int cartItems, List<String> emails) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.aditi.backendcapstoneproject.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+public class PageableUtils {
+
+    /**
+     * Builds a Pageable from the page/size/sort request parameters, where sort is "field" or "field,direction".
+     */
+    public static Pageable buildPageable(int page, int size, String sort) {
+        String[] sortParts = sort.split(",");
+        String sortField = sortParts[0];
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (sortParts.length > 1) {
+            direction = Sort.Direction.fromString(sortParts[1]);
+        }
+        return PageRequest.of(page, size, Sort.by(direction, sortField));
+    }
+}
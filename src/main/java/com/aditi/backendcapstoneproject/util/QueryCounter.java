@@ -0,0 +1,80 @@
+package com.aditi.backendcapstoneproject.util;
+
+import com.aditi.backendcapstoneproject.exception.QueryBudgetExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread (fed by the
+ * StatementInspector registered in QueryBudgetConfig). Statements sent through JdbcTemplate
+ * are not counted.
+ *
+ * The count only grows, so callers take current() before a unit of work and subtract it
+ * afterwards; the request budget and test assertions can therefore overlap.
+ */
+public class QueryCounter {
+
+    private static final ThreadLocal<Counter> COUNTER = ThreadLocal.withInitial(Counter::new);
+
+    public static long current() {
+        return COUNTER.get().statements;
+    }
+
+    /**
+     * Fails every statement after the given count with QueryBudgetExceededException,
+     * until clearLimit() is called.
+     */
+    public static void limit(long maxStatements, String label) {
+        Counter counter = COUNTER.get();
+        counter.limit = maxStatements;
+        counter.label = label;
+    }
+
+    public static void clearLimit() {
+        Counter counter = COUNTER.get();
+        counter.limit = -1;
+        counter.label = null;
+    }
+
+    /**
+     * Keeps the SQL of every statement prepared on this thread until stopRecording(), so the
+     * index usage tests can EXPLAIN exactly what a repository method sends.
+     */
+    public static void startRecording() {
+        COUNTER.get().recorded = new ArrayList<>();
+    }
+
+    public static List<String> stopRecording() {
+        Counter counter = COUNTER.get();
+        List<String> recorded = counter.recorded == null ? List.of() : counter.recorded;
+        counter.recorded = null;
+        return recorded;
+    }
+
+    public static void statementPrepared(String sql) {
+        List<String> recorded = COUNTER.get().recorded;
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        statementPrepared();
+    }
+
+    public static void statementPrepared() {
+        Counter counter = COUNTER.get();
+        counter.statements++;
+        if (counter.limit >= 0 && counter.statements > counter.limit) {
+            String label = counter.label;
+            // Fail once, the error handling may run queries of its own
+            clearLimit();
+            throw new QueryBudgetExceededException(label + " exceeded its query budget");
+        }
+    }
+
+    private static class Counter {
+        private long statements;
+        private long limit = -1;
+        private String label;
+        private List<String> recorded;
+    }
+}
@@ -0,0 +1,15 @@
+-- Category names must be unique so that concurrent get-or-create cannot produce duplicates.
+-- Existing duplicates are merged into the oldest row with the same name first.
+
+UPDATE product p
+    JOIN category c ON p.category_id = c.id
+    JOIN (SELECT name, MIN(id) AS keep_id FROM category GROUP BY name) k ON k.name = c.name
+SET p.category_id = k.keep_id
+WHERE p.category_id <> k.keep_id;
+
+DELETE c FROM category c
+    JOIN (SELECT name, MIN(id) AS keep_id FROM category GROUP BY name) k ON k.name = c.name
+WHERE c.id <> k.keep_id;
+
+ALTER TABLE category
+    ADD CONSTRAINT uk_category_name UNIQUE (name);
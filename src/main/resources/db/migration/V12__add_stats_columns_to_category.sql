@@ -0,0 +1,24 @@
+-- Per-category product summary maintained incrementally by CategoryStatsService.
+-- Products without a price count as 0.0, matching how updates store a missing price.
+
+ALTER TABLE category
+    ADD COLUMN product_count      BIGINT   NOT NULL DEFAULT 0,
+    ADD COLUMN price_total        DOUBLE   NOT NULL DEFAULT 0,
+    ADD COLUMN min_price          DOUBLE   NULL,
+    ADD COLUMN max_price          DOUBLE   NULL,
+    ADD COLUMN stats_last_updated datetime NULL;
+
+UPDATE category c
+    JOIN (SELECT category_id,
+                 COUNT(*)                  AS product_count,
+                 SUM(COALESCE(price, 0))   AS price_total,
+                 MIN(COALESCE(price, 0))   AS min_price,
+                 MAX(COALESCE(price, 0))   AS max_price,
+                 MAX(last_modified)        AS stats_last_updated
+          FROM product
+          GROUP BY category_id) s ON s.category_id = c.id
+SET c.product_count      = s.product_count,
+    c.price_total        = s.price_total,
+    c.min_price          = s.min_price,
+    c.max_price          = s.max_price,
+    c.stats_last_updated = s.stats_last_updated;
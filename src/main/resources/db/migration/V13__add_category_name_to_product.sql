@@ -0,0 +1,10 @@
+-- Denormalized category name so product reads and category filters do not join category.
+
+ALTER TABLE product
+    ADD COLUMN category_name VARCHAR(255) NULL;
+
+UPDATE product p
+    JOIN category c ON p.category_id = c.id
+SET p.category_name = c.name;
+
+CREATE INDEX idx_product_category_name ON product (category_name);
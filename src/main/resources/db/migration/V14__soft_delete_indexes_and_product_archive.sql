@@ -0,0 +1,24 @@
+-- Soft delete: every product read filters on is_deleted = false, and the purge job scans
+-- is_deleted = true by last_modified, so both product indexes lead with is_deleted.
+
+DROP INDEX idx_product_category_name ON product;
+
+CREATE INDEX idx_product_deleted_category_name ON product (is_deleted, category_name);
+
+CREATE INDEX idx_product_deleted_last_modified ON product (is_deleted, last_modified);
+
+-- Long-deleted products are moved here by the purge job
+CREATE TABLE product_archive
+(
+    id            BIGINT       NOT NULL,
+    name          VARCHAR(255) NULL,
+    `description` VARCHAR(255) NULL,
+    image_url     VARCHAR(255) NULL,
+    price         DOUBLE       NULL,
+    category_id   BIGINT       NULL,
+    category_name VARCHAR(255) NULL,
+    created_at    datetime     NULL,
+    deleted_at    datetime     NULL,
+    archived_at   datetime     NULL,
+    CONSTRAINT pk_product_archive PRIMARY KEY (id)
+);
@@ -0,0 +1,14 @@
+-- Composite indexes for the hot queries; IndexUsageIntegrationTest checks the plans use them.
+-- password_reset_token(token) is already covered by uk_password_reset_token_token.
+
+-- Payment sync scheduler: status = ? and last_modified < ? order by created_at
+CREATE INDEX idx_payment_status_last_modified_created_at ON payment (status, last_modified, created_at);
+
+-- Gateway webhooks look payments up by transaction id
+CREATE INDEX idx_payment_transaction_id ON payment (transaction_id);
+
+-- Order history, optionally filtered by status, newest first
+CREATE INDEX idx_orders_user_status_order_date ON orders (user_id, status, order_date);
+
+-- Category stats subqueries: category_id = ? and is_deleted = false, then count/sum/min/max(price)
+CREATE INDEX idx_product_category_deleted_price ON product (category_id, is_deleted, price);
@@ -0,0 +1,11 @@
+-- Optimistic locking (@Version): every JPA update of these rows checks and increments the version,
+-- so two writers that read the same version can not both commit. Existing rows start at 0.
+
+ALTER TABLE cart
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE orders
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE payment
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
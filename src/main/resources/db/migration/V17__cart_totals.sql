@@ -0,0 +1,16 @@
+-- Per-cart totals maintained with atomic UPDATEs by every cart mutation, so a cart badge or
+-- mini-cart reads the cart row alone. Products without a price count as 0.0.
+
+ALTER TABLE cart
+    ADD COLUMN item_count   INT    NOT NULL DEFAULT 0,
+    ADD COLUMN total_amount DOUBLE NOT NULL DEFAULT 0;
+
+UPDATE cart c
+    JOIN (SELECT ci.cart_id,
+                 SUM(ci.quantity)                          AS item_count,
+                 SUM(ci.quantity * COALESCE(p.price, 0))   AS total_amount
+          FROM cart_item ci
+                   JOIN product p ON p.id = ci.product_id
+          GROUP BY ci.cart_id) t ON t.cart_id = c.id
+SET c.item_count   = t.item_count,
+    c.total_amount = t.total_amount;
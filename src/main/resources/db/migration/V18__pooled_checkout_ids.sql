@@ -0,0 +1,16 @@
+-- Ids of orders and order_item are assigned by Hibernate from blocks of 50 reserved in this
+-- table (pooled-lo: next_val is the first id of the next block), so checkout can batch its
+-- INSERTs. Both tables share the 'checkout' segment, which starts after every existing id.
+-- The AUTO_INCREMENT of the id columns stays in place but is no longer used.
+
+CREATE TABLE id_generator
+(
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT       NULL,
+    CONSTRAINT pk_id_generator PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'checkout',
+       GREATEST(COALESCE((SELECT MAX(id) FROM orders), 0),
+                COALESCE((SELECT MAX(id) FROM order_item), 0)) + 1;
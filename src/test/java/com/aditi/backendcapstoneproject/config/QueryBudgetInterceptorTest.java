@@ -0,0 +1,111 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.aditi.backendcapstoneproject.exception.QueryBudgetExceededException;
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryBudgetInterceptorTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.clearLimit();
+    }
+
+    @Test
+    void testFailMode_StatementOverBudgetFails() throws Exception {
+        // Given
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(2, true);
+        interceptor.preHandle(request, response, handler("defaultBudget"));
+        QueryCounter.statementPrepared();
+        QueryCounter.statementPrepared();
+
+        // When & Then
+        assertThatThrownBy(QueryCounter::statementPrepared)
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("GET /orders");
+    }
+
+    @Test
+    void testFailMode_AnnotatedBudgetOverridesDefault() throws Exception {
+        // Given
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(1, true);
+        interceptor.preHandle(request, response, handler("fiveStatements"));
+
+        // When & Then
+        assertThatCode(() -> {
+            for (int i = 0; i < 5; i++) {
+                QueryCounter.statementPrepared();
+            }
+        }).doesNotThrowAnyException();
+        assertThatThrownBy(QueryCounter::statementPrepared).isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void testFailMode_UnlimitedBudgetNeverFails() throws Exception {
+        // Given
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(1, true);
+        interceptor.preHandle(request, response, handler("unlimited"));
+
+        // When & Then
+        assertThatCode(() -> {
+            for (int i = 0; i < 100; i++) {
+                QueryCounter.statementPrepared();
+            }
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testLogMode_StatementsOverBudgetOnlyLog() throws Exception {
+        // Given
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(1, false);
+        interceptor.preHandle(request, response, handler("defaultBudget"));
+
+        // When & Then
+        assertThatCode(() -> {
+            QueryCounter.statementPrepared();
+            QueryCounter.statementPrepared();
+            interceptor.afterCompletion(request, response, handler("defaultBudget"), null);
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAfterCompletion_ClearsLimit() throws Exception {
+        // Given
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(0, true);
+        interceptor.preHandle(request, response, handler("defaultBudget"));
+
+        // When
+        interceptor.afterCompletion(request, response, handler("defaultBudget"), null);
+
+        // Then - statements outside of a request are not limited
+        assertThatCode(QueryCounter::statementPrepared).doesNotThrowAnyException();
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(method));
+    }
+
+    static class Handlers {
+
+        public void defaultBudget() {
+        }
+
+        @QueryBudget(5)
+        public void fiveStatements() {
+        }
+
+        @QueryBudget(QueryBudget.UNLIMITED)
+        public void unlimited() {
+        }
+    }
+}
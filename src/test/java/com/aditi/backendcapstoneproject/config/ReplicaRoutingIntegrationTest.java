@@ -0,0 +1,191 @@
+package com.aditi.backendcapstoneproject.config;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "replica"})
+class ReplicaRoutingIntegrationTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+
+    private static boolean schemaReplicated;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("productDBService")
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        if (!schemaReplicated) {
+            replicateSchema();
+            schemaReplicated = true;
+        }
+        setReplicaLag(null);
+        replicaRoutingDataSource.checkReplicaLag();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        setReplicaLag(null);
+        replicaRoutingDataSource.checkReplicaLag();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        assertThat(currentDatabase(true)).isEqualTo("REPLICADB");
+        assertThat(currentDatabase(false)).isEqualTo("PRIMARYDB");
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() throws SQLException {
+        // Given
+        setReplicaLag(30);
+
+        // When
+        replicaRoutingDataSource.checkReplicaLag();
+
+        // Then
+        assertThat(replicaRoutingDataSource.getAvailableReplicas()).isEmpty();
+        assertThat(currentDatabase(true)).isEqualTo("PRIMARYDB");
+        assertThat(meterRegistry.get("datasource.replica.available").tag("pool", "replica-1").gauge().value())
+                .isZero();
+
+        // When - the replica caught up again
+        setReplicaLag(1);
+        replicaRoutingDataSource.checkReplicaLag();
+
+        // Then
+        assertThat(replicaRoutingDataSource.getAvailableReplicas()).containsExactly("replica-1");
+        assertThat(currentDatabase(true)).isEqualTo("REPLICADB");
+    }
+
+    @Test
+    void testCatalogReadsUseReplica() throws SQLException {
+        // Given - a product committed on the primary that has not been replicated
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("Replica Books");
+            category.setCreatedAt(new Date());
+            category.setLastModified(new Date());
+            category = categoryRepository.save(category);
+
+            Product product = new Product();
+            product.setName("Replica Novel");
+            product.setCategory(category);
+            product.setCreatedAt(new Date());
+            product.setLastModified(new Date());
+            productRepository.save(product);
+        });
+
+        try {
+            // When & Then
+            assertThat(productService.getAllProducts(PageRequest.of(0, 10)).getTotalElements()).isZero();
+
+            setReplicaLag(30);
+            replicaRoutingDataSource.checkReplicaLag();
+            assertThat(productService.getAllProducts(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("delete from product");
+            jdbcTemplate.update("delete from category");
+        }
+    }
+
+    @Test
+    void testConnectionsAreCountedPerPool() {
+        // Given
+        double replicaBefore = connections("replica-1");
+
+        // When
+        currentDatabase(true);
+
+        // Then
+        assertThat(connections("replica-1")).isEqualTo(replicaBefore + 1);
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge()).isNotNull();
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+    }
+
+    private double connections(String pool) {
+        return meterRegistry.get("datasource.routing.connections").tag("pool", pool).counter().count();
+    }
+
+    // Stand-in for replication: creates the primary's tables, without data, on the replica
+    private static void replicateSchema() throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+            while (script.next()) {
+                statements.add(script.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            for (String sql : statements) {
+                if (!sql.startsWith("CREATE USER")) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static void setReplicaLag(Integer seconds) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("delete from replica_lag");
+            if (seconds != null) {
+                statement.executeUpdate("insert into replica_lag (seconds) values (" + seconds + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.aditi.backendcapstoneproject.controller;
+
+import com.aditi.backendcapstoneproject.component.DbConnectionChecker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// No test transaction, so the pool's active count only shows connections that were not returned
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DbConnectionChecker dbConnectionChecker;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetDiagnostics_AsAdmin() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/admin/diagnostics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.connectionPools[0].pool").value("primary"))
+                .andExpect(jsonPath("$.connectionPools[0].maximum").value(10))
+                .andExpect(jsonPath("$.connectionPools[0].minimumIdle").value(1))
+                .andExpect(jsonPath("$.connectionPools[0].timeouts").value(0))
+                .andExpect(jsonPath("$.connectionPools[0].acquired").isNumber())
+                .andExpect(jsonPath("$.cacheRegions[*].region").value(hasItem("product")))
+                .andExpect(jsonPath("$.cacheRegions[*].region").value(hasItem("category")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetDiagnostics_RequiresAdmin() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/admin/diagnostics"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testGetDiagnostics_Unauthorized() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/admin/diagnostics"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testStartupCheck_ReturnsConnectionToPool() throws Exception {
+        // When
+        dbConnectionChecker.printDbUsed();
+        dbConnectionChecker.printDbUsed();
+
+        // Then
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+        assertThat(pool.getLeakDetectionThreshold()).isEqualTo(5000);
+    }
+}
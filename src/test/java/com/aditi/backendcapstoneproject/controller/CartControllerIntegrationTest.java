@@ -1,6 +1,9 @@
 package com.aditi.backendcapstoneproject.controller;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
 import com.aditi.backendcapstoneproject.dto.AddToCartRequestDto;
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.ProductRequestDto;
 import com.aditi.backendcapstoneproject.model.Category;
 import com.aditi.backendcapstoneproject.model.Product;
 import com.aditi.backendcapstoneproject.model.User;
@@ -9,19 +12,27 @@ import com.aditi.backendcapstoneproject.repository.ProductRepository;
 import com.aditi.backendcapstoneproject.repository.UserRepository;
 import com.aditi.backendcapstoneproject.service.JwtService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
+import java.util.List;
+
+import static com.aditi.backendcapstoneproject.controller.StatementCounts.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -51,12 +62,23 @@ class CartControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CartCacheIndex cartCacheIndex;
+
     private User testUser;
     private Product testProduct;
     private UserDetails userDetails;
 
     @BeforeEach
     void setUp() {
+        // Carts written through by earlier, rolled back tests
+        cacheManager.getCache("carts").clear();
         userRepository.deleteAll();
         productRepository.deleteAll();
         categoryRepository.deleteAll();
@@ -139,6 +161,227 @@ class CartControllerIntegrationTest {
                 .andExpect(jsonPath("$.items").isArray());
     }
 
+    @Test
+    void testGetCart_LoadsCartInOneStatement() throws Exception {
+        // Given - three items of different products
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Accessory " + i);
+            product.setPrice(10.0);
+            product.setCategory(testProduct.getCategory());
+            product.setCreatedAt(new Date());
+            product.setLastModified(new Date());
+            product = productRepository.save(product);
+
+            AddToCartRequestDto requestDto = new AddToCartRequestDto();
+            requestDto.setProductId(product.getId());
+            requestDto.setQuantity(1);
+            mockMvc.perform(post("/cart/items")
+                    .with(user(userDetails))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(requestDto)));
+        }
+
+        cacheManager.getCache("carts").evict(testUser.getEmail());
+
+        // When & Then - cart, items and products in one fetch join
+        assertStatements(entityManager, 1, () -> mockMvc.perform(get("/cart")
+                        .with(user(userDetails))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.totalAmount").value(30.0));
+    }
+
+    @Test
+    void testGetCart_ServedFromCacheAfterMutation() throws Exception {
+        // Given - the add writes the cart it returns into the carts cache
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(testProduct.getId());
+        requestDto.setQuantity(2);
+        mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        assertStatements(entityManager, 0, () -> mockMvc.perform(get("/cart")
+                        .with(user(userDetails))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.totalItems").value(2));
+    }
+
+    @Test
+    void testGetCart_PriceChangeRefreshesCachedCart() throws Exception {
+        // Given - a cached cart showing the laptop
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(testProduct.getId());
+        requestDto.setQuantity(2);
+        mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(jsonPath("$.items[0].productPrice").value(999.99));
+
+        ProductRequestDto priceChange = new ProductRequestDto();
+        priceChange.setPrice(899.99);
+        mockMvc.perform(patch("/products/{id}", testProduct.getId())
+                        .with(user("admin@example.com").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(priceChange)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/cart")
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].productPrice").value(899.99))
+                .andExpect(jsonPath("$.totalAmount").value(1799.98));
+    }
+
+    @Test
+    void testGetCart_CartLeavingFullIndexIsEvicted() throws Exception {
+        // Given - an index bounded to one cart, holding the cached cart of the test user
+        ReflectionTestUtils.setField(cartCacheIndex, "maxCarts", 1);
+        try {
+            AddToCartRequestDto requestDto = new AddToCartRequestDto();
+            requestDto.setProductId(testProduct.getId());
+            requestDto.setQuantity(2);
+            mockMvc.perform(post("/cart/items")
+                            .with(user(userDetails))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDto)))
+                    .andExpect(status().isOk());
+            assertThat(cacheManager.getCache("carts").get(testUser.getEmail())).isNotNull();
+
+            // When - another cart is cached
+            CartResponseDto otherCart = new CartResponseDto();
+            otherCart.setItems(List.of());
+            cartCacheIndex.cartCached("other@example.com", otherCart);
+
+            // Then - the test user's cart leaves the index and the cache, so no stale copy outlives it
+            assertThat(cartCacheIndex.size()).isEqualTo(1);
+            assertThat(cacheManager.getCache("carts").get(testUser.getEmail())).isNull();
+        } finally {
+            ReflectionTestUtils.setField(cartCacheIndex, "maxCarts", 100000);
+        }
+    }
+
+    @Test
+    void testDeleteProduct_EvictsOnlyCartsShowingIt() throws Exception {
+        // Given - the test user's cached cart shows the laptop, another cached cart does not
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(testProduct.getId());
+        requestDto.setQuantity(2);
+        mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+        CartResponseDto otherCart = new CartResponseDto();
+        otherCart.setItems(List.of());
+        cartCacheIndex.cartCached("other@example.com", otherCart);
+        cacheManager.getCache("carts").put("other@example.com", otherCart);
+
+        // When
+        mockMvc.perform(delete("/products/{id}", testProduct.getId())
+                        .with(user("admin@example.com").roles("ADMIN")))
+                .andExpect(status().is2xxSuccessful());
+
+        // Then
+        assertThat(cacheManager.getCache("carts").get(testUser.getEmail())).isNull();
+        assertThat(cacheManager.getCache("carts").get("other@example.com")).isNotNull();
+        mockMvc.perform(get("/cart")
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void testGetCart_ProductChangeOnAnotherInstanceKeepsCachedCart() throws Exception {
+        // Given - a cart cached through this instance, and the index of a second instance
+        // sharing the carts cache
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(testProduct.getId());
+        requestDto.setQuantity(2);
+        mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+        CartCacheIndex otherInstance = new CartCacheIndex(cacheManager);
+
+        // When - the product changes on the other instance
+        otherInstance.productChanged(testProduct.getId());
+
+        // Then - the index is per instance: the cart stays cached until its TTL drops it
+        assertThat(cacheManager.getCache("carts").get(testUser.getEmail())).isNotNull();
+    }
+
+    @Test
+    void testGetCartSummary_TotalsFollowEveryMutation() throws Exception {
+        // Given - adds, a quantity update, a removal and a batch
+        Product cable = saveProduct("Cable", 5.0);
+        Product charger = saveProduct("Charger", 25.0);
+        Long laptopItemId = objectMapper.readTree(addToCart(testProduct, 2)).get("items").get(0).get("id").asLong();
+        addToCart(cable, 3);
+        Long chargerItemId = objectMapper.readTree(addToCart(charger, 1)).get("items").get(2).get("id").asLong();
+
+        mockMvc.perform(put("/cart/items/{itemId}", laptopItemId)
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 1}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/cart/items/{itemId}", chargerItemId)
+                        .with(user(userDetails)))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/cart")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": [{\"op\": \"ADD\", \"productId\": " + cable.getId() + ", \"quantity\": 1}]}"))
+                .andExpect(status().isOk());
+
+        // When & Then - the cart row alone
+        assertStatements(entityManager, 1, () -> mockMvc.perform(get("/cart/summary")
+                        .with(user(userDetails))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cartId").exists())
+                .andExpect(jsonPath("$.totalItems").value(5))
+                .andExpect(jsonPath("$.totalAmount").value(closeTo(1019.99, 0.001)));
+    }
+
+    @Test
+    void testGetCartSummary_FollowsPriceChange() throws Exception {
+        // Given
+        addToCart(testProduct, 2);
+
+        ProductRequestDto priceChange = new ProductRequestDto();
+        priceChange.setPrice(899.99);
+        mockMvc.perform(patch("/products/{id}", testProduct.getId())
+                        .with(user("admin@example.com").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(priceChange)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/cart/summary")
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(2))
+                .andExpect(jsonPath("$.totalAmount").value(closeTo(1799.98, 0.001)));
+    }
+
+    @Test
+    void testGetCartSummary_NoCart() throws Exception {
+        // When & Then - no cart is created for a summary
+        mockMvc.perform(get("/cart/summary")
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(0))
+                .andExpect(jsonPath("$.totalAmount").value(0.0));
+    }
+
     @Test
     void testGetCart_Unauthorized() throws Exception {
         // When & Then
@@ -222,5 +465,99 @@ class CartControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalItems").value(0));
     }
-}
 
+    @Test
+    void testApplyOperations_FoldsOperationsIntoOneWritePerLine() throws Exception {
+        // Given - the laptop is in the cart, two accessories are not
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(testProduct.getId());
+        requestDto.setQuantity(1);
+        mockMvc.perform(post("/cart/items")
+                .with(user(userDetails))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto)));
+        Product cable = saveProduct("Cable", 5.0);
+        Product charger = saveProduct("Charger", 25.0);
+
+        String operations = "{\"operations\": ["
+                + "{\"op\": \"ADD\", \"productId\": " + cable.getId() + ", \"quantity\": 2},"
+                + "{\"op\": \"UPDATE\", \"productId\": " + testProduct.getId() + ", \"quantity\": 3},"
+                + "{\"op\": \"ADD\", \"productId\": " + charger.getId() + ", \"quantity\": 1},"
+                + "{\"op\": \"REMOVE\", \"productId\": " + charger.getId() + "},"
+                + "{\"op\": \"ADD\", \"productId\": " + cable.getId() + ", \"quantity\": 1}"
+                + "]}";
+
+        // When & Then - user, added products, cart, items and their products, the version-checked
+        // cart update, then the reloaded items fetched with their products, and their cart;
+        // the item writes themselves are JDBC batches
+        assertStatements(entityManager, 8, () -> mockMvc.perform(patch("/cart")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.totalItems").value(6))
+                .andExpect(jsonPath("$.totalAmount").value(999.99 * 3 + 5.0 * 3));
+    }
+
+    @Test
+    void testApplyOperations_UnknownItemRejectsAllOperations() throws Exception {
+        // Given
+        String operations = "{\"operations\": ["
+                + "{\"op\": \"ADD\", \"productId\": " + testProduct.getId() + ", \"quantity\": 2},"
+                + "{\"op\": \"REMOVE\", \"itemId\": 999999}"
+                + "]}";
+
+        // When & Then
+        mockMvc.perform(patch("/cart")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/cart")
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(0));
+    }
+
+    @Test
+    void testApplyOperations_InvalidRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/cart")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": []}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/cart")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": [{\"op\": \"UPDATE\", \"quantity\": 2}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String addToCart(Product product, int quantity) throws Exception {
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(product.getId());
+        requestDto.setQuantity(quantity);
+        return mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private Product saveProduct(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCategory(testProduct.getCategory());
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,251 @@
+package com.aditi.backendcapstoneproject.controller;
+
+import com.aditi.backendcapstoneproject.dto.AddToCartRequestDto;
+import com.aditi.backendcapstoneproject.dto.LoginRequestDto;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.repository.UserRepository;
+import com.aditi.backendcapstoneproject.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+import static com.aditi.backendcapstoneproject.controller.StatementCounts.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class GuestCartControllerIntegrationTest {
+
+    private static final String CART_TOKEN = GuestCartController.CART_TOKEN_HEADER;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User testUser;
+    private UserDetails userDetails;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        // Carts written through by earlier, rolled back tests
+        cacheManager.getCache("carts").clear();
+
+        testUser = new User();
+        testUser.setEmail("guest-merge@example.com");
+        testUser.setPassword(passwordEncoder.encode("password123"));
+        testUser.setName("Guest Merge");
+        testUser.setRole("USER");
+        testUser.setCreatedAt(new Date());
+        testUser.setLastModified(new Date());
+        testUser.setDeleted(false);
+        testUser = userRepository.save(testUser);
+
+        userDetails = org.springframework.security.core.userdetails.User.builder()
+                .username(testUser.getEmail())
+                .password(testUser.getPassword())
+                .authorities("ROLE_" + testUser.getRole())
+                .build();
+
+        laptop = saveProduct("Guest Laptop", 999.99);
+        mouse = saveProduct("Guest Mouse", 20.0);
+    }
+
+    @Test
+    void testAddItem_WithoutToken_StartsGuestCartWithoutDatabaseWrites() throws Exception {
+        // Given
+        Integer carts = count("select count(*) from cart");
+        Integer cartItems = count("select count(*) from cart_item");
+
+        // When & Then - the product lookups only, no cart or cart_item row
+        String token = assertStatements(entityManager, 2, () -> mockMvc.perform(post("/cart/guest/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(addRequest(laptop, 2))))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(CART_TOKEN))
+                .andExpect(jsonPath("$.cartId").doesNotExist())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.totalItems").value(2))
+                .andExpect(jsonPath("$.totalAmount").value(1999.98))
+                .andReturn().getResponse().getHeader(CART_TOKEN);
+
+        assertThat(token).isNotBlank();
+        assertThat(count("select count(*) from cart")).isEqualTo(carts);
+        assertThat(count("select count(*) from cart_item")).isEqualTo(cartItems);
+    }
+
+    @Test
+    void testAddItem_WithToken_AddsToSameGuestCart() throws Exception {
+        // Given
+        String token = addAsGuest(null, laptop, 1);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/cart/guest/items")
+                        .header(CART_TOKEN, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(addRequest(laptop, 2)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getHeader(CART_TOKEN)).isEqualTo(token);
+        mockMvc.perform(get("/cart/guest").header(CART_TOKEN, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].quantity").value(3));
+    }
+
+    @Test
+    void testGuestCart_LoginTokenIsNotACartToken() throws Exception {
+        // Given - a guest cart, and the user's login token, signed with the same key
+        addAsGuest(null, laptop, 1);
+        String loginToken = jwtService.generateToken(userDetails);
+
+        // When & Then
+        mockMvc.perform(get("/cart/guest").header(CART_TOKEN, loginToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+        mockMvc.perform(get("/cart/guest").header(CART_TOKEN, "not-a-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    void testUpdateAndRemoveItem() throws Exception {
+        // Given
+        String token = addAsGuest(null, laptop, 1);
+        addAsGuest(token, mouse, 1);
+
+        // When & Then
+        mockMvc.perform(put("/cart/guest/items/{productId}", mouse.getId())
+                        .header(CART_TOKEN, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(5));
+        mockMvc.perform(delete("/cart/guest/items/{productId}", laptop.getId())
+                        .header(CART_TOKEN, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.totalAmount").value(80.0));
+        mockMvc.perform(delete("/cart/guest/items/{productId}", laptop.getId())
+                        .header(CART_TOKEN, token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testLogin_MergesGuestCartIntoUserCart() throws Exception {
+        // Given - the user's cart holds a laptop, the guest cart 2 laptops and a mouse
+        mockMvc.perform(post("/cart/items")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(addRequest(laptop, 1)))
+                .andExpect(status().isOk());
+        String token = addAsGuest(null, laptop, 2);
+        addAsGuest(token, mouse, 1);
+
+        LoginRequestDto login = new LoginRequestDto();
+        login.setEmail(testUser.getEmail());
+        login.setPassword("password123");
+
+        // When
+        mockMvc.perform(post("/auth/login")
+                        .header(CART_TOKEN, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+
+        // Then - quantities of the same product add up, and the guest cart is gone
+        mockMvc.perform(get("/cart").with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.totalItems").value(4));
+        mockMvc.perform(get("/cart/summary").with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(4));
+        mockMvc.perform(get("/cart/guest").header(CART_TOKEN, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    private Integer count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private String addAsGuest(String token, Product product, int quantity) throws Exception {
+        var request = post("/cart/guest/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addRequest(product, quantity));
+        if (token != null) {
+            request.header(CART_TOKEN, token);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(CART_TOKEN);
+    }
+
+    private String addRequest(Product product, int quantity) throws Exception {
+        AddToCartRequestDto requestDto = new AddToCartRequestDto();
+        requestDto.setProductId(product.getId());
+        requestDto.setQuantity(quantity);
+        return objectMapper.writeValueAsString(requestDto);
+    }
+
+    private Product saveProduct(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        product.setDeleted(false);
+        return productRepository.save(product);
+    }
+}
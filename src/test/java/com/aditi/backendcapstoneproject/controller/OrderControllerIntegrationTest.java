@@ -5,21 +5,33 @@ import com.aditi.backendcapstoneproject.enums.OrderStatus;
 import com.aditi.backendcapstoneproject.model.*;
 import com.aditi.backendcapstoneproject.repository.*;
 import com.aditi.backendcapstoneproject.service.JwtService;
+import com.aditi.backendcapstoneproject.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
+import static com.aditi.backendcapstoneproject.controller.StatementCounts.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -51,9 +63,24 @@ class OrderControllerIntegrationTest {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
     private User testUser;
     private Product testProduct;
     private Cart testCart;
@@ -124,6 +151,11 @@ class OrderControllerIntegrationTest {
         cartItemRepository.save(testCartItem);
     }
 
+    @AfterEach
+    void tearDown() {
+        useSetBasedCheckout(true);
+    }
+
     @Test
     void testCreateOrder_Success() throws Exception {
         // Given
@@ -142,6 +174,80 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalAmount").value(1999.98));
     }
 
+    @Test
+    void testCreateOrder_FromCartItems_FiftyLines_InsertsAreBatched() throws Exception {
+        // Given - a cart of 50 lines
+        useSetBasedCheckout(false);
+        for (int i = 1; i < 50; i++) {
+            addToCart(product("Line " + i, 1.0), 1);
+        }
+
+        // When & Then - user, cart, its items, their products, the items again for the delete,
+        // the order INSERT, one batch of 50 order_item INSERTs, one batch of 50 cart_item DELETEs,
+        // the cart totals and the cart version (the id block comes from a separate connection)
+        assertStatements(entityManager, 10, () -> mockMvc.perform(post("/orders")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(jsonPath("$.totalAmount").value(2048.98));
+        assertThat(orderItemRepository.count()).isEqualTo(50);
+    }
+
+    @Test
+    void testCreateOrder_SetBased_FiftyLines_CopiesLinesInSql() throws Exception {
+        // Given - a cart of 50 lines
+        for (int i = 1; i < 50; i++) {
+            addToCart(product("Line " + i, 1.0), 1);
+        }
+
+        // When & Then - no cart line is loaded: user, the line count the order item ids are
+        // reserved for (before the transaction, through JDBC), cart, line count, the order
+        // INSERT, one INSERT ... SELECT, the total UPDATE, the order reload, one cart_item
+        // DELETE, the cart totals and version, then the order items for the response
+        assertStatements(entityManager, 12, () -> mockMvc.perform(post("/orders")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequest())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(jsonPath("$.totalAmount").value(2048.98))
+                .andExpect(jsonPath("$.items[49].productName").value("Line 49"));
+        assertThat(orderItemRepository.count()).isEqualTo(50);
+    }
+
+    @Test
+    void testCreateOrder_SetBasedAndFromCartItems_WriteTheSameOrder() throws Exception {
+        // Given - the same cart (2 laptops and these lines) checked out by each path
+        List<Product> products = List.of(product("Cable", 4.99), product("Charger", 19.95), product("Sticker", 0.1));
+
+        useSetBasedCheckout(false);
+        for (int i = 0; i < products.size(); i++) {
+            addToCart(products.get(i), i + 1);
+        }
+        JsonNode fromCartItems = checkout();
+
+        useSetBasedCheckout(true);
+        addToCart(testProduct, 2);
+        for (int i = 0; i < products.size(); i++) {
+            addToCart(products.get(i), i + 1);
+        }
+        JsonNode setBased = checkout();
+
+        // Then - the same response and rows, apart from ids and dates
+        assertThat(setBased.get("orderId").asLong()).isNotEqualTo(fromCartItems.get("orderId").asLong());
+        assertThat(withoutIdsAndDates(setBased)).isEqualTo(withoutIdsAndDates(fromCartItems));
+        assertThat(orderRow(setBased)).isEqualTo(orderRow(fromCartItems));
+        assertThat(orderItemRows(setBased)).isEqualTo(orderItemRows(fromCartItems));
+
+        // and the cart is emptied alike
+        assertThat(cartItemRepository.findByCart(testCart)).isEmpty();
+        assertThat(jdbcTemplate.queryForMap("select item_count, total_amount from cart where id = ?", testCart.getId()))
+                .containsEntry("ITEM_COUNT", 0)
+                .containsEntry("TOTAL_AMOUNT", 0.0);
+    }
+
     @Test
     void testGetOrders_WithPagination() throws Exception {
         // Given - First create an order
@@ -163,6 +269,48 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.content.length()").value(1));
     }
 
+    @Test
+    void testGetOrders_StatementCountDoesNotGrowWithOrders() throws Exception {
+        // Given - three orders, each with an item of a different product
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(10.0 + i);
+            product.setCategory(testProduct.getCategory());
+            product.setCreatedAt(new Date());
+            product.setLastModified(new Date());
+            product = productRepository.save(product);
+
+            Order order = new Order();
+            order.setUser(testUser);
+            order.setOrderDate(new Date());
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotalAmount(product.getPrice());
+            order.setDeliveryAddress("123 Test Street");
+            order.setCreatedAt(new Date());
+            order.setLastModified(new Date());
+            order = orderRepository.save(order);
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setPrice(product.getPrice());
+            item.setCreatedAt(new Date());
+            item.setLastModified(new Date());
+            orderItemRepository.save(item);
+        }
+
+        // When & Then - user, the orders (partial page, so no count query), the items of all orders, their products
+        assertStatements(entityManager, 4, () -> mockMvc.perform(get("/orders")
+                        .with(user(userDetails))
+                        .param("page", "0")
+                        .param("size", "10")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].items[0].productName").exists());
+    }
+
     @Test
     void testGetOrderById_Success() throws Exception {
         // Given - First create an order
@@ -229,6 +377,43 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("SHIPPED"));
     }
 
+    @Test
+    void testUpdateOrderStatus_StaleVersion_Conflict() throws Exception {
+        // Given - an order, read by an admin at its current version
+        CreateOrderRequestDto requestDto = new CreateOrderRequestDto();
+        requestDto.setDeliveryAddress("123 Test Street");
+
+        String response = mockMvc.perform(post("/orders")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long orderId = objectMapper.readTree(response).get("orderId").asLong();
+        long version = objectMapper.readTree(response).get("version").asLong();
+
+        mockMvc.perform(patch("/orders/{orderId}/status", orderId)
+                        .with(user("admin@example.com").roles("ADMIN"))
+                        .param("status", OrderStatus.SHIPPED.name())
+                        .param("version", String.valueOf(version)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        // When & Then - a second admin still holding the old version does not overwrite SHIPPED
+        mockMvc.perform(patch("/orders/{orderId}/status", orderId)
+                        .with(user("admin@example.com").roles("ADMIN"))
+                        .param("status", OrderStatus.CANCELLED.name())
+                        .param("version", String.valueOf(version)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/orders/{orderId}", orderId)
+                        .with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SHIPPED"));
+    }
+
     @Test
     void testUpdateOrderStatus_AsNonAdmin_Forbidden() throws Exception {
         // Given - create an order as regular user
@@ -251,5 +436,62 @@ class OrderControllerIntegrationTest {
                         .param("status", OrderStatus.CANCELLED.name()))
                 .andExpect(status().isForbidden());
     }
-}
 
+    private void useSetBasedCheckout(boolean setBased) {
+        OrderService target = AopTestUtils.getTargetObject(orderService);
+        ReflectionTestUtils.setField(target, "setBasedCheckout", setBased);
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCategory(testProduct.getCategory());
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        return productRepository.save(product);
+    }
+
+    private void addToCart(Product product, int quantity) {
+        CartItem item = new CartItem();
+        item.setCart(testCart);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setCreatedAt(new Date());
+        item.setLastModified(new Date());
+        cartItemRepository.save(item);
+    }
+
+    private String orderRequest() throws Exception {
+        CreateOrderRequestDto requestDto = new CreateOrderRequestDto();
+        requestDto.setDeliveryAddress("123 Test Street");
+        return objectMapper.writeValueAsString(requestDto);
+    }
+
+    private JsonNode checkout() throws Exception {
+        String response = mockMvc.perform(post("/orders")
+                        .with(user(userDetails))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequest()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode withoutIdsAndDates(JsonNode order) {
+        ObjectNode copy = order.deepCopy();
+        copy.remove(List.of("orderId", "orderDate"));
+        copy.get("items").forEach(item -> ((ObjectNode) item).remove("id"));
+        return copy;
+    }
+
+    private Map<String, Object> orderRow(JsonNode order) {
+        return jdbcTemplate.queryForMap("select user_id, status, delivery_address, total_amount, version, is_deleted " +
+                "from orders where id = ?", order.get("orderId").asLong());
+    }
+
+    private List<Map<String, Object>> orderItemRows(JsonNode order) {
+        return jdbcTemplate.queryForList("select product_id, quantity, price, name, is_deleted " +
+                "from order_item where order_id = ? order by id", order.get("orderId").asLong());
+    }
+}
@@ -5,21 +5,38 @@ import com.aditi.backendcapstoneproject.model.Category;
 import com.aditi.backendcapstoneproject.model.Product;
 import com.aditi.backendcapstoneproject.repository.CategoryRepository;
 import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.service.SoftDeletePurgeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import org.springframework.http.MediaType;
 
+import static com.aditi.backendcapstoneproject.controller.StatementCounts.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -44,8 +61,26 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryController categoryController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SoftDeletePurgeService softDeletePurgeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
+        // Products are written straight through the repositories below, so drop cached responses
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
         productRepository.deleteAll();
         categoryRepository.deleteAll();
 
@@ -95,6 +130,17 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.price").value(999.99));
     }
 
+    @Test
+    void testGetProducts_StatementCount() throws Exception {
+        // When & Then - only the page query: it is not full, so no count query, and the category is on the row
+        assertStatements(entityManager, 1, () -> mockMvc.perform(get("/products")
+                        .param("page", "0")
+                        .param("size", "10")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].category").value("Electronics"));
+    }
+
     @Test
     void testGetProductById_NotFound() throws Exception {
         // When & Then
@@ -202,5 +248,506 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.price").value(899.99));
     }
 
-}
+    @Test
+    void testGetProductById_NotModifiedWhenEtagMatches() throws Exception {
+        // Given
+        Product product = productRepository.findAll().get(0);
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/products/{id}", product.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetProductById_EtagFollowsChangeMadeElsewhere() throws Exception {
+        // Given - an ETag issued for the product
+        Product product = productRepository.findAll().get(0);
+        String etag = mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When - another instance renames it and evicts the shared caches
+        jdbcTemplate.update("update product set name = 'Renamed Laptop', last_modified = ? where id = ?",
+                new Date(product.getLastModified().getTime() + 5000), product.getId());
+        cacheManager.getCache("productsById").clear();
+        cacheManager.getCache("catalogResponses").clear();
+        entityManager.getEntityManagerFactory().getCache().evict(Product.class);
+        entityManager.clear();
+
+        // Then
+        mockMvc.perform(get("/products/{id}", product.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.name").value("Renamed Laptop"));
+    }
+
+    @Test
+    void testGetProductById_EtagUsesSecondsOfLastModified() throws Exception {
+        // Given
+        Product product = productRepository.findAll().get(0);
+
+        // When & Then - the datetime column keeps whole seconds
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag",
+                        "\"product-" + product.getId() + "-" + product.getLastModified().getTime() / 1000 + "\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetAllProducts_EtagChangesAfterProductUpdate() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        Product existingProduct = productRepository.findAll().get(0);
+        ProductRequestDto requestDto = new ProductRequestDto();
+        requestDto.setPrice(899.99);
+        mockMvc.perform(patch("/products/{id}", existingProduct.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.content").isArray());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetProductById_ServedFromResponseCacheUntilProductUpdate() throws Exception {
+        // Given
+        Product product = productRepository.findAll().get(0);
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Laptop"));
+
+        // A write that bypasses ProductDBService is not visible through the cached bytes
+        product.setName("Renamed Directly");
+        productRepository.saveAndFlush(product);
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("Laptop"));
+
+        // When
+        ProductRequestDto requestDto = new ProductRequestDto();
+        requestDto.setName("Gaming Laptop");
+        mockMvc.perform(patch("/products/{id}", product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Gaming Laptop"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetCategoriesWithStats_MaintainedOnProductWrites() throws Exception {
+        // Given - two products in a new category
+        Long headphonesId = createProduct("Headphones", 100.0, "Stats Audio");
+        Long speakerId = createProduct("Speaker", 300.0, "Stats Audio");
+
+        mockMvc.perform(get("/categories").param("withStats", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].productCount").value(2))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].minPrice").value(100.0))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].maxPrice").value(300.0))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].avgPrice").value(200.0));
+
+        // When - the max price drops and the other product moves to another category
+        mockMvc.perform(patch("/products/{id}", speakerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 50.0}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/products/{id}", headphonesId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\": \"Stats Video\"}"))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/categories").param("withStats", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].productCount").value(1))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].minPrice").value(50.0))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].maxPrice").value(50.0))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Video')].productCount").value(1))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Video')].avgPrice").value(100.0))
+                .andExpect(jsonPath("$[?(@.name == 'Stats Video')].lastUpdated").exists());
+
+        mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Stats Audio')].productCount").isEmpty());
+    }
+
+    @Test
+    void testGetProductsByCategoryName_Paginated() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/categories/{name}/products", "Electronics")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    void testGetProductsByCategoryName_FollowsCursor() throws Exception {
+        // Given
+        String firstPage = mockMvc.perform(get("/categories/{name}/products", "Electronics")
+                        .param("cursor", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Laptop"))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        long nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asLong();
+
+        // When & Then
+        mockMvc.perform(get("/categories/{name}/products", "Electronics")
+                        .param("cursor", String.valueOf(nextCursor))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Smartphone"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testStreamProductsByCategoryName() throws Exception {
+        // When & Then - served asynchronously as NDJSON
+        MvcResult result = mockMvc.perform(get("/categories/{name}/products/stream", "Electronics"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        // The async body runs outside the test transaction, so write it on this thread to see the test data
+        StreamingResponseBody body = categoryController
+                .streamProductsByCategoryName("Electronics", new ServletWebRequest(new MockHttpServletRequest()))
+                .getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("name").asText()).isEqualTo("Laptop");
+        assertThat(objectMapper.readTree(lines[1]).get("name").asText()).isEqualTo("Smartphone");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkImportProducts_Csv() throws Exception {
+        // Given
+        String csv = "name,description,price,imageUrl,category\n"
+                + "Tablet,\"10\"\" screen, 64GB\",299.99,https://example.com/tablet.jpg,Electronics\n"
+                + ",Missing name,10.0,,Electronics\n"
+                + "Monitor,4K monitor,not-a-price,,Electronics\n"
+                + "Keyboard,Mechanical keyboard,89.5,,Electronics\n";
+
+        // When & Then
+        mockMvc.perform(post("/products/bulk")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("name is required"))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("Invalid price: not-a-price"));
+
+        mockMvc.perform(get("/categories/{name}/products", "Electronics").param("sort", "id,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.content[2].description").value("10\" screen, 64GB"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkImportProducts_Ndjson() throws Exception {
+        // Given
+        String ndjson = "{\"name\": \"Tablet\", \"price\": 299.99, \"category\": \"Electronics\"}\n"
+                + "{\"name\": \"Broken\"\n"
+                + "{\"name\": \"Charger\", \"price\": -1, \"category\": \"Electronics\"}\n";
+
+        // When & Then
+        mockMvc.perform(post("/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[1].message").value("price must not be negative"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testBulkImportProducts_RequiresAdmin() throws Exception {
+        mockMvc.perform(post("/products/bulk")
+                        .contentType("text/csv")
+                        .content("name,category\nTablet,Electronics\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkUpdatePrices_ByCategoryPercentage() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/products/bulk/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\": \"Electronics\", \"percentage\": 10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        // Set-based update bypasses the persistence context, so read the rows directly
+        assertThat(jdbcTemplate.queryForList("select price from product order by price", Double.class))
+                .containsExactly(769.99, 1099.99);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkUpdatePrices_EvictsOnlyUpdatedProducts() throws Exception {
+        // Given - both products cached by id
+        Product laptop = productRepository.findAll().get(0);
+        Product smartphone = productRepository.findAll().get(1);
+        mockMvc.perform(get("/products/{id}", laptop.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/products/{id}", smartphone.getId())).andExpect(status().isOk());
+        Cache productsById = cacheManager.getCache("productsById");
+
+        // When
+        mockMvc.perform(patch("/products/bulk/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prices\": {\"" + laptop.getId() + "\": 899.0, \"999999\": 5.0}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        // Then
+        assertThat(productsById.get(laptop.getId())).isNull();
+        assertThat(productsById.get(smartphone.getId())).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("select price from product where id = ?", Double.class, laptop.getId()))
+                .isEqualTo(899.0);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkUpdatesByIds_SkipDeletedProducts() throws Exception {
+        // Given - the smartphone is soft deleted
+        Product laptop = productRepository.findAll().get(0);
+        Product smartphone = productRepository.findAll().get(1);
+        jdbcTemplate.update("update product set is_deleted = true where id = ?", smartphone.getId());
+
+        // When & Then - only the laptop is changed and counted
+        mockMvc.perform(patch("/products/bulk/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prices\": {\"" + laptop.getId() + "\": 899.0, \"" + smartphone.getId() + "\": 5.0}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        mockMvc.perform(patch("/products/bulk/category")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\": [" + laptop.getId() + ", " + smartphone.getId() + "], \"toCategory\": \"Bulk Accessories\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        assertThat(jdbcTemplate.queryForMap("select price, category_name from product where id = ?", smartphone.getId()))
+                .containsEntry("PRICE", smartphone.getPrice())
+                .containsEntry("CATEGORY_NAME", "Electronics");
+        assertThat(jdbcTemplate.queryForMap("select price, category_name from product where id = ?", laptop.getId()))
+                .containsEntry("PRICE", 899.0)
+                .containsEntry("CATEGORY_NAME", "Bulk Accessories");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkMoveProducts_FromCategory() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/products/bulk/category")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromCategory\": \"Electronics\", \"toCategory\": \"Bulk Gadgets\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        assertThat(jdbcTemplate.queryForList(
+                "select c.name from product p join category c on p.category_id = c.id", String.class))
+                .containsOnly("Bulk Gadgets");
+        assertThat(jdbcTemplate.queryForList("select category_name from product", String.class))
+                .containsOnly("Bulk Gadgets");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkMoveProducts_WithoutSource() throws Exception {
+        mockMvc.perform(patch("/products/bulk/category")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toCategory\": \"Bulk Gadgets\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetProductsByCategoryName_ReadsDenormalizedName() throws Exception {
+        // Given
+        assertThat(jdbcTemplate.queryForList("select category_name from product", String.class))
+                .containsOnly("Electronics");
+
+        // When & Then
+        mockMvc.perform(get("/categories/{name}/products", "Electronics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].category").value("Electronics"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testRenameCategory_UpdatesProducts() throws Exception {
+        // Given
+        Long productId = productRepository.findAll().get(0).getId();
+
+        // When
+        mockMvc.perform(patch("/categories/{name}", "Electronics")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Devices\", \"description\": \"Gadgets\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Devices"))
+                .andExpect(jsonPath("$.description").value("Gadgets"));
+
+        // Then
+        assertThat(jdbcTemplate.queryForList("select category_name from product", String.class))
+                .containsOnly("Devices");
+        mockMvc.perform(get("/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("Devices"));
+        mockMvc.perform(get("/categories/{name}/products", "Devices"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+        mockMvc.perform(get("/categories/{name}/products", "Electronics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testRenameCategory_NotFound() throws Exception {
+        mockMvc.perform(patch("/categories/{name}", "Unknown")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Devices\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDeleteProduct_HiddenFromReads() throws Exception {
+        // Given
+        Long productId = createProduct("Delete Speaker", 50.0, "Delete Audio");
+        createProduct("Keep Speaker", 80.0, "Delete Audio");
+
+        // When
+        mockMvc.perform(delete("/products/{id}", productId))
+                .andExpect(status().isNoContent());
+
+        // Then
+        mockMvc.perform(get("/products/{id}", productId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/categories/{name}/products", "Delete Audio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Keep Speaker"));
+        mockMvc.perform(get("/products").param("page", "0").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+        assertThat(productRepository.findAll()).extracting(Product::getName).doesNotContain("Delete Speaker");
+        assertThat(jdbcTemplate.queryForObject(
+                "select product_count from category where name = 'Delete Audio'", Long.class)).isEqualTo(1L);
+        mockMvc.perform(delete("/products/{id}", productId))
+                .andExpect(status().isNotFound());
+    }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void testDeleteProduct_RequiresAdmin() throws Exception {
+        Long productId = productRepository.findAll().get(0).getId();
+
+        mockMvc.perform(delete("/products/{id}", productId))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDeleteCategory_WithProductsIsRejected() throws Exception {
+        mockMvc.perform(delete("/categories/{name}", "Electronics"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDeleteCategory_Empty() throws Exception {
+        // Given
+        for (Product product : productRepository.findAll()) {
+            mockMvc.perform(delete("/products/{id}", product.getId()))
+                    .andExpect(status().isNoContent());
+        }
+
+        // When
+        mockMvc.perform(delete("/categories/{name}", "Electronics"))
+                .andExpect(status().isNoContent());
+
+        // Then
+        assertThat(categoryRepository.findByName("Electronics")).isEmpty();
+        assertThat(jdbcTemplate.queryForObject(
+                "select is_deleted from category where name = 'Electronics'", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void testPurgeDeletedProducts_MovesThemToArchive() {
+        // Given
+        Product product = productRepository.findAll().get(0);
+        jdbcTemplate.update("update product set is_deleted = true, last_modified = ? where id = ?",
+                new Date(System.currentTimeMillis() - 60_000), product.getId());
+
+        // When
+        long archived = softDeletePurgeService.purgeDeletedProducts(new Date());
+
+        // Then
+        assertThat(archived).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from product where id = ?", Long.class,
+                product.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select name from product_archive where id = ?", String.class,
+                product.getId())).isEqualTo(product.getName());
+    }
+
+    private Long createProduct(String name, Double price, String category) throws Exception {
+        ProductRequestDto requestDto = new ProductRequestDto();
+        requestDto.setName(name);
+        requestDto.setPrice(price);
+        requestDto.setCategory(category);
+        String response = mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.aditi.backendcapstoneproject.controller;
+
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts the exact number of SQL statements a MockMvc request runs, to pin down N+1 fixes.
+ *
+ * The test data is flushed and the persistence context and second-level cache are cleared
+ * first, so the request loads everything from the database itself, as a cold request would.
+ */
+final class StatementCounts {
+
+    @FunctionalInterface
+    interface Request {
+        ResultActions perform() throws Exception;
+    }
+
+    private StatementCounts() {
+    }
+
+    static ResultActions assertStatements(EntityManager entityManager, long expected, Request request) throws Exception {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+
+        long before = QueryCounter.current();
+        ResultActions result = request.perform();
+        assertThat(QueryCounter.current() - before)
+                .as("SQL statements run by the request")
+                .isEqualTo(expected);
+        return result;
+    }
+}
@@ -0,0 +1,174 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import com.aditi.backendcapstoneproject.enums.OrderStatus;
+import com.aditi.backendcapstoneproject.enums.PaymentStatus;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the hot repository queries, then EXPLAINs the exact SQL Hibernate sent (recorded by
+ * QueryCounter) on the embedded database, so an index that stops being used fails the build.
+ *
+ * The schema comes from the entity @Index declarations, which mirror the Flyway migrations.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class IndexUsageIntegrationTest {
+
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stopRecording();
+    }
+
+    @Test
+    void testPaymentSyncQuery_UsesStatusLastModifiedIndex() {
+        // When
+        List<String> plans = explain(() -> paymentRepository.findByStatusAndLastModifiedBeforeOrderByCreatedAtAsc(
+                PaymentStatus.PENDING, new Date(), PageRequest.of(0, 50)));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("idx_payment_status_last_modified_created_at")
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testPaymentWebhookLookup_UsesTransactionIdIndex() {
+        // When
+        List<String> plans = explain(() -> paymentRepository.findByTransactionId("pi_index_test"));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("idx_payment_transaction_id")
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testOrderHistoryByStatus_UsesUserStatusOrderDateIndex() {
+        // Given
+        User user = entityManager.getReference(User.class, 1L);
+
+        // When
+        List<String> plans = explain(() -> orderRepository.findByUserAndStatus(user, OrderStatus.PENDING,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "orderDate"))));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("idx_orders_user_status_order_date")
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testOrderHistory_DoesNotScanOrders() {
+        // Given
+        User user = entityManager.getReference(User.class, 1L);
+
+        // When
+        List<String> plans = explain(() -> orderRepository.findByUser(user,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "orderDate"))));
+
+        // Then
+        assertThat(plans.get(0)).doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testPasswordResetTokenLookup_UsesUniqueTokenIndex() {
+        // When
+        List<String> plans = explain(() -> passwordResetTokenRepository.findByToken("index-test-token"));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("token = ?")
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testProductsByCategory_UsesDeletedCategoryNameIndex() {
+        // When
+        List<String> plans = explain(() -> productRepository.findByCategoryName("Index Test", PageRequest.of(0, 10)));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("idx_product_deleted_category_name")
+                .doesNotContain(TABLE_SCAN);
+    }
+
+    @Test
+    void testCategoryStatsRecompute_UsesCategoryDeletedPriceIndex() {
+        // When
+        List<String> plans = explain(() -> categoryRepository.recomputeStats(1L, new Date()));
+
+        // Then
+        assertThat(plans.get(0))
+                .containsIgnoringCase("idx_product_category_deleted_price")
+                .doesNotContain("PUBLIC.PRODUCT." + TABLE_SCAN);
+    }
+
+    private List<String> explain(Runnable repositoryCall) {
+        QueryCounter.startRecording();
+        repositoryCall.run();
+        List<String> statements = QueryCounter.stopRecording();
+        assertThat(statements).as("statements sent by the repository call").isNotEmpty();
+
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            plans.add(jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                    // H2 plans the statement when it is prepared, so the bound values do not matter
+                    int parameters = statement.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setObject(i, null);
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        return resultSet.getString(1);
+                    }
+                }
+            }));
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,149 @@
+package com.aditi.backendcapstoneproject.repository;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.service.CategoryRegistry;
+import com.aditi.backendcapstoneproject.service.ProductBulkUpdateService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction: the second-level cache is only filled and invalidated on commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = categoryRegistry.getOrCreate("L2 Cache Audio");
+
+        Product headphones = new Product();
+        headphones.setName("Cached Headphones");
+        headphones.setPrice(120.0);
+        headphones.setCategory(category);
+        headphones.setCreatedAt(new Date());
+        headphones.setLastModified(new Date());
+        product = transactionTemplate.execute(status -> productRepository.save(headphones));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> productRepository.deleteById(product.getId()));
+    }
+
+    @Test
+    void testProductIsReadFromSecondLevelCache() {
+        // When
+        loadProduct();
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        Product cached = loadProduct();
+
+        // Then
+        assertThat(cached.getName()).isEqualTo("Cached Headphones");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getDomainDataRegionStatistics("product").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("product").getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindByNameUsesQueryCache() {
+        // When
+        transactionTemplate.execute(status -> categoryRepository.findByName("L2 Cache Audio"));
+        transactionTemplate.execute(status -> categoryRepository.findByName("L2 Cache Audio"));
+
+        // Then
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCategoryStatsUpdateOnlyInvalidatesCategoryRegion() {
+        // Given
+        loadProduct();
+        transactionTemplate.execute(status -> categoryRepository.findById(category.getId()));
+        assertThat(entityManagerFactory.getCache().contains(Category.class, category.getId())).isTrue();
+
+        // When
+        transactionTemplate.execute(status -> categoryRepository.touchStats(category.getId(), new Date()));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Category.class, category.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Product.class, product.getId())).isTrue();
+    }
+
+    @Test
+    void testBulkPriceUpdateEvictsCachedProduct() {
+        // Given
+        loadProduct();
+        assertThat(entityManagerFactory.getCache().contains(Product.class, product.getId())).isTrue();
+
+        // When
+        productBulkUpdateService.updatePrices(Map.of(product.getId(), 99.0));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Product.class, product.getId())).isFalse();
+        assertThat(loadProduct().getPrice()).isEqualTo(99.0);
+    }
+
+    @Test
+    void testRegionStatisticsAreExposedAsMetrics() {
+        // When
+        loadProduct();
+        loadProduct();
+
+        // Then
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "product").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    private Product loadProduct() {
+        return transactionTemplate.execute(status -> productRepository.findById(product.getId()).orElseThrow());
+    }
+}
@@ -0,0 +1,178 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.repository.UserRepository;
+import com.aditi.backendcapstoneproject.util.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires parallel adds at a cart that does not exist yet, so both the cart creation and the
+ * cart_item upsert race. Runs without a test transaction: every add commits on its own.
+ * The other cart writes create a missing cart the same way, checked through clearCart.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AddToCartConcurrencyIntegrationTest {
+
+    private static final String EMAIL = "concurrent-cart@example.com";
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+    // Few enough parallel clears that each wins its optimistic lock retry in time
+    private static final int CLEAR_THREADS = 4;
+    private static final int CLEAR_ROUNDS = 10;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("password");
+        user.setName("Concurrent Cart");
+        user.setRole("USER");
+        user.setCreatedAt(new Date());
+        user.setLastModified(new Date());
+        user = userRepository.save(user);
+
+        keyboard = productRepository.save(product("Concurrent Keyboard", 50.0));
+        mouse = productRepository.save(product("Concurrent Mouse", 20.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from cart_item where cart_id in (select id from cart where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from cart where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from product where id in (?, ?)", keyboard.getId(), mouse.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void testParallelAddsOfSameProductAllCount() throws Exception {
+        // When
+        runInParallel(THREADS, ADDS_PER_THREAD, thread -> cartService.addItemToCart(EMAIL, keyboard.getId(), 1));
+
+        // Then
+        assertThat(count("select count(*) from cart where user_id = ?")).isEqualTo(1);
+        assertThat(count("select count(*) from cart_item where cart_id in (select id from cart where user_id = ?)")).isEqualTo(1);
+        assertThat(count("select sum(quantity) from cart_item where cart_id in (select id from cart where user_id = ?)"))
+                .isEqualTo(THREADS * ADDS_PER_THREAD);
+
+        // And - one more add writes with two statements, the cart totals/version UPDATE and the
+        // cart_item upsert; the rest reads the user, the cart and the response (the product
+        // comes from the second-level cache)
+        QueryCounter.startRecording();
+        cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+        List<String> statements = QueryCounter.stopRecording();
+        assertThat(statements).hasSize(7);
+        assertThat(statements.stream().filter(sql -> !sql.startsWith("select")))
+                .satisfiesExactly(
+                        sql -> assertThat(sql).startsWith("update cart "),
+                        sql -> assertThat(sql).containsAnyOf("merge into cart_item", "insert into cart_item"));
+    }
+
+    @Test
+    void testParallelAddsOfDifferentProductsKeepBothLines() throws Exception {
+        // When
+        runInParallel(THREADS, ADDS_PER_THREAD,
+                thread -> cartService.addItemToCart(EMAIL, thread % 2 == 0 ? keyboard.getId() : mouse.getId(), 2));
+
+        // Then
+        CartResponseDto cart = cartService.getCart(EMAIL);
+        assertThat(cart.getItems()).hasSize(2);
+        assertThat(cart.getTotalItems()).isEqualTo(THREADS * ADDS_PER_THREAD * 2);
+        assertThat(cart.getTotalAmount()).isEqualTo((50.0 + 20.0) * THREADS / 2 * ADDS_PER_THREAD * 2);
+    }
+
+    @Test
+    void testParallelClearsOfMissingCartCreateOneCart() throws Exception {
+        for (int round = 0; round < CLEAR_ROUNDS; round++) {
+            // Given - no cart yet
+            jdbcTemplate.update("delete from cart where user_id = ?", user.getId());
+
+            // When - the losers of the uk_cart_user race use the winner's cart
+            runInParallel(CLEAR_THREADS, 1, thread -> cartService.clearCart(EMAIL));
+
+            // Then
+            assertThat(count("select count(*) from cart where user_id = ?")).isEqualTo(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CartCall {
+        CartResponseDto run(int thread) throws Exception;
+    }
+
+    private void runInParallel(int threads, int callsPerThread, CartCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int n = 0; n < callsPerThread; n++) {
+                        call.run(thread);
+                    }
+                    return null;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            // Rethrows the first failed call
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        return product;
+    }
+
+    private Integer count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, user.getId());
+    }
+}
@@ -47,6 +47,9 @@ class AuthenticationServiceTest {
     @Mock
     private PasswordResetTokenRepository passwordResetTokenRepository;
 
+    @Mock
+    private GuestCartService guestCartService;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -131,6 +134,21 @@ class AuthenticationServiceTest {
         verify(jwtService, times(1)).generateToken(any(UserDetails.class));
     }
 
+    @Test
+    void testLogin_WithCartToken_MergesGuestCart() throws InvalidCredentialsException {
+        // Given
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(null);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(jwtService.generateToken(any(UserDetails.class))).thenReturn("jwt-token");
+
+        // When
+        authenticationService.login(loginRequestDto, "cart-token");
+
+        // Then
+        verify(guestCartService, times(1)).mergeIntoUserCart("cart-token", "test@example.com");
+    }
+
     @Test
     void testLogin_InvalidCredentials() {
         // Given
@@ -143,6 +161,7 @@ class AuthenticationServiceTest {
                 .hasMessageContaining("Invalid email or password");
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtService, never()).generateToken(any(UserDetails.class));
+        verify(guestCartService, never()).mergeIntoUserCart(any(), any());
     }
 
     @Test
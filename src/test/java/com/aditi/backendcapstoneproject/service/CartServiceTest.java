@@ -1,6 +1,13 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.component.LiveCart;
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
+import com.aditi.backendcapstoneproject.dto.CartOperationDto;
 import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.CartSummaryDto;
+import com.aditi.backendcapstoneproject.enums.CartOperationType;
 import com.aditi.backendcapstoneproject.exception.CartItemNotFoundException;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
 import com.aditi.backendcapstoneproject.exception.UserNotFoundException;
@@ -10,6 +17,7 @@ import com.aditi.backendcapstoneproject.model.Product;
 import com.aditi.backendcapstoneproject.model.User;
 import com.aditi.backendcapstoneproject.repository.CartItemRepository;
 import com.aditi.backendcapstoneproject.repository.CartRepository;
+import com.aditi.backendcapstoneproject.repository.CartSummaryView;
 import com.aditi.backendcapstoneproject.repository.ProductRepository;
 import com.aditi.backendcapstoneproject.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,18 +25,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -46,6 +61,16 @@ class CartServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Mock
+    private CartCacheIndex cartCacheIndex;
+
+    // Runs each work once, in a transaction of the mocked manager
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private CartService cartService;
 
@@ -88,9 +113,9 @@ class CartServiceTest {
 
     @Test
     void testGetCart_ExistingCart() throws UserNotFoundException {
-        // Given
-        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
+        // Given - the items come with their cart and products
+        when(cartItemRepository.findWithCartAndProductByUserEmail(testUser.getEmail()))
+                .thenReturn(Collections.singletonList(testCartItem));
 
         // When
         CartResponseDto result = cartService.getCart(testUser.getEmail());
@@ -100,16 +125,17 @@ class CartServiceTest {
         assertThat(result.getCartId()).isEqualTo(1L);
         assertThat(result.getTotalItems()).isEqualTo(2);
         assertThat(result.getTotalAmount()).isEqualTo(1999.98);
-        verify(cartRepository, times(1)).findByUser(testUser);
-        verify(cartItemRepository, times(1)).findByCart(testCart);
+        verify(userRepository, never()).findByEmail(any());
+        verify(cartRepository, never()).findByUser(any(User.class));
+        verify(cartItemRepository, never()).findByCart(any(Cart.class));
     }
 
     @Test
     void testGetCart_NewCart() throws UserNotFoundException {
         // Given
+        when(cartItemRepository.findWithCartAndProductByUserEmail(testUser.getEmail())).thenReturn(Collections.emptyList());
         when(cartRepository.findByUser(testUser)).thenReturn(Optional.empty());
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.emptyList());
 
         // When
         CartResponseDto result = cartService.getCart(testUser.getEmail());
@@ -124,14 +150,12 @@ class CartServiceTest {
     }
 
     @Test
-    void testAddItemToCart_NewItem() throws ProductNotFoundException, UserNotFoundException {
+    void testAddItemToCart_AddsQuantityInOneStatement() throws ProductNotFoundException, UserNotFoundException {
         // Given
         when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(cartItemRepository.findByCartAndProduct(testCart, testProduct)).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
+        when(cartItemRepository.findWithProductByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
 
         // When
         CartResponseDto result = cartService.addItemToCart(testUser.getEmail(), 1L, 2);
@@ -140,27 +164,29 @@ class CartServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getTotalItems()).isEqualTo(2);
         verify(productRepository, times(1)).findById(1L);
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartItemRepository, times(1)).addQuantity(eq(1L), eq(1L), eq(2), any(Date.class));
+        verify(cartItemRepository, never()).findByCartAndProduct(any(Cart.class), any(Product.class));
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        // The add statement bumps the cart's version itself
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
-    void testAddItemToCart_ExistingItem() throws ProductNotFoundException, UserNotFoundException {
+    void testAddItemToCart_CartCreatedConcurrently() throws ProductNotFoundException, UserNotFoundException {
         // Given
-        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.empty(), Optional.of(testCart));
+        when(cartRepository.save(any(Cart.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_cart_user"))
+                .thenReturn(testCart);
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(cartItemRepository.findByCartAndProduct(testCart, testProduct)).thenReturn(Optional.of(testCartItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(testCartItem);
-        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
+        when(cartItemRepository.findWithProductByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
 
         // When
         CartResponseDto result = cartService.addItemToCart(testUser.getEmail(), 1L, 1);
 
         // Then
-        assertThat(result).isNotNull();
-        verify(cartItemRepository, times(1)).save(any(CartItem.class));
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        assertThat(result.getCartId()).isEqualTo(1L);
+        verify(cartItemRepository, times(1)).addQuantity(eq(1L), eq(1L), eq(1), any(Date.class));
     }
 
     @Test
@@ -188,7 +214,7 @@ class CartServiceTest {
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(testCartItem));
         when(cartItemRepository.save(any(CartItem.class))).thenReturn(updatedCartItem);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.singletonList(updatedCartItem));
+        when(cartItemRepository.findWithProductByCart(testCart)).thenReturn(Collections.singletonList(updatedCartItem));
 
         // When
         CartResponseDto result = cartService.updateCartItem(testUser.getEmail(), 1L, 5);
@@ -198,6 +224,8 @@ class CartServiceTest {
         verify(cartItemRepository, times(1)).findById(1L);
         verify(cartItemRepository, times(1)).save(any(CartItem.class));
         verify(cartRepository, times(1)).save(any(Cart.class));
+        // 2 -> 5 laptops
+        verify(cartRepository, times(1)).addToTotals(1L, 3, 3 * 999.99);
     }
 
     @Test
@@ -239,7 +267,7 @@ class CartServiceTest {
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(testCartItem));
         doNothing().when(cartItemRepository).delete(testCartItem);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.emptyList());
+        when(cartItemRepository.findWithProductByCart(testCart)).thenReturn(Collections.emptyList());
 
         // When
         CartResponseDto result = cartService.removeCartItem(testUser.getEmail(), 1L);
@@ -250,6 +278,7 @@ class CartServiceTest {
         verify(cartItemRepository, times(1)).findById(1L);
         verify(cartItemRepository, times(1)).delete(testCartItem);
         verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartRepository, times(1)).addToTotals(1L, -2, -2 * 999.99);
     }
 
     @Test
@@ -272,7 +301,7 @@ class CartServiceTest {
         when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
         doNothing().when(cartItemRepository).deleteByCart(testCart);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.emptyList());
+        when(cartItemRepository.findWithProductByCart(testCart)).thenReturn(Collections.emptyList());
 
         // When
         CartResponseDto result = cartService.clearCart(testUser.getEmail());
@@ -282,6 +311,176 @@ class CartServiceTest {
         assertThat(result.getTotalItems()).isEqualTo(0);
         verify(cartItemRepository, times(1)).deleteByCart(testCart);
         verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartRepository, times(1)).clearTotals(1L);
+    }
+
+    @Test
+    void testGetCartSummary_ReadsCartRow() {
+        // Given
+        CartSummaryView view = mock(CartSummaryView.class);
+        when(view.getCartId()).thenReturn(1L);
+        when(view.getTotalItems()).thenReturn(2);
+        when(view.getTotalAmount()).thenReturn(1999.98);
+        when(cartRepository.findSummaryByUserEmail(testUser.getEmail())).thenReturn(Optional.of(view));
+
+        // When
+        CartSummaryDto result = cartService.getCartSummary(testUser.getEmail());
+
+        // Then
+        assertThat(result.getCartId()).isEqualTo(1L);
+        assertThat(result.getTotalItems()).isEqualTo(2);
+        assertThat(result.getTotalAmount()).isEqualTo(1999.98);
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void testUpdateCartItem_WriteBehind_AcknowledgedFromMemory() throws CartItemNotFoundException, UserNotFoundException {
+        // Given
+        LiveCart liveCart = givenLiveCart();
+
+        // When
+        CartResponseDto result = cartService.updateCartItem(testUser.getEmail(), 1L, 5);
+
+        // Then
+        assertThat(result.getTotalItems()).isEqualTo(5);
+        assertThat(liveCart.lineOfItem(1L).getQuantity()).isEqualTo(5);
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void testAddItemToCart_WriteBehind_ExistingProductOnlyChangesQuantity() throws ProductNotFoundException, UserNotFoundException {
+        // Given
+        givenLiveCart();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When
+        CartResponseDto result = cartService.addItemToCart(testUser.getEmail(), 1L, 3);
+
+        // Then
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getTotalItems()).isEqualTo(5);
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+    }
+
+    @Test
+    void testAddItemToCart_WriteBehind_NewProductIsInserted() throws ProductNotFoundException, UserNotFoundException {
+        // Given
+        LiveCart liveCart = givenLiveCart();
+        Product phone = new Product();
+        phone.setId(2L);
+        phone.setName("Phone");
+        phone.setPrice(500.0);
+        CartItem savedItem = new CartItem();
+        savedItem.setId(7L);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(phone));
+        when(cartRepository.getReferenceById(1L)).thenReturn(testCart);
+        when(cartItemRepository.save(any(CartItem.class))).thenReturn(savedItem);
+
+        // When
+        CartResponseDto result = cartService.addItemToCart(testUser.getEmail(), 2L, 1);
+
+        // Then
+        assertThat(result.getItems()).extracting("id").containsExactly(1L, 7L);
+        assertThat(liveCart.lineOfItem(7L).getProductId()).isEqualTo(2L);
+        verify(cartItemRepository, times(1)).save(any(CartItem.class));
+    }
+
+    @Test
+    void testRemoveCartItem_WriteBehind_UnknownItem() {
+        // Given
+        givenLiveCart();
+
+        // When & Then
+        assertThatThrownBy(() -> cartService.removeCartItem(testUser.getEmail(), 999L))
+                .isInstanceOf(CartItemNotFoundException.class)
+                .hasMessageContaining("Cart item with id 999 not found");
+    }
+
+    @Test
+    void testGetCart_WriteBehind_LoadsCartOnce() throws UserNotFoundException {
+        // Given
+        when(cartWriteBehindStore.isEnabled()).thenReturn(true);
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findByCart(testCart)).thenReturn(List.of(testCartItem));
+        when(cartWriteBehindStore.register(eq(testUser.getEmail()), any(LiveCart.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When
+        CartResponseDto result = cartService.getCart(testUser.getEmail());
+
+        // Then
+        assertThat(result.getCartId()).isEqualTo(1L);
+        assertThat(result.getTotalItems()).isEqualTo(2);
+        verify(cartWriteBehindStore, times(1)).register(eq(testUser.getEmail()), any(LiveCart.class));
+    }
+
+    private LiveCart givenLiveCart() {
+        LiveCart liveCart = new LiveCart(testCart.getId(), List.of(testCartItem));
+        when(cartWriteBehindStore.isEnabled()).thenReturn(true);
+        when(cartWriteBehindStore.get(testUser.getEmail())).thenReturn(liveCart);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        return liveCart;
     }
-}
 
+    @Test
+    void testApplyOperations_WritesOneChangePerLine() throws Exception {
+        // Given - the cart holds 2 laptops
+        Product phone = new Product();
+        phone.setId(2L);
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findByCart(testCart)).thenReturn(List.of(testCartItem));
+        when(productRepository.findAllById(Set.of(2L))).thenReturn(List.of(phone));
+
+        // When
+        cartService.applyOperations(testUser.getEmail(), List.of(
+                operation(CartOperationType.ADD, 2L, null, 1),
+                operation(CartOperationType.UPDATE, null, 1L, 4),
+                operation(CartOperationType.ADD, 2L, null, 2)));
+
+        // Then
+        verify(cartItemRepository, times(1)).writeBatch(eq(1L), eq(Map.of(2L, 3)), eq(Map.of(1L, 4)),
+                eq(List.of()), any(Date.class));
+    }
+
+    @Test
+    void testApplyOperations_UnknownItemWritesNothing() {
+        // Given
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findByCart(testCart)).thenReturn(List.of(testCartItem));
+
+        // When & Then
+        assertThatThrownBy(() -> cartService.applyOperations(testUser.getEmail(), List.of(
+                operation(CartOperationType.UPDATE, null, 1L, 4),
+                operation(CartOperationType.REMOVE, null, 999L, null))))
+                .isInstanceOf(CartItemNotFoundException.class)
+                .hasMessageContaining("Cart item with id 999 not found");
+        verify(cartItemRepository, never()).writeBatch(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testMergeGuestCart_UpsertsActiveProductsInOneBatch() throws Exception {
+        // Given - product 3 was deleted since the guest added it
+        Product phone = new Product();
+        phone.setId(2L);
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(productRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(testProduct, phone));
+
+        // When
+        cartService.mergeGuestCart(testUser.getEmail(), Map.of(1L, 2, 2L, 1, 3L, 5));
+
+        // Then
+        verify(cartItemRepository, times(1)).writeBatch(eq(1L), eq(Map.of(1L, 2, 2L, 1)), eq(Map.of()),
+                eq(List.of()), any(Date.class));
+    }
+
+    private CartOperationDto operation(CartOperationType type, Long productId, Long itemId, Integer quantity) {
+        CartOperationDto operation = new CartOperationDto();
+        operation.setOp(type);
+        operation.setProductId(productId);
+        operation.setItemId(itemId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+}
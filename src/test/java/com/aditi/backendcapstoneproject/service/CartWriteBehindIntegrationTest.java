@@ -0,0 +1,267 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.OrderResponseDto;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction: the flusher writes in transactions of its own.
+ * The scheduled flush is pushed out of the way so each test decides when to flush.
+ */
+@SpringBootTest(properties = {
+        "catalog.cart.write-behind.enabled=true",
+        "catalog.cart.write-behind.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class CartWriteBehindIntegrationTest {
+
+    private static final String EMAIL = "write-behind@example.com";
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("password");
+        user.setName("Write Behind");
+        user.setRole("USER");
+        user.setCreatedAt(new Date());
+        user.setLastModified(new Date());
+        user = userRepository.save(user);
+
+        keyboard = productRepository.save(product("Write Behind Keyboard", 50.0));
+        mouse = productRepository.save(product("Write Behind Mouse", 20.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartWriteBehindStore.detach(EMAIL);
+        jdbcTemplate.update("delete from order_item where order_id in (select id from orders where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from orders where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from cart_item where cart_id in (select id from cart where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from cart where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from product where id in (?, ?)", keyboard.getId(), mouse.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void testQuantityChangesReachDatabaseOnFlush() throws Exception {
+        // Given
+        CartResponseDto added = cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+        Long itemId = added.getItems().get(0).getId();
+
+        // When
+        cartService.updateCartItem(EMAIL, itemId, 2);
+        cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+        CartResponseDto acknowledged = cartService.updateCartItem(EMAIL, itemId, 4);
+
+        // Then - acknowledged from memory, the row only changes with the flush
+        assertThat(acknowledged.getTotalItems()).isEqualTo(4);
+        assertThat(quantityOf(itemId)).isEqualTo(1);
+
+        assertThat(cartWriteBehindStore.flushDirty()).isEqualTo(1);
+        assertThat(quantityOf(itemId)).isEqualTo(4);
+        // The flush also recomputes the totals on the cart row
+        assertThat(jdbcTemplate.queryForObject("select item_count from cart where user_id = ?", Integer.class, user.getId()))
+                .isEqualTo(4);
+        assertThat(cartWriteBehindStore.flushDirty()).isZero();
+    }
+
+    @Test
+    void testRemovalIsFlushedAsDelete() throws Exception {
+        // Given
+        cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+        Long mouseItemId = cartService.addItemToCart(EMAIL, mouse.getId(), 1).getItems().get(1).getId();
+
+        // When
+        CartResponseDto acknowledged = cartService.removeCartItem(EMAIL, mouseItemId);
+        cartWriteBehindStore.flushDirty();
+
+        // Then
+        assertThat(acknowledged.getItems()).hasSize(1);
+        assertThat(cartItemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testProductAddedAgainBeforeFlushKeepsItsRow() throws Exception {
+        // Given
+        Long itemId = cartService.addItemToCart(EMAIL, keyboard.getId(), 1).getItems().get(0).getId();
+        cartService.removeCartItem(EMAIL, itemId);
+
+        // When
+        CartResponseDto result = cartService.addItemToCart(EMAIL, keyboard.getId(), 3);
+        cartWriteBehindStore.flushDirty();
+
+        // Then
+        assertThat(result.getItems()).extracting("id").containsExactly(itemId);
+        assertThat(quantityOf(itemId)).isEqualTo(3);
+        assertThat(cartItemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testProductAddedAgainDuringFailingFlushReusesItsRow() throws Exception {
+        // Given - the keyboard row exists, its removal is pending and the row is locked, so the
+        // flush writing the DELETE blocks and then fails on the lock timeout
+        Long itemId = cartService.addItemToCart(EMAIL, keyboard.getId(), 1).getItems().get(0).getId();
+        cartWriteBehindStore.flushDirty();
+        cartService.removeCartItem(EMAIL, itemId);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("select id from cart_item where id = ? for update", itemId);
+                locked.countDown();
+                await(release);
+            }));
+            locked.await(5, TimeUnit.SECONDS);
+            Future<?> flush = executor.submit(cartWriteBehindStore::flushDirty);
+            Thread.sleep(200);
+
+            // When - added again while the DELETE is in flight
+            CartResponseDto result = cartService.addItemToCart(EMAIL, keyboard.getId(), 3);
+
+            // Then - the add waited for the failed flush and brought the old line back
+            assertThat(flush).failsWithin(30, TimeUnit.SECONDS);
+            release.countDown();
+            lockHolder.get(30, TimeUnit.SECONDS);
+            assertThat(result.getItems()).extracting("id").containsExactly(itemId);
+
+            cartWriteBehindStore.flushDirty();
+            assertThat(quantityOf(itemId)).isEqualTo(3);
+            assertThat(cartItemCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDetachWaitsForFailingScheduledFlush() throws Exception {
+        // Given - a pending quantity change and a locked row, so the scheduled flush writing
+        // the UPDATE blocks and then fails on the lock timeout
+        Long itemId = cartService.addItemToCart(EMAIL, keyboard.getId(), 1).getItems().get(0).getId();
+        cartWriteBehindStore.flushDirty();
+        cartService.updateCartItem(EMAIL, itemId, 5);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("select id from cart_item where id = ? for update", itemId);
+                locked.countDown();
+                await(release);
+            }));
+            locked.await(5, TimeUnit.SECONDS);
+            Future<?> flush = executor.submit(cartWriteBehindStore::flushDirty);
+            Thread.sleep(200);
+
+            // When - checkout detaches the cart while the change is in flight
+            Future<?> detach = executor.submit(() -> cartWriteBehindStore.detach(EMAIL));
+            Thread.sleep(200);
+
+            // Then - the detach waited for the flush and wrote the change it gave back
+            assertThat(detach).isNotDone();
+            assertThat(flush).failsWithin(30, TimeUnit.SECONDS);
+            release.countDown();
+            lockHolder.get(30, TimeUnit.SECONDS);
+            detach.get(30, TimeUnit.SECONDS);
+            assertThat(cartWriteBehindStore.get(EMAIL)).isNull();
+            assertThat(quantityOf(itemId)).isEqualTo(5);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCheckoutFlushesPendingChangesFirst() throws Exception {
+        // Given
+        Long itemId = cartService.addItemToCart(EMAIL, keyboard.getId(), 1).getItems().get(0).getId();
+        cartService.updateCartItem(EMAIL, itemId, 3);
+
+        // When
+        OrderResponseDto order = orderService.createOrder(EMAIL, "1 Flush Street");
+
+        // Then
+        assertThat(order.getItems()).hasSize(1);
+        assertThat(order.getItems().get(0).getQuantity()).isEqualTo(3);
+        assertThat(order.getTotalAmount()).isEqualTo(150.0);
+        assertThat(cartWriteBehindStore.get(EMAIL)).isNull();
+        assertThat(cartService.getCart(EMAIL).getItems()).isEmpty();
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        return product;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Integer quantityOf(Long itemId) {
+        return jdbcTemplate.queryForObject("select quantity from cart_item where id = ?", Integer.class, itemId);
+    }
+
+    private Integer cartItemCount() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from cart_item where cart_id in (select id from cart where user_id = ?)",
+                Integer.class, user.getId());
+    }
+}
@@ -0,0 +1,181 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CategoryStatsView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoryRegistry categoryRegistry;
+
+    @BeforeEach
+    void setUp() {
+        categoryRegistry = new CategoryRegistry(categoryRepository, transactionManager);
+    }
+
+    private Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setDescription(name + " description");
+        return category;
+    }
+
+    @Test
+    void testGetOrCreate_ServedFromLoadedCategories() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category(1L, "Electronics")));
+        categoryRegistry.loadCategories();
+
+        // When
+        Category result = categoryRegistry.getOrCreate("Electronics");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getName()).isEqualTo("Electronics");
+        verify(categoryRepository, never()).findByName(any());
+        verify(categoryRepository, never()).saveAndFlush(any(Category.class));
+    }
+
+    @Test
+    void testGetOrCreate_ExistingCategoryInDb() {
+        // Given
+        Category electronics = category(1L, "Electronics");
+        when(categoryRepository.findByName("Electronics")).thenReturn(Optional.of(electronics));
+
+        // When
+        Category result = categoryRegistry.getOrCreate(" Electronics ");
+
+        // Then
+        assertThat(result).isSameAs(electronics);
+        verify(categoryRepository, never()).saveAndFlush(any(Category.class));
+    }
+
+    @Test
+    void testGetOrCreate_NewCategoryIsCreatedOnceAndRemembered() {
+        // Given
+        when(categoryRepository.findByName("Books")).thenReturn(Optional.empty());
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(category(2L, "Books"));
+
+        // When
+        Category first = categoryRegistry.getOrCreate("Books");
+        Category second = categoryRegistry.getOrCreate("Books");
+
+        // Then
+        assertThat(first.getId()).isEqualTo(2L);
+        assertThat(second.getId()).isEqualTo(2L);
+        verify(categoryRepository, times(1)).findByName("Books");
+        verify(categoryRepository, times(1)).saveAndFlush(any(Category.class));
+    }
+
+    @Test
+    void testGetOrCreate_ConcurrentCreateUsesExistingRow() {
+        // Given - another writer inserted "Books" between our lookup and our insert
+        when(categoryRepository.findByName("Books"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(category(3L, "Books")));
+        when(categoryRepository.saveAndFlush(any(Category.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'Books' for key 'uk_category_name'"));
+
+        // When
+        Category result = categoryRegistry.getOrCreate("Books");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(3L);
+        verify(categoryRepository, times(2)).findByName("Books");
+    }
+
+    @Test
+    void testGetOrCreate_RestoresSoftDeletedCategory() {
+        // Given - "Books" was soft-deleted, so it is hidden but still holds the unique name
+        when(categoryRepository.findByName("Books"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(category(3L, "Books")));
+        when(categoryRepository.saveAndFlush(any(Category.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'Books' for key 'uk_category_name'"));
+        when(categoryRepository.restoreDeleted(eq("Books"), any())).thenReturn(1);
+
+        // When
+        Category result = categoryRegistry.getOrCreate("Books");
+
+        // Then
+        assertThat(result.getId()).isEqualTo(3L);
+        verify(categoryRepository, times(1)).restoreDeleted(eq("Books"), any());
+    }
+
+    @Test
+    void testGetOrCreate_WhenNameIsBlank() {
+        // When & Then
+        assertThatThrownBy(() -> categoryRegistry.getOrCreate("  "))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessageContaining("Category name cannot be null or empty");
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void testGetAllCategories_OrderedById() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(
+                category(5L, "Sports"), category(1L, "Electronics"), category(3L, "Books")));
+        categoryRegistry.loadCategories();
+
+        // When
+        List<Category> result = categoryRegistry.getAllCategories();
+
+        // Then
+        assertThat(result).extracting(Category::getName).containsExactly("Electronics", "Books", "Sports");
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testApplyStats_UpdatesRegisteredCategory() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(category(1L, "Electronics")));
+        categoryRegistry.loadCategories();
+        CategoryStatsView stats = mock(CategoryStatsView.class);
+        when(stats.getId()).thenReturn(1L);
+        when(stats.getName()).thenReturn("Electronics");
+        when(stats.getProductCount()).thenReturn(2L);
+        when(stats.getPriceTotal()).thenReturn(300.0);
+        when(stats.getMinPrice()).thenReturn(100.0);
+        when(stats.getMaxPrice()).thenReturn(200.0);
+
+        // When
+        categoryRegistry.applyStats(stats);
+
+        // Then
+        Category result = categoryRegistry.getOrCreate("Electronics");
+        assertThat(result.getProductCount()).isEqualTo(2L);
+        assertThat(result.getPriceTotal()).isEqualTo(300.0);
+        assertThat(result.getMinPrice()).isEqualTo(100.0);
+        assertThat(result.getMaxPrice()).isEqualTo(200.0);
+        assertThat(result.getDescription()).isEqualTo("Electronics description");
+    }
+}
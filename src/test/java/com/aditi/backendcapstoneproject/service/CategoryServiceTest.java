@@ -0,0 +1,111 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.dto.CategoryRequestDto;
+import com.aditi.backendcapstoneproject.exception.CategoryNotFoundException;
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    private Category electronics;
+
+    @BeforeEach
+    void setUp() {
+        electronics = new Category();
+        electronics.setId(1L);
+        electronics.setName("Electronics");
+
+        when(categoryRepository.findByName("Electronics")).thenReturn(Optional.of(electronics));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testUpdateCategory_RenameUpdatesProducts() throws CategoryNotFoundException {
+        // Given
+        CategoryRequestDto requestDto = new CategoryRequestDto();
+        requestDto.setName("Devices");
+        when(categoryRepository.findByName("Devices")).thenReturn(Optional.empty());
+
+        // When
+        Category result = categoryService.updateCategory("Electronics", requestDto);
+
+        // Then
+        assertEquals("Devices", result.getName());
+        verify(productRepository, times(1)).updateCategoryName(eq(1L), eq("Devices"), any());
+        verify(catalogVersionTracker, times(1)).catalogChanged();
+        verify(categoryRegistry, times(1)).renamed("Electronics", electronics);
+    }
+
+    @Test
+    void testUpdateCategory_DescriptionOnlyLeavesProducts() throws CategoryNotFoundException {
+        // Given
+        CategoryRequestDto requestDto = new CategoryRequestDto();
+        requestDto.setDescription("Gadgets");
+
+        // When
+        Category result = categoryService.updateCategory("Electronics", requestDto);
+
+        // Then
+        assertEquals("Gadgets", result.getDescription());
+        verify(productRepository, never()).updateCategoryName(anyLong(), anyString(), any());
+        verify(catalogVersionTracker, times(1)).catalogChanged();
+    }
+
+    @Test
+    void testUpdateCategory_NameTaken() {
+        // Given
+        CategoryRequestDto requestDto = new CategoryRequestDto();
+        requestDto.setName("Books");
+        when(categoryRepository.findByName("Books")).thenReturn(Optional.of(new Category()));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> categoryService.updateCategory("Electronics", requestDto));
+        verify(productRepository, never()).updateCategoryName(anyLong(), anyString(), any());
+    }
+
+    @Test
+    void testUpdateCategory_NotFound() {
+        // Given
+        when(categoryRepository.findByName("Unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(CategoryNotFoundException.class,
+                () -> categoryService.updateCategory("Unknown", new CategoryRequestDto()));
+    }
+}
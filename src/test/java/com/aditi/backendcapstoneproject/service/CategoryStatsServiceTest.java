@@ -0,0 +1,107 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.model.Category;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CategoryStatsView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryStatsServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @InjectMocks
+    private CategoryStatsService categoryStatsService;
+
+    private Category electronics;
+    private Category books;
+    private CategoryStatsView stats;
+
+    @BeforeEach
+    void setUp() {
+        electronics = new Category();
+        electronics.setId(1L);
+        electronics.setName("Electronics");
+
+        books = new Category();
+        books.setId(2L);
+        books.setName("Books");
+
+        stats = mock(CategoryStatsView.class);
+        when(categoryRepository.findStatsById(anyLong())).thenReturn(Optional.of(stats));
+    }
+
+    private Product product(Category category, Double price) {
+        Product product = new Product();
+        product.setId(10L);
+        product.setPrice(price);
+        product.setCategory(category);
+        return product;
+    }
+
+    @Test
+    void testProductAdded() {
+        // When
+        categoryStatsService.productAdded(product(electronics, 999.99));
+
+        // Then
+        verify(categoryRepository, times(1)).addProductToStats(eq(1L), eq(999.99), any());
+        verify(categoryRegistry, times(1)).applyStats(stats);
+    }
+
+    @Test
+    void testProductUpdated_PriceChangeWithinCategory() {
+        // When
+        categoryStatsService.productUpdated(electronics, 999.99, product(electronics, 899.99));
+
+        // Then
+        verify(categoryRepository, times(1)).removeProductFromStats(eq(1L), eq(999.99), any());
+        verify(categoryRepository, times(1)).addProductToStats(eq(1L), eq(899.99), any());
+        verify(categoryRepository, times(1)).findStatsById(1L);
+    }
+
+    @Test
+    void testProductUpdated_SamePriceOnlyTouchesCategory() {
+        // When
+        categoryStatsService.productUpdated(electronics, 999.99, product(electronics, 999.99));
+
+        // Then
+        verify(categoryRepository, times(1)).touchStats(eq(1L), any());
+        verify(categoryRepository, never()).removeProductFromStats(anyLong(), anyDouble(), any());
+        verify(categoryRepository, never()).addProductToStats(anyLong(), anyDouble(), any());
+    }
+
+    @Test
+    void testProductUpdated_CategoryChangeUpdatesBothCategories() {
+        // When
+        categoryStatsService.productUpdated(electronics, 999.99, product(books, null));
+
+        // Then
+        verify(categoryRepository, times(1)).removeProductFromStats(eq(1L), eq(999.99), any());
+        verify(categoryRepository, times(1)).addProductToStats(eq(2L), eq(0.0), any());
+        verify(categoryRepository, times(1)).findStatsById(1L);
+        verify(categoryRepository, times(1)).findStatsById(2L);
+        verify(categoryRegistry, times(2)).applyStats(stats);
+    }
+}
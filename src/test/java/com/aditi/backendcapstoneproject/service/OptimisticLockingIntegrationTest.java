@@ -0,0 +1,216 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.dto.CartOperationDto;
+import com.aditi.backendcapstoneproject.enums.CartOperationType;
+import com.aditi.backendcapstoneproject.enums.OrderStatus;
+import com.aditi.backendcapstoneproject.enums.PaymentMethod;
+import com.aditi.backendcapstoneproject.enums.PaymentStatus;
+import com.aditi.backendcapstoneproject.model.Order;
+import com.aditi.backendcapstoneproject.model.Payment;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.repository.OrderRepository;
+import com.aditi.backendcapstoneproject.repository.PaymentRepository;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs without a test transaction, so every save and every service call commits on its own
+ * and writers really race on the version columns. The retry budget is raised so the racing
+ * batches always get through.
+ */
+@SpringBootTest(properties = {
+        "catalog.optimistic-lock.max-attempts=100",
+        "catalog.optimistic-lock.backoff-ms=2"
+})
+@ActiveProfiles("test")
+class OptimisticLockingIntegrationTest {
+
+    private static final String EMAIL = "optimistic-lock@example.com";
+    private static final int THREADS = 6;
+    private static final int CALLS_PER_THREAD = 15;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("password");
+        user.setName("Optimistic Lock");
+        user.setRole("USER");
+        user.setCreatedAt(new Date());
+        user.setLastModified(new Date());
+        user = userRepository.save(user);
+
+        keyboard = productRepository.save(product("Optimistic Keyboard", 50.0));
+        mouse = productRepository.save(product("Optimistic Mouse", 20.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from payment where order_id in (select id from orders where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from orders where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from cart_item where cart_id in (select id from cart where user_id = ?)", user.getId());
+        jdbcTemplate.update("delete from cart where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from product where id in (?, ?)", keyboard.getId(), mouse.getId());
+        jdbcTemplate.update("delete from users where id = ?", user.getId());
+    }
+
+    @Test
+    void testStalePaymentUpdateIsRejected() {
+        // Given - two copies of the same payment, as read by the webhook and by the sync job
+        Payment payment = paymentRepository.save(pendingPayment(orderRepository.save(order())));
+        Payment webhookCopy = paymentRepository.findById(payment.getId()).orElseThrow();
+        Payment syncCopy = paymentRepository.findById(payment.getId()).orElseThrow();
+
+        webhookCopy.setStatus(PaymentStatus.SUCCESS);
+        paymentRepository.save(webhookCopy);
+
+        // When & Then - the copy read before the webhook's write does not overwrite it
+        syncCopy.setStatus(PaymentStatus.FAILED);
+        assertThatThrownBy(() -> paymentRepository.save(syncCopy))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void testParallelBatchesAndAddsLoseNoChange() throws Exception {
+        // Given
+        cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+
+        // When - PATCH /cart batches (read-modify-write) race with single adds on the same cart
+        runInParallel(thread -> {
+            if (thread % 2 == 0) {
+                cartService.applyOperations(EMAIL, List.of(add(keyboard.getId(), 1), add(mouse.getId(), 1)));
+            } else {
+                cartService.addItemToCart(EMAIL, keyboard.getId(), 1);
+            }
+        });
+
+        // Then - every batch and every add counted exactly once
+        int batches = THREADS / 2 * CALLS_PER_THREAD;
+        int adds = THREADS / 2 * CALLS_PER_THREAD;
+        assertThat(quantityOf(keyboard)).isEqualTo(1 + batches + adds);
+        assertThat(quantityOf(mouse)).isEqualTo(batches);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run(int thread) throws Exception;
+    }
+
+    private void runInParallel(Call call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int n = 0; n < CALLS_PER_THREAD; n++) {
+                        call.run(thread);
+                    }
+                    return null;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            // Rethrows the first failed call
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CartOperationDto add(Long productId, int quantity) {
+        CartOperationDto operation = new CartOperationDto();
+        operation.setOp(CartOperationType.ADD);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderDate(new Date());
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(50.0);
+        order.setCreatedAt(new Date());
+        order.setLastModified(new Date());
+        return order;
+    }
+
+    private Payment pendingPayment(Order order) {
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(order.getTotalAmount());
+        payment.setMethod(PaymentMethod.CREDIT_CARD);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setTransactionId("pi_optimistic");
+        payment.setCreatedAt(new Date());
+        payment.setLastModified(new Date());
+        return payment;
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        return product;
+    }
+
+    private Integer quantityOf(Product product) {
+        return jdbcTemplate.queryForObject(
+                "select quantity from cart_item where product_id = ? and cart_id in (select id from cart where user_id = ?)",
+                Integer.class, product.getId(), user.getId());
+    }
+}
@@ -1,10 +1,14 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CartWriteBehindStore;
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
 import com.aditi.backendcapstoneproject.dto.OrderResponseDto;
 import com.aditi.backendcapstoneproject.enums.OrderStatus;
 import com.aditi.backendcapstoneproject.exception.EmptyCartException;
 import com.aditi.backendcapstoneproject.exception.OrderNotFoundException;
 import com.aditi.backendcapstoneproject.exception.UserNotFoundException;
+import com.aditi.backendcapstoneproject.exception.VersionConflictException;
 import com.aditi.backendcapstoneproject.model.*;
 import com.aditi.backendcapstoneproject.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +16,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -50,6 +57,16 @@ class OrderServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CartWriteBehindStore cartWriteBehindStore;
+
+    @Mock
+    private CartCacheIndex cartCacheIndex;
+
+    // Runs each work once, in a transaction of the mocked manager
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private OrderService orderService;
 
@@ -102,15 +119,14 @@ class OrderServiceTest {
     }
 
     @Test
-    void testCreateOrder_Success() throws EmptyCartException, UserNotFoundException {
+    void testCreateOrder_FromCartItems_Success() throws EmptyCartException, UserNotFoundException {
         // Given
+        ReflectionTestUtils.setField(orderService, "setBasedCheckout", false);
         when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
         when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.singletonList(testCartItem));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(testOrderItem);
         doNothing().when(cartItemRepository).deleteByCart(testCart);
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-        when(orderItemRepository.findByOrder(testOrder)).thenReturn(Collections.singletonList(testOrderItem));
 
         // When
         OrderResponseDto result = orderService.createOrder(testUser.getEmail(), "123 Test St");
@@ -122,7 +138,62 @@ class OrderServiceTest {
         assertThat(result.getDeliveryAddress()).isEqualTo("123 Test St");
         verify(cartRepository, times(1)).findByUser(testUser);
         verify(cartItemRepository, times(1)).findByCart(testCart);
-        verify(orderRepository, times(2)).save(any(Order.class));
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+        verify(orderItemRepository, never()).findByOrder(any());
+        verify(cartItemRepository, times(1)).deleteByCart(testCart);
+    }
+
+    @Test
+    void testCreateOrder_SetBased_Success() throws EmptyCartException, UserNotFoundException {
+        // Given
+        when(cartItemRepository.countByCartUser(testUser)).thenReturn(1L);
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.countByCart(testCart)).thenReturn(1L);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(testOrder);
+        when(orderItemRepository.reserveIds(1)).thenReturn(100L);
+        when(orderItemRepository.copyCartItems(eq(1L), eq(1L), eq(100L), eq(1), any(Date.class))).thenReturn(1);
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+        when(orderItemRepository.findByOrder(testOrder)).thenReturn(Collections.singletonList(testOrderItem));
+
+        // When
+        OrderResponseDto result = orderService.createOrder(testUser.getEmail(), "123 Test St");
+
+        // Then - the cart lines are copied and summed in SQL, never loaded
+        assertThat(result.getOrderId()).isEqualTo(1L);
+        assertThat(result.getTotalAmount()).isEqualTo(1999.98);
+        assertThat(result.getItems()).hasSize(1);
+        verify(orderItemRepository, times(1)).updateTotalAmount(testOrder);
+        verify(cartItemRepository, times(1)).deleteAllByCartId(1L);
+        verify(cartRepository, times(1)).clearTotals(1L);
+        verify(cartItemRepository, never()).findByCart(any());
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+        verify(cartCacheIndex, times(1)).cartEvicted(testUser.getEmail());
+    }
+
+    @Test
+    void testCreateOrder_SetBased_CartGrewAfterReservation_BuildsFromCartItems() throws EmptyCartException, UserNotFoundException {
+        // Given - one line when the ids were reserved, two in the checkout transaction
+        CartItem mouseItem = new CartItem();
+        mouseItem.setId(2L);
+        mouseItem.setCart(testCart);
+        mouseItem.setProduct(testProduct);
+        mouseItem.setQuantity(1);
+        when(cartItemRepository.countByCartUser(testUser)).thenReturn(1L);
+        when(orderItemRepository.reserveIds(1)).thenReturn(100L);
+        when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.countByCart(testCart)).thenReturn(2L);
+        when(cartItemRepository.findByCart(testCart)).thenReturn(List.of(testCartItem, mouseItem));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+
+        // When
+        orderService.createOrder(testUser.getEmail(), "123 Test St");
+
+        // Then - the reserved ids are left unused
+        verify(orderItemRepository, times(1)).reserveIds(1);
+        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderItemRepository, never()).copyCartItems(any(), any(), anyLong(), anyInt(), any());
         verify(cartItemRepository, times(1)).deleteByCart(testCart);
     }
 
@@ -137,21 +208,23 @@ class OrderServiceTest {
                 .hasMessageContaining("Cart is empty");
         verify(cartRepository, times(1)).findByUser(testUser);
         verify(orderRepository, never()).save(any(Order.class));
+        verify(cartCacheIndex, never()).cartEvicted(any());
     }
 
     @Test
     void testCreateOrder_EmptyCart_NoItems() {
         // Given
         when(cartRepository.findByUser(testUser)).thenReturn(Optional.of(testCart));
-        when(cartItemRepository.findByCart(testCart)).thenReturn(Collections.emptyList());
+        when(cartItemRepository.countByCart(testCart)).thenReturn(0L);
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(testUser.getEmail(), "123 Test St"))
                 .isInstanceOf(EmptyCartException.class)
                 .hasMessageContaining("Cart is empty");
         verify(cartRepository, times(1)).findByUser(testUser);
-        verify(cartItemRepository, times(1)).findByCart(testCart);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(cartItemRepository, times(1)).countByCart(testCart);
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(orderItemRepository, never()).reserveIds(anyInt());
     }
 
     @Test
@@ -204,7 +277,7 @@ class OrderServiceTest {
         // Given
         List<Order> orders = Arrays.asList(testOrder);
         when(orderRepository.findByUser(testUser)).thenReturn(orders);
-        when(orderItemRepository.findByOrder(testOrder)).thenReturn(Collections.singletonList(testOrderItem));
+        when(orderItemRepository.findByOrderIn(orders)).thenReturn(Collections.singletonList(testOrderItem));
 
         // When
         List<OrderResponseDto> result = orderService.getOrders(testUser.getEmail());
@@ -213,7 +286,9 @@ class OrderServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.size()).isEqualTo(1);
         assertThat(result.get(0).getOrderId()).isEqualTo(1L);
+        assertThat(result.get(0).getTotalItems()).isEqualTo(2);
         verify(orderRepository, times(1)).findByUser(testUser);
+        verify(orderItemRepository, never()).findByOrder(any());
     }
 
     @Test
@@ -222,7 +297,7 @@ class OrderServiceTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Order> orderPage = new PageImpl<>(Arrays.asList(testOrder), pageable, 1);
         when(orderRepository.findByUser(testUser, pageable)).thenReturn(orderPage);
-        when(orderItemRepository.findByOrder(testOrder)).thenReturn(Collections.singletonList(testOrderItem));
+        when(orderItemRepository.findByOrderIn(orderPage.getContent())).thenReturn(Collections.singletonList(testOrderItem));
 
         // When
         Page<OrderResponseDto> result = orderService.getOrders(testUser.getEmail(), pageable, null);
@@ -240,7 +315,7 @@ class OrderServiceTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Order> orderPage = new PageImpl<>(Arrays.asList(testOrder), pageable, 1);
         when(orderRepository.findByUserAndStatus(testUser, OrderStatus.PENDING, pageable)).thenReturn(orderPage);
-        when(orderItemRepository.findByOrder(testOrder)).thenReturn(Collections.singletonList(testOrderItem));
+        when(orderItemRepository.findByOrderIn(orderPage.getContent())).thenReturn(Collections.singletonList(testOrderItem));
 
         // When
         Page<OrderResponseDto> result = orderService.getOrders(testUser.getEmail(), pageable, OrderStatus.PENDING);
@@ -265,7 +340,7 @@ class OrderServiceTest {
         when(orderItemRepository.findByOrder(any(Order.class))).thenReturn(Collections.singletonList(testOrderItem));
 
         // When
-        OrderResponseDto result = orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED);
+        OrderResponseDto result = orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED, null);
 
         // Then
         assertThat(result).isNotNull();
@@ -280,11 +355,24 @@ class OrderServiceTest {
         when(orderRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThatThrownBy(() -> orderService.updateOrderStatus(999L, OrderStatus.CONFIRMED))
+        assertThatThrownBy(() -> orderService.updateOrderStatus(999L, OrderStatus.CONFIRMED, null))
                 .isInstanceOf(OrderNotFoundException.class)
                 .hasMessageContaining("Order with id 999 not found");
         verify(orderRepository, times(1)).findById(999L);
         verify(orderRepository, never()).save(any(Order.class));
     }
-}
 
+    @Test
+    void testUpdateOrderStatus_StaleVersion() {
+        // Given - the order moved on to version 4 since the caller read it
+        testOrder.setVersion(4L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.updateOrderStatus(1L, OrderStatus.CANCELLED, 3L))
+                .isInstanceOf(VersionConflictException.class)
+                .hasMessageContaining("changed since version 3");
+        assertThat(testOrder.getStatus()).isEqualTo(OrderStatus.PENDING);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+}
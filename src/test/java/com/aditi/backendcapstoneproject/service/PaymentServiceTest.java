@@ -1,5 +1,6 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.OptimisticLockRetry;
 import com.aditi.backendcapstoneproject.dto.PaymentRequestDto;
 import com.aditi.backendcapstoneproject.dto.PaymentResponseDto;
 import com.aditi.backendcapstoneproject.enums.OrderStatus;
@@ -21,7 +22,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Date;
 import java.util.Optional;
@@ -46,6 +49,10 @@ class PaymentServiceTest {
     @Mock
     private StripePaymentService stripePaymentService;
 
+    // Runs each work once, in a transaction of the mocked manager
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -0,0 +1,87 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.dto.ProductBulkImportResponseDto;
+import com.aditi.backendcapstoneproject.enums.ProductImportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductBulkImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    private ProductBulkImportService productBulkImportService;
+
+    @BeforeEach
+    void setUp() {
+        productBulkImportService = new ProductBulkImportService(jdbcTemplate, transactionManager,
+                categoryRegistry, categoryStatsService, catalogVersionTracker, new ObjectMapper());
+    }
+
+    @Test
+    void testParseCsvLine_HandlesQuotedValues() {
+        // When & Then
+        assertThat(ProductBulkImportService.parseCsvLine("Tablet,\"10\"\" screen, 64GB\",,299.99"))
+                .containsExactly("Tablet", "10\" screen, 64GB", "", "299.99");
+    }
+
+    @Test
+    void testImportProducts_WhenCsvHeaderIsMissingRequiredColumns() {
+        // When & Then
+        assertThatThrownBy(() -> productBulkImportService.importProducts(
+                new StringReader("name,price\nTablet,299.99\n"), ProductImportFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name and category");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testImportProducts_InvalidRowsAreReportedAndNotInserted() throws Exception {
+        // Given
+        String csv = "name,category,price\n"
+                + "Tablet,,299.99\n"
+                + "\n"
+                + ",Electronics,10\n";
+
+        // When
+        ProductBulkImportResponseDto result = productBulkImportService.importProducts(
+                new StringReader(csv), ProductImportFormat.CSV);
+
+        // Then
+        assertThat(result.getReceived()).isEqualTo(2);
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting("line").containsExactly(2L, 4L);
+        verifyNoInteractions(jdbcTemplate, categoryRegistry);
+        verify(catalogVersionTracker, times(1)).catalogChanged();
+    }
+}
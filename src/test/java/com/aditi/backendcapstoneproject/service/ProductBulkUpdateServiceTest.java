@@ -0,0 +1,102 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
+import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductBulkUpdateServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Mock
+    private CartCacheIndex cartCacheIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        productBulkUpdateService = new ProductBulkUpdateService(jdbcTemplate, transactionManager, categoryRepository,
+                categoryRegistry, categoryStatsService, catalogVersionTracker, cartCacheIndex, cacheManager,
+                entityManagerFactory);
+    }
+
+    @Test
+    void testAdjustPricesByCategory_WhenPercentageRemovesWholePrice() {
+        // When & Then
+        assertThatThrownBy(() -> productBulkUpdateService.adjustPricesByCategory("Electronics", -100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("percentage must be greater than -100");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testAdjustPricesByCategory_WhenCategoryDoesNotExist() {
+        // Given
+        when(categoryRepository.findByName("Unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> productBulkUpdateService.adjustPricesByCategory("Unknown", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Category Unknown does not exist");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testUpdatePrices_WhenPriceIsNegative() {
+        // When & Then
+        assertThatThrownBy(() -> productBulkUpdateService.updatePrices(Map.of(1L, -5.0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid price -5.0 for product 1");
+        verifyNoInteractions(jdbcTemplate, catalogVersionTracker);
+    }
+
+    @Test
+    void testMoveProducts_WithoutSourceDoesNotCreateTarget() {
+        // When & Then
+        assertThatThrownBy(() -> productBulkUpdateService.moveProducts(null, null, "Gadgets"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Provide productIds or fromCategory");
+        verifyNoInteractions(categoryRegistry, jdbcTemplate);
+    }
+}
@@ -1,10 +1,12 @@
 package com.aditi.backendcapstoneproject.service;
 
+import com.aditi.backendcapstoneproject.component.CartCacheIndex;
+import com.aditi.backendcapstoneproject.component.CatalogVersionTracker;
 import com.aditi.backendcapstoneproject.dto.ProductRequestDto;
 import com.aditi.backendcapstoneproject.exception.ProductNotFoundException;
 import com.aditi.backendcapstoneproject.model.Category;
 import com.aditi.backendcapstoneproject.model.Product;
-import com.aditi.backendcapstoneproject.repository.CategoryRepository;
+import com.aditi.backendcapstoneproject.repository.CartItemRepository;
 import com.aditi.backendcapstoneproject.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +28,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +39,19 @@ class ProductDBServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartCacheIndex cartCacheIndex;
 
     @InjectMocks
     private ProductDBService productDBService;
@@ -93,6 +109,46 @@ class ProductDBServiceTest {
                 .hasMessageContaining("The product with id 999 is not found");
     }
 
+    @Test
+    void testGetProductById_Deleted() {
+        // Given
+        testProduct.setDeleted(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When & Then
+        assertThatThrownBy(() -> productDBService.getProductsById(1L))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void testDeleteProduct_Success() throws ProductNotFoundException {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        productDBService.deleteProduct(1L);
+
+        // Then
+        verify(productRepository, times(1)).save(argThat(Product::isDeleted));
+        verify(cartItemRepository, times(1)).deleteByProductId(1L);
+        verify(categoryStatsService, times(1)).productRemoved(testProduct);
+        verify(catalogVersionTracker, times(1)).catalogChanged();
+        verify(cartCacheIndex, times(1)).productChanged(1L);
+    }
+
+    @Test
+    void testDeleteProduct_AlreadyDeleted() {
+        // Given
+        testProduct.setDeleted(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When & Then
+        assertThatThrownBy(() -> productDBService.deleteProduct(1L))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(productRepository, never()).save(any());
+    }
+
     @Test
     void testGetAllProducts() {
         // Given
@@ -129,7 +185,7 @@ class ProductDBServiceTest {
     @Test
     void testCreateProduct_WithExistingCategory() {
         // Given
-        when(categoryRepository.findByName("Electronics")).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.getOrCreate("Electronics")).thenReturn(testCategory);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // When
@@ -139,9 +195,10 @@ class ProductDBServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(categoryRepository, times(1)).findByName("Electronics");
-        verify(categoryRepository, never()).save(any(Category.class));
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(categoryRegistry, times(1)).getOrCreate("Electronics");
+        verify(productRepository, times(1)).save(argThat(product -> product.getCategory() == testCategory));
+        verify(categoryStatsService, times(1)).productAdded(testProduct);
+        verify(catalogVersionTracker, times(1)).catalogChanged();
     }
 
     @Test
@@ -151,8 +208,7 @@ class ProductDBServiceTest {
         newCategory.setId(2L);
         newCategory.setName("Books");
 
-        when(categoryRepository.findByName("Books")).thenReturn(Optional.empty());
-        when(categoryRepository.save(any(Category.class))).thenReturn(newCategory);
+        when(categoryRegistry.getOrCreate("Books")).thenReturn(newCategory);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // When
@@ -162,14 +218,15 @@ class ProductDBServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(categoryRepository, times(1)).findByName("Books");
-        verify(categoryRepository, times(1)).save(any(Category.class));
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(categoryRegistry, times(1)).getOrCreate("Books");
+        verify(productRepository, times(1)).save(argThat(product -> product.getCategory() == newCategory));
     }
 
     @Test
     void testCreateProduct_WhenCategoryIsNull() {
-        // Given - no need to mock since exception will be thrown before repository calls
+        // Given
+        when(categoryRegistry.getOrCreate(null))
+                .thenThrow(new NullPointerException("Category name cannot be null or empty"));
 
         // When & Then
         assertThatThrownBy(() ->
@@ -191,7 +248,7 @@ class ProductDBServiceTest {
 
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(categoryRepository.findByName("Electronics")).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.getOrCreate("Electronics")).thenReturn(testCategory);
         when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
 
         // When
@@ -201,6 +258,7 @@ class ProductDBServiceTest {
         assertThat(result).isNotNull();
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(categoryStatsService, times(1)).productUpdated(testCategory, 999.99, updatedProduct);
     }
 
     @Test
@@ -239,6 +297,24 @@ class ProductDBServiceTest {
         assertThat(result).isNotNull();
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(categoryStatsService, times(1)).productUpdated(testCategory, 999.99, updatedProduct);
+        verify(cartCacheIndex, times(1)).productChanged(1L);
+    }
+
+    @Test
+    void testPartialUpdateProduct_DescriptionOnlyKeepsCachedCarts() throws ProductNotFoundException {
+        // Given - carts do not show the description
+        ProductRequestDto partialDto = new ProductRequestDto();
+        partialDto.setDescription("Now with a better keyboard");
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        productDBService.partialUpdateProduct(1L, partialDto);
+
+        // Then
+        verify(cartCacheIndex, never()).productChanged(any());
     }
 
     @Test
@@ -306,7 +382,7 @@ class ProductDBServiceTest {
     void testGetProductsByCategory() {
         // Given
         List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findByCategory_Name("Electronics")).thenReturn(products);
+        when(productRepository.findByCategoryName("Electronics")).thenReturn(products);
 
         // When
         List<Product> result = productDBService.getProductsByCategory("Electronics");
@@ -314,7 +390,7 @@ class ProductDBServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.size()).isEqualTo(1);
-        verify(productRepository, times(1)).findByCategory_Name("Electronics");
+        verify(productRepository, times(1)).findByCategoryName("Electronics");
     }
 
     @Test
@@ -322,7 +398,7 @@ class ProductDBServiceTest {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
         Page<Product> productPage = new PageImpl<>(Arrays.asList(testProduct), pageable, 1);
-        when(productRepository.findByCategory_Name("Electronics", pageable)).thenReturn(productPage);
+        when(productRepository.findByCategoryName("Electronics", pageable)).thenReturn(productPage);
 
         // When
         Page<Product> result = productDBService.getProductsByCategory("Electronics", pageable);
@@ -330,7 +406,21 @@ class ProductDBServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent().size()).isEqualTo(1);
-        verify(productRepository, times(1)).findByCategory_Name("Electronics", pageable);
+        verify(productRepository, times(1)).findByCategoryName("Electronics", pageable);
     }
-}
 
+    @Test
+    void testGetProductsByCategoryAfter() {
+        // Given
+        when(productRepository.findByCategoryNameAndIdGreaterThanOrderByIdAsc("Electronics", 0L, Limit.of(10)))
+                .thenReturn(Arrays.asList(testProduct));
+
+        // When
+        List<Product> result = productDBService.getProductsByCategoryAfter(" Electronics ", 0L, 10);
+
+        // Then
+        assertThat(result).containsExactly(testProduct);
+        verify(productRepository, times(1))
+                .findByCategoryNameAndIdGreaterThanOrderByIdAsc("Electronics", 0L, Limit.of(10));
+    }
+}
@@ -0,0 +1,173 @@
+package com.aditi.backendcapstoneproject.service;
+
+import com.aditi.backendcapstoneproject.dto.CartResponseDto;
+import com.aditi.backendcapstoneproject.dto.ReaperReportDto;
+import com.aditi.backendcapstoneproject.model.Cart;
+import com.aditi.backendcapstoneproject.model.CartItem;
+import com.aditi.backendcapstoneproject.model.PasswordResetToken;
+import com.aditi.backendcapstoneproject.model.Product;
+import com.aditi.backendcapstoneproject.model.User;
+import com.aditi.backendcapstoneproject.repository.CartItemRepository;
+import com.aditi.backendcapstoneproject.repository.CartRepository;
+import com.aditi.backendcapstoneproject.repository.PasswordResetTokenRepository;
+import com.aditi.backendcapstoneproject.repository.ProductRepository;
+import com.aditi.backendcapstoneproject.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction, so every chunk commits on its own. Chunks of two rows make
+ * the keyset walk over several chunks.
+ */
+@SpringBootTest(properties = {
+        "catalog.reaper.batch-size=2",
+        "catalog.reaper.chunk-pause-ms=1"
+})
+@ActiveProfiles("test")
+class StaleDataReaperIntegrationTest {
+
+    @Autowired
+    private StaleDataReaperService staleDataReaperService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("Reaper Keyboard");
+        product.setPrice(50.0);
+        product.setCreatedAt(new Date());
+        product.setLastModified(new Date());
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            jdbcTemplate.update("delete from password_reset_token where user_id = ?", user.getId());
+            jdbcTemplate.update("delete from cart_item where cart_id in (select id from cart where user_id = ?)", user.getId());
+            jdbcTemplate.update("delete from cart where user_id = ?", user.getId());
+            jdbcTemplate.update("delete from users where id = ?", user.getId());
+        }
+        jdbcTemplate.update("delete from product where id = ?", product.getId());
+    }
+
+    @Test
+    void testReapsAbandonedCartsAndExpiredTokensInChunks() {
+        // Given - three carts untouched for 200 days (two with items), one active cart
+        List<Cart> abandoned = List.of(
+                cart(user("reaper-1@example.com"), 2),
+                cart(user("reaper-2@example.com"), 1),
+                cart(user("reaper-3@example.com"), 0));
+        abandoned.forEach(cart -> jdbcTemplate.update("update cart set last_modified = ? where id = ?",
+                daysAgo(200), cart.getId()));
+        User active = user("reaper-active@example.com");
+        Cart activeCart = cart(active, 1);
+        cacheManager.getCache("carts").put("reaper-1@example.com", new CartResponseDto());
+
+        // and two expired password reset tokens, one still valid
+        token(active, "reaper-expired-1", daysAgo(2));
+        token(active, "reaper-expired-2", daysAgo(1));
+        token(active, "reaper-valid", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+
+        // When
+        ReaperReportDto report = staleDataReaperService.reap(daysAgo(90), new Date());
+
+        // Then
+        assertThat(report.getCarts()).isEqualTo(3);
+        assertThat(report.getCartItems()).isEqualTo(2);
+        assertThat(report.getPasswordResetTokens()).isEqualTo(2);
+        assertThat(report.getTotalRows()).isEqualTo(7);
+        assertThat(report.getChunks()).isEqualTo(3);
+
+        for (Cart cart : abandoned) {
+            assertThat(cartRepository.existsById(cart.getId())).isFalse();
+        }
+        assertThat(cartRepository.existsById(activeCart.getId())).isTrue();
+        assertThat(cartItemRepository.findByCart(activeCart)).hasSize(1);
+        assertThat(cacheManager.getCache("carts").get("reaper-1@example.com")).isNull();
+        assertThat(passwordResetTokenRepository.findByToken("reaper-valid")).isPresent();
+        assertThat(passwordResetTokenRepository.findByToken("reaper-expired-1")).isEmpty();
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setName("Reaper");
+        user.setRole("USER");
+        user.setCreatedAt(new Date());
+        user.setLastModified(new Date());
+        user = userRepository.save(user);
+        users.add(user);
+        return user;
+    }
+
+    private Cart cart(User user, int items) {
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setCreatedAt(new Date());
+        cart.setLastModified(new Date());
+        cart = cartRepository.save(cart);
+        if (items > 0) {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(items);
+            item.setCreatedAt(new Date());
+            item.setLastModified(new Date());
+            cartItemRepository.save(item);
+        }
+        return cart;
+    }
+
+    private void token(User user, String value, Date expiryDate) {
+        PasswordResetToken token = new PasswordResetToken();
+        token.setUser(user);
+        token.setToken(value);
+        token.setExpiryDate(expiryDate);
+        token.setCreatedAt(new Date());
+        token.setLastModified(new Date());
+        passwordResetTokenRepository.save(token);
+    }
+
+    private Date daysAgo(int days) {
+        return Date.from(Instant.now().minus(days, ChronoUnit.DAYS));
+    }
+}